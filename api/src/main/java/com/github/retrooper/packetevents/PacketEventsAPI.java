@@ -23,6 +23,7 @@ import com.github.retrooper.packetevents.injector.ChannelInjector;
 import com.github.retrooper.packetevents.manager.player.PlayerManager;
 import com.github.retrooper.packetevents.manager.protocol.ProtocolManager;
 import com.github.retrooper.packetevents.manager.server.ServerManager;
+import com.github.retrooper.packetevents.metrics.PacketMetrics;
 import com.github.retrooper.packetevents.netty.NettyManager;
 import com.github.retrooper.packetevents.settings.PacketEventsSettings;
 import com.github.retrooper.packetevents.util.LogManager;
@@ -44,6 +45,10 @@ public abstract class PacketEventsAPI<T> {
         return EVENT_MANAGER;
     }
 
+    public PacketMetrics getMetrics() {
+        return EVENT_MANAGER.getMetrics();
+    }
+
     public PacketEventsSettings getSettings() {
         return SETTINGS;
     }
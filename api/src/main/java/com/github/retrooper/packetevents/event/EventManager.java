@@ -20,15 +20,25 @@ package com.github.retrooper.packetevents.event;
 
 import com.github.retrooper.packetevents.PacketEvents;
 import com.github.retrooper.packetevents.exception.InvalidHandshakeException;
+import com.github.retrooper.packetevents.metrics.PacketMetrics;
+import com.github.retrooper.packetevents.protocol.ConnectionState;
+import com.github.retrooper.packetevents.protocol.PacketSide;
+import com.github.retrooper.packetevents.protocol.packettype.PacketType;
+import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 
 public class EventManager {
-    private final Map<PacketListenerPriority, Set<PacketListenerCommon>> listenersMap =
-            Collections.synchronizedMap(new EnumMap<>(PacketListenerPriority.class));
+    private static final PacketListenerCommon[] NO_LISTENERS = new PacketListenerCommon[0];
+    // Guards registration, the arrays below are copied on write so calling events never locks
+    private final Object lock = new Object();
+    // All listeners ordered by priority, then by registration order
+    private volatile PacketListenerCommon[] listeners = NO_LISTENERS;
+    // Listeners ordered by priority, indexed by [packet side][connection state][packet type ordinal]
+    private volatile PacketListenerCommon[][][][] packetListeners = createPacketListeners(NO_LISTENERS);
+    private final PacketMetrics metrics = new PacketMetrics();
 
     /**
      * Call the PacketEvent.
@@ -43,23 +53,87 @@ public class EventManager {
         callEvent(event, null);
     }
 
+    /**
+     * Call the PacketEvent and run an action after every listener.
+     *
+     * @param event                  {@link PacketEvent}
+     * @param postCallListenerAction Action to run after every listener
+     * @deprecated Packet events already rewind their buffer after every listener which read it,
+     * use {@link #callEvent(PacketEvent)}
+     */
+    @Deprecated
     public void callEvent(PacketEvent event, @Nullable Runnable postCallListenerAction) {
-        for (PacketListenerPriority priority : PacketListenerPriority.values()) {
-            Set<PacketListenerCommon> listeners = listenersMap.get(priority);
-            if (listeners != null) {
-                for (PacketListenerCommon listener : listeners) {
-                    event.call(listener);
-                    if (postCallListenerAction != null) {
-                        postCallListenerAction.run();
-                    }
+        ProtocolPacketEvent<?> packetEvent = event instanceof ProtocolPacketEvent ? (ProtocolPacketEvent<?>) event : null;
+        PacketListenerCommon[] listeners = packetEvent != null ? getListeners(packetEvent.getPacketType()) : this.listeners;
+        if (metrics.isEnabled()) {
+            callEventMeasured(event, packetEvent, listeners, postCallListenerAction);
+        } else {
+            for (PacketListenerCommon listener : listeners) {
+                event.call(listener);
+                if (packetEvent != null) {
+                    packetEvent.rewindByteBuf();
+                }
+                if (postCallListenerAction != null) {
+                    postCallListenerAction.run();
                 }
             }
         }
         // For performance reasons, we don't want to re-encode the packet if it's not needed.
-        if (event instanceof ProtocolPacketEvent && !((ProtocolPacketEvent<?>) event).needsReEncode()) {
-            ((ProtocolPacketEvent<?>) event).setLastUsedWrapper(null);
+        if (packetEvent != null && !packetEvent.needsReEncode()) {
+            packetEvent.setLastUsedWrapper(null);
+        }
+
+    }
+
+    private void callEventMeasured(PacketEvent event, @Nullable ProtocolPacketEvent<?> packetEvent,
+                                   PacketListenerCommon[] listeners, @Nullable Runnable postCallListenerAction) {
+        int bytes = packetEvent != null ? packetEvent.getReadableBytes() : 0;
+        long listenerNanos = 0;
+        for (PacketListenerCommon listener : listeners) {
+            long start = System.nanoTime();
+            event.call(listener);
+            long nanos = System.nanoTime() - start;
+            metrics.recordListener(listener, nanos);
+            listenerNanos += nanos;
+            if (packetEvent != null) {
+                packetEvent.rewindByteBuf();
+            }
+            if (postCallListenerAction != null) {
+                postCallListenerAction.run();
+            }
+        }
+        if (packetEvent != null) {
+            metrics.recordPacket(packetEvent, bytes, listenerNanos);
         }
+    }
+
+    /**
+     * Get the metrics of the packets processed by this event manager, which are disabled by default.
+     *
+     * @return Packet metrics
+     */
+    public PacketMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Get the listeners which would process a packet of this type, ordered by priority.
+     * The returned array is shared and must not be modified.
+     *
+     * @param packetType Packet type
+     * @return Listeners subscribed to this packet type
+     */
+    public PacketListenerCommon[] getListeners(@Nullable PacketTypeCommon packetType) {
+        ConnectionState state = packetType == null ? null : PacketType.getConnectionState(packetType);
+        if (state == null) {
+            // Not one of our constants, we can't tell who is interested
+            return listeners;
+        }
+        return packetListeners[packetType.getSide().ordinal()][state.ordinal()][((Enum<?>) packetType).ordinal()];
+    }
 
+    public boolean hasListeners(@Nullable PacketTypeCommon packetType) {
+        return getListeners(packetType).length != 0;
     }
 
     public PacketListenerCommon registerListener(PacketListener listener, PacketListenerPriority priority) {
@@ -67,18 +141,36 @@ public class EventManager {
         return registerListener(packetListenerAbstract);
     }
 
+    public PacketListenerCommon registerListener(PacketListener listener, PacketListenerPriority priority,
+                                                 PacketTypeCommon... packetTypes) {
+        PacketListenerCommon packetListenerAbstract = listener.asAbstract(priority, packetTypes);
+        return registerListener(packetListenerAbstract);
+    }
+
     /**
      * Register the dynamic packet event listener.
      *
      * @param listener {@link PacketListenerCommon}
      */
     public PacketListenerCommon registerListener(PacketListenerCommon listener) {
-        Set<PacketListenerCommon> listenerSet = listenersMap.get(listener.getPriority());
-        if (listenerSet == null) {
-            listenerSet = ConcurrentHashMap.newKeySet();
+        synchronized (lock) {
+            PacketListenerCommon[] listeners = this.listeners;
+            int index = listeners.length;
+            for (int i = 0; i < listeners.length; i++) {
+                if (listeners[i].equals(listener)) {
+                    return listener;
+                }
+                // Insert behind all listeners of the same or a lower priority
+                if (index == listeners.length && listeners[i].getPriority().ordinal() > listener.getPriority().ordinal()) {
+                    index = i;
+                }
+            }
+            PacketListenerCommon[] updated = new PacketListenerCommon[listeners.length + 1];
+            System.arraycopy(listeners, 0, updated, 0, index);
+            updated[index] = listener;
+            System.arraycopy(listeners, index, updated, index + 1, listeners.length - index);
+            setListeners(updated);
         }
-        listenerSet.add(listener);
-        listenersMap.put(listener.getPriority(), listenerSet);
         return listener;
     }
 
@@ -95,9 +187,18 @@ public class EventManager {
     }
 
     public void unregisterListener(PacketListenerCommon listener) {
-        Set<PacketListenerCommon> listenerSet = listenersMap.get(listener.getPriority());
-        if (listenerSet == null) return;
-        listenerSet.remove(listener);
+        synchronized (lock) {
+            PacketListenerCommon[] listeners = this.listeners;
+            for (int i = 0; i < listeners.length; i++) {
+                if (listeners[i].equals(listener)) {
+                    PacketListenerCommon[] updated = new PacketListenerCommon[listeners.length - 1];
+                    System.arraycopy(listeners, 0, updated, 0, i);
+                    System.arraycopy(listeners, i + 1, updated, i, updated.length - i);
+                    setListeners(updated);
+                    return;
+                }
+            }
+        }
     }
 
     public void unregisterListeners(PacketListenerCommon... listeners) {
@@ -111,6 +212,45 @@ public class EventManager {
      * Unregister all dynamic packet event listeners.
      */
     public void unregisterAllListeners() {
-        listenersMap.clear();
+        synchronized (lock) {
+            setListeners(NO_LISTENERS);
+        }
+    }
+
+    private void setListeners(PacketListenerCommon[] listeners) {
+        this.packetListeners = createPacketListeners(listeners);
+        this.listeners = listeners;
+        metrics.setRegisteredListeners(listeners);
+    }
+
+    private static PacketListenerCommon[][][][] createPacketListeners(PacketListenerCommon[] listeners) {
+        PacketSide[] sides = PacketSide.values();
+        ConnectionState[] states = ConnectionState.values();
+        PacketListenerCommon[][][][] packetListeners = new PacketListenerCommon[sides.length][states.length][][];
+        for (PacketSide side : sides) {
+            for (ConnectionState state : states) {
+                PacketTypeCommon[] packetTypes = PacketType.getPacketTypes(side, state);
+                PacketListenerCommon[][] byType = new PacketListenerCommon[packetTypes.length][];
+                for (int i = 0; i < packetTypes.length; i++) {
+                    byType[i] = filterListeners(listeners, packetTypes[i]);
+                }
+                packetListeners[side.ordinal()][state.ordinal()] = byType;
+            }
+        }
+        return packetListeners;
+    }
+
+    private static PacketListenerCommon[] filterListeners(PacketListenerCommon[] listeners, PacketTypeCommon packetType) {
+        List<PacketListenerCommon> filtered = new ArrayList<>(listeners.length);
+        for (PacketListenerCommon listener : listeners) {
+            if (listener.isListeningTo(packetType)) {
+                filtered.add(listener);
+            }
+        }
+        if (filtered.isEmpty()) {
+            return NO_LISTENERS;
+        }
+        // Share the array if nobody filtered this packet type out
+        return filtered.size() == listeners.length ? listeners : filtered.toArray(NO_LISTENERS);
     }
 }
@@ -18,9 +18,15 @@
 
 package com.github.retrooper.packetevents.event;
 
+import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
+
 public interface PacketListener {
     default PacketListenerAbstract asAbstract(PacketListenerPriority priority) {
-        return new PacketListenerAbstract(priority) {
+        return asAbstract(priority, new PacketTypeCommon[0]);
+    }
+
+    default PacketListenerAbstract asAbstract(PacketListenerPriority priority, PacketTypeCommon... packetTypes) {
+        return new PacketListenerAbstract(priority, packetTypes) {
             @Override
             public void onUserConnect(UserConnectEvent event) {
                 PacketListener.this.onUserConnect(event);
@@ -50,6 +56,11 @@ public interface PacketListener {
             public void onPacketEventExternal(PacketEvent event) {
                 PacketListener.this.onPacketEventExternal(event);
             }
+
+            @Override
+            public String toString() {
+                return PacketListener.this.toString();
+            }
         };
     }
 
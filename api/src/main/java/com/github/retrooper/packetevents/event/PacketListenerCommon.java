@@ -18,6 +18,9 @@
 
 package com.github.retrooper.packetevents.event;
 
+import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
+import org.jetbrains.annotations.Nullable;
+
 import java.lang.reflect.Method;
 import java.util.List;
 import java.util.Map;
@@ -30,19 +33,57 @@ import java.util.Map;
  */
 public abstract class PacketListenerCommon {
     private final PacketListenerPriority priority;
+    private final PacketTypeCommon[] packetTypes;
 
     public PacketListenerCommon(PacketListenerPriority priority) {
         this.priority = priority;
+        this.packetTypes = null;
+    }
+
+    /**
+     * Create a listener which will only be called for the given packet types.
+     * Packets of any other type skip this listener entirely.
+     *
+     * @param priority    Listener priority
+     * @param packetTypes Packet types this listener processes, none means all of them
+     */
+    public PacketListenerCommon(PacketListenerPriority priority, PacketTypeCommon... packetTypes) {
+        this.priority = priority;
+        this.packetTypes = packetTypes.length == 0 ? null : packetTypes;
     }
 
     public PacketListenerCommon() {
         this.priority = PacketListenerPriority.NORMAL;
+        this.packetTypes = null;
     }
 
     public PacketListenerPriority getPriority() {
         return priority;
     }
 
+    /**
+     * The packet types this listener has subscribed to.
+     * These are read once, when the listener is registered.
+     *
+     * @return Subscribed packet types, or null if this listener processes every packet
+     */
+    public @Nullable PacketTypeCommon[] getPacketTypes() {
+        return packetTypes;
+    }
+
+    public boolean isListeningTo(PacketTypeCommon packetType) {
+        PacketTypeCommon[] packetTypes = getPacketTypes();
+        if (packetTypes == null) {
+            return true;
+        }
+        for (PacketTypeCommon type : packetTypes) {
+            if (type == packetType) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public void onUserConnect(UserConnectEvent event) {
     }
 
@@ -32,6 +32,8 @@ import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
 import com.github.retrooper.packetevents.protocol.player.ClientVersion;
 import com.github.retrooper.packetevents.protocol.player.User;
 import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import com.github.retrooper.packetevents.wrapper.PacketWrapperPool;
+import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -45,11 +47,18 @@ public abstract class ProtocolPacketEvent<T> extends PacketEvent implements Play
     private final User user;
     private final T player;
     private Object byteBuf;
+    // Reader index right behind the packet ID, every listener starts reading from here
+    private int processIndex;
+    // Once handed out, anyone holding the buffer may move its reader index
+    private boolean byteBufHandedOut;
     private final int packetID;
     private final PacketTypeCommon packetType;
     private ServerVersion serverVersion;
     private boolean cancel;
     private PacketWrapper<?> lastUsedWrapper;
+    // Most events acquire at most one wrapper, only use a list for more
+    private PacketWrapper<?> acquiredWrapper = null;
+    private List<PacketWrapper<?>> acquiredWrappers = null;
     private List<Runnable> postTasks = null;
     private boolean cloned;
     private boolean needsReEncode = PacketEvents.getAPI().getSettings().reEncodeByDefault();
@@ -77,10 +86,10 @@ public abstract class ProtocolPacketEvent<T> extends PacketEvent implements Play
         } catch (Exception e) {
             throw new PacketProcessException("Failed to read the Packet ID of a packet. (Size: " + size + ")");
         }
+        this.processIndex = ByteBufHelper.readerIndex(byteBuf);
         ClientVersion version = serverVersion.toClientVersion();
         ConnectionState state = packetSide == PacketSide.CLIENT ? user.getDecoderState() : user.getEncoderState();
-        this.packetType = PacketType.getById(packetSide, state,
-                version, packetID);
+        this.packetType = user.getPacketType(packetSide, state, version, packetID);
         if (this.packetType == null) {
             // mojang messed up and keeps sending disconnect packets in the wrong protocol state
             if (PacketType.getById(packetSide, ConnectionState.PLAY, version, packetID) == PacketType.Play.Server.DISCONNECT) {
@@ -98,6 +107,7 @@ public abstract class ProtocolPacketEvent<T> extends PacketEvent implements Play
         this.player = player;
         this.serverVersion = serverVersion;
         this.byteBuf = byteBuf;
+        this.processIndex = byteBuf == null ? 0 : ByteBufHelper.readerIndex(byteBuf);
         this.packetID = packetID;
         this.packetType = packetType;
 
@@ -162,11 +172,29 @@ public abstract class ProtocolPacketEvent<T> extends PacketEvent implements Play
     }
 
     public Object getByteBuf() {
+        byteBufHandedOut = true;
         return byteBuf;
     }
 
     public void setByteBuf(Object byteBuf) {
         this.byteBuf = byteBuf;
+        this.processIndex = ByteBufHelper.readerIndex(byteBuf);
+    }
+
+    /**
+     * Move the reader index of the buffer back to where the packet content starts, so the next listener can read it.
+     * Buffers which were never handed out, for example to a wrapper, haven't been read and are left alone.
+     */
+    @ApiStatus.Internal
+    public void rewindByteBuf() {
+        if (byteBufHandedOut) {
+            ByteBufHelper.readerIndex(byteBuf, processIndex);
+        }
+    }
+
+    // For the metrics, which must not count as reading the buffer
+    int getReadableBytes() {
+        return ByteBufHelper.readableBytes(byteBuf);
     }
 
     public int getPacketId() {
@@ -201,6 +229,52 @@ public abstract class ProtocolPacketEvent<T> extends PacketEvent implements Play
         this.lastUsedWrapper = lastUsedWrapper;
     }
 
+    /**
+     * Read the packet with a wrapper from a pool of the current thread, instead of creating a new wrapper for it.
+     * If the packet was already read with a wrapper of this type, that one is returned.
+     * Wrappers which don't support being reused are created as usual, see {@link PacketWrapper#isReusable()}.
+     * <p>
+     * The wrapper goes back to the pool once the event has been processed, and will then be used for other packets.
+     * Neither the wrapper nor anything read through it may be used after that, so copy what you need to keep.
+     * Only use this for packets you handle synchronously, like movement.
+     *
+     * @param wrapperClass The class of the wrapper, it must have a public constructor taking this type of event
+     * @return The wrapper, having read the packet
+     */
+    public <W extends PacketWrapper<?>> W acquireWrapper(Class<W> wrapperClass) {
+        if (wrapperClass.isInstance(lastUsedWrapper)) {
+            return wrapperClass.cast(lastUsedWrapper);
+        }
+        W wrapper = PacketWrapperPool.acquire(this, wrapperClass);
+        if (acquiredWrapper == null) {
+            acquiredWrapper = wrapper;
+        } else {
+            if (acquiredWrappers == null) {
+                acquiredWrappers = new ArrayList<>();
+            }
+            acquiredWrappers.add(wrapper);
+        }
+        return wrapper;
+    }
+
+    /**
+     * Return the wrappers acquired through {@link #acquireWrapper(Class)} to their pool.
+     * Called once the event, including its post tasks, has been processed.
+     */
+    @ApiStatus.Internal
+    public void releaseAcquiredWrappers() {
+        if (acquiredWrapper != null) {
+            PacketWrapperPool.release(acquiredWrapper);
+            acquiredWrapper = null;
+        }
+        if (acquiredWrappers != null) {
+            for (PacketWrapper<?> wrapper : acquiredWrappers) {
+                PacketWrapperPool.release(wrapper);
+            }
+            acquiredWrappers = null;
+        }
+    }
+
     public List<Runnable> getPostTasks() {
         if (postTasks == null) {
             postTasks = new ArrayList<>();
@@ -56,7 +56,17 @@ public class InternalPacketListener extends PacketListenerAbstract {
     }
 
     public InternalPacketListener(PacketListenerPriority priority) {
-        super(priority);
+        super(priority,
+                PacketType.Handshaking.Client.HANDSHAKE,
+                PacketType.Login.Client.LOGIN_SUCCESS_ACK,
+                PacketType.Login.Server.LOGIN_SUCCESS,
+                PacketType.Configuration.Client.CONFIGURATION_END_ACK,
+                PacketType.Configuration.Server.REGISTRY_DATA,
+                PacketType.Configuration.Server.CONFIGURATION_END,
+                PacketType.Play.Client.CONFIGURATION_ACK,
+                PacketType.Play.Server.JOIN_GAME,
+                PacketType.Play.Server.RESPAWN,
+                PacketType.Play.Server.CONFIGURATION_START);
     }
 
     @Override
@@ -0,0 +1,140 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.manager.protocol;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
+import com.github.retrooper.packetevents.netty.buffer.UnpooledByteBufAllocationHelper;
+import com.github.retrooper.packetevents.protocol.player.ClientVersion;
+import com.github.retrooper.packetevents.protocol.player.User;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A clientbound packet which is sent many times with the same content, like the teams or commands of a server.
+ * <p>
+ * It is encoded once for every client version it is sent to, later sends reuse the encoded packet.
+ * Only the most recently used encodings are kept, as heap arrays, so nothing has to be released
+ * once the packet isn't sent anymore.
+ * The wrapper must not be changed anymore, as the cached encodings wouldn't notice.
+ *
+ * @see PacketWrapper#freeze()
+ * @see ProtocolManager#sendPacket(Object, FrozenPacket)
+ */
+public final class FrozenPacket {
+    private static final int DEFAULT_MAX_ENCODINGS = 4;
+
+    private final PacketWrapper<?> wrapper;
+    private final int maxEncodings;
+    // By the version they were written in, least recently used first
+    private final Map<ClientVersion, byte[][]> encodings;
+
+    public FrozenPacket(PacketWrapper<?> wrapper) {
+        this(wrapper, DEFAULT_MAX_ENCODINGS);
+    }
+
+    /**
+     * @param maxEncodings How many client versions to keep the encoded packet for
+     */
+    public FrozenPacket(PacketWrapper<?> wrapper, int maxEncodings) {
+        if (maxEncodings < 1) {
+            throw new IllegalArgumentException("At least one encoding has to be kept, got " + maxEncodings);
+        }
+        this.wrapper = wrapper;
+        this.maxEncodings = maxEncodings;
+        this.encodings = new LinkedHashMap<ClientVersion, byte[][]>(4, 0.75F, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ClientVersion, byte[][]> eldest) {
+                return size() > FrozenPacket.this.maxEncodings;
+            }
+        };
+    }
+
+    public PacketWrapper<?> getWrapper() {
+        return wrapper;
+    }
+
+    public synchronized int getEncodingCount() {
+        return encodings.size();
+    }
+
+    /**
+     * Drop the encoded packets, for example to free their memory early.
+     * Calling this is optional, sending it again afterwards encodes it again.
+     */
+    public synchronized void release() {
+        encodings.clear();
+    }
+
+    void send(ProtocolManager protocolManager, Object channel, boolean silent) {
+        Object[] buffers = encode(protocolManager, channel, silent);
+        if (silent) {
+            protocolManager.sendPacketsSilently(channel, buffers);
+        } else {
+            protocolManager.sendPackets(channel, buffers);
+        }
+    }
+
+    // Buffers for the channel to send, which it releases once written
+    private synchronized Object[] encode(ProtocolManager protocolManager, Object channel, boolean silent) {
+        // Off proxies, packets are always written in the version of the server, so there is only one encoding
+        ClientVersion version = null;
+        if (PacketEvents.getAPI().getInjector().isProxy()) {
+            User user = protocolManager.getUser(channel);
+            version = user != null ? user.getClientVersion() : null;
+            if (version == null) {
+                // Nothing to cache it for
+                return protocolManager.transformWrappers(wrapper, channel, true);
+            }
+        }
+        byte[][] cached = encodings.get(version);
+        if (cached == null) {
+            cached = toArrays(protocolManager.transformWrappers(wrapper, channel, true));
+            encodings.put(version, cached);
+        }
+        // Our encoder rewrites modified packets in the buffer it was given,
+        // so the cached content may only be shared if no listener gets to see the packet
+        boolean shareContent = silent
+                || !PacketEvents.getAPI().getEventManager().hasListeners(wrapper.getPacketTypeData().getPacketType());
+        Object[] buffers = new Object[cached.length];
+        for (int i = 0; i < cached.length; i++) {
+            buffers[i] = shareContent ? UnpooledByteBufAllocationHelper.wrappedBuffer(cached[i])
+                    : UnpooledByteBufAllocationHelper.copiedBuffer(cached[i]);
+        }
+        return buffers;
+    }
+
+    // The written buffers are usually pooled, which a cache nobody releases must not hold on to
+    private static byte[][] toArrays(Object[] buffers) {
+        byte[][] arrays = new byte[buffers.length][];
+        try {
+            for (int i = 0; i < buffers.length; i++) {
+                arrays[i] = new byte[ByteBufHelper.readableBytes(buffers[i])];
+                ByteBufHelper.getBytes(buffers[i], ByteBufHelper.readerIndex(buffers[i]), arrays[i]);
+            }
+        } finally {
+            for (Object buffer : buffers) {
+                ByteBufHelper.release(buffer);
+            }
+        }
+        return arrays;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.manager.protocol;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.manager.server.ServerVersion;
+import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
+import com.github.retrooper.packetevents.netty.channel.ChannelHelper;
+import com.github.retrooper.packetevents.protocol.player.ClientVersion;
+import com.github.retrooper.packetevents.protocol.player.User;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerBundle;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Clientbound play packets which belong together, like everything needed to spawn an entity.
+ * <p>
+ * Clients on 1.19.4 or newer receive the packets wrapped in bundle delimiters,
+ * so they are processed together in the same tick. Older clients receive them one after another.
+ * In both cases the packets are written in a single event loop task and flushed once,
+ * right away if already sent from the event loop of the channel.
+ *
+ * @see ProtocolManager#sendPacketBatch(Object, PacketBatch)
+ */
+public final class PacketBatch {
+    // The vanilla client disconnects on larger bundles
+    private static final int MAX_BUNDLE_SIZE = 4096;
+
+    private final List<PacketWrapper<?>> packets = new ArrayList<>();
+
+    public PacketBatch add(PacketWrapper<?> packet) {
+        packets.add(packet);
+        return this;
+    }
+
+    public PacketBatch add(PacketWrapper<?>... packets) {
+        Collections.addAll(this.packets, packets);
+        return this;
+    }
+
+    public List<PacketWrapper<?>> getPackets() {
+        return Collections.unmodifiableList(packets);
+    }
+
+    public int size() {
+        return packets.size();
+    }
+
+    public boolean isEmpty() {
+        return packets.isEmpty();
+    }
+
+    void send(ProtocolManager protocolManager, Object channel, boolean silent) {
+        if (packets.isEmpty()) {
+            return;
+        }
+        List<Object> buffers = new ArrayList<>(packets.size());
+        try {
+            for (PacketWrapper<?> packet : packets) {
+                Collections.addAll(buffers, protocolManager.transformWrappers(packet, channel, true));
+            }
+            if (buffers.size() > 1 && supportsBundles(protocolManager, channel)) {
+                buffers = wrapInBundles(protocolManager, channel, buffers);
+            }
+        } catch (RuntimeException e) {
+            for (Object buffer : buffers) {
+                ByteBufHelper.release(buffer);
+            }
+            throw e;
+        }
+        List<Object> encoded = buffers;
+        if (ChannelHelper.inEventLoop(channel)) {
+            // Write right away, so packets sent directly later in this task don't overtake it
+            write(protocolManager, channel, encoded, silent);
+        } else {
+            ChannelHelper.runInEventLoop(channel, () -> write(protocolManager, channel, encoded, silent));
+        }
+    }
+
+    private static void write(ProtocolManager protocolManager, Object channel, List<Object> buffers, boolean silent) {
+        for (Object buffer : buffers) {
+            if (silent) {
+                protocolManager.writePacketSilently(channel, buffer);
+            } else {
+                protocolManager.writePacket(channel, buffer);
+            }
+        }
+        ChannelHelper.flush(channel);
+    }
+
+    private static List<Object> wrapInBundles(ProtocolManager protocolManager, Object channel, List<Object> buffers) {
+        // The same packet both opens and closes a bundle
+        Object delimiter = protocolManager.transformWrappers(new WrapperPlayServerBundle(), channel, true)[0];
+        int bundles = (buffers.size() + MAX_BUNDLE_SIZE - 1) / MAX_BUNDLE_SIZE;
+        List<Object> bundled = new ArrayList<>(buffers.size() + bundles * 2);
+        for (int start = 0; start < buffers.size(); start += MAX_BUNDLE_SIZE) {
+            bundled.add(ByteBufHelper.retainedDuplicate(delimiter));
+            bundled.addAll(buffers.subList(start, Math.min(start + MAX_BUNDLE_SIZE, buffers.size())));
+            bundled.add(ByteBufHelper.retainedDuplicate(delimiter));
+        }
+        ByteBufHelper.release(delimiter);
+        return bundled;
+    }
+
+    private static boolean supportsBundles(ProtocolManager protocolManager, Object channel) {
+        // Off proxies, packets are written in the version of the server and translated by protocol hacks if needed
+        if (!PacketEvents.getAPI().getInjector().isProxy()) {
+            return PacketEvents.getAPI().getServerManager().getVersion().isNewerThanOrEquals(ServerVersion.V_1_19_4);
+        }
+        User user = protocolManager.getUser(channel);
+        return user != null && user.getClientVersion() != null
+                && user.getClientVersion().isNewerThanOrEquals(ClientVersion.V_1_19_4);
+    }
+}
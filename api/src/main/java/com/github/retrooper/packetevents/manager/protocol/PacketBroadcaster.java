@@ -0,0 +1,142 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.manager.protocol;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
+import com.github.retrooper.packetevents.netty.channel.ChannelHelper;
+import com.github.retrooper.packetevents.protocol.player.ClientVersion;
+import com.github.retrooper.packetevents.protocol.player.User;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends one packet to many channels, see {@link ProtocolManager#broadcastPacket(Collection, PacketWrapper)}.
+ */
+final class PacketBroadcaster {
+    private PacketBroadcaster() {
+    }
+
+    static void broadcast(ProtocolManager protocolManager, Collection<Object> channels,
+                          PacketWrapper<?> wrapper, boolean silent) {
+        boolean proxy = PacketEvents.getAPI().getInjector().isProxy();
+        // Our encoder rewrites modified packets in the buffer it was given,
+        // so the channels may only share the content if no listener gets to see the packet
+        boolean shareContent = silent
+                || !PacketEvents.getAPI().getEventManager().hasListeners(wrapper.getPacketTypeData().getPacketType());
+        // Off proxies, packets are always written in the version of the server, so there is only one encoding
+        Map<ClientVersion, Object[]> encoded = new HashMap<>();
+        Map<Object, EventLoopBatch> batches = new IdentityHashMap<>();
+        try {
+            for (Object channel : channels) {
+                if (!ChannelHelper.isOpen(channel)) {
+                    continue;
+                }
+                ClientVersion version = null;
+                if (proxy) {
+                    User user = protocolManager.getUser(channel);
+                    if (user == null || user.getClientVersion() == null) {
+                        continue;
+                    }
+                    version = user.getClientVersion();
+                }
+                Object[] buffers = encoded.get(version);
+                if (buffers == null) {
+                    buffers = protocolManager.transformWrappers(wrapper, channel, true);
+                    encoded.put(version, buffers);
+                }
+                Object[] channelBuffers = new Object[buffers.length];
+                for (int i = 0; i < buffers.length; i++) {
+                    channelBuffers[i] = shareContent
+                            ? ByteBufHelper.retainedDuplicate(buffers[i]) : ByteBufHelper.copy(buffers[i]);
+                }
+                Object eventLoop = ChannelHelper.eventLoop(channel);
+                EventLoopBatch batch = batches.get(eventLoop);
+                if (batch == null) {
+                    batch = new EventLoopBatch(protocolManager, silent);
+                    batches.put(eventLoop, batch);
+                }
+                batch.channels.add(channel);
+                batch.buffers.add(channelBuffers);
+            }
+        } catch (RuntimeException e) {
+            // Nothing was sent yet, so nobody else is going to release the copies
+            for (EventLoopBatch batch : batches.values()) {
+                for (Object[] buffers : batch.buffers) {
+                    for (Object buffer : buffers) {
+                        ByteBufHelper.release(buffer);
+                    }
+                }
+            }
+            throw e;
+        } finally {
+            // Every channel holds its own reference or copy by now
+            for (Object[] buffers : encoded.values()) {
+                for (Object buffer : buffers) {
+                    ByteBufHelper.release(buffer);
+                }
+            }
+        }
+        for (EventLoopBatch batch : batches.values()) {
+            Object channel = batch.channels.get(0);
+            if (ChannelHelper.inEventLoop(channel)) {
+                // Write right away, so packets sent directly later in this task don't overtake it
+                batch.run();
+            } else {
+                ChannelHelper.runInEventLoop(channel, batch);
+            }
+        }
+    }
+
+    /**
+     * The channels of one event loop, written to in a single task and flushed once each.
+     */
+    private static final class EventLoopBatch implements Runnable {
+        private final ProtocolManager protocolManager;
+        private final boolean silent;
+        private final List<Object> channels = new ArrayList<>();
+        private final List<Object[]> buffers = new ArrayList<>();
+
+        private EventLoopBatch(ProtocolManager protocolManager, boolean silent) {
+            this.protocolManager = protocolManager;
+            this.silent = silent;
+        }
+
+        @Override
+        public void run() {
+            for (int i = 0; i < channels.size(); i++) {
+                Object channel = channels.get(i);
+                for (Object buffer : buffers.get(i)) {
+                    if (silent) {
+                        protocolManager.writePacketSilently(channel, buffer);
+                    } else {
+                        protocolManager.writePacket(channel, buffer);
+                    }
+                }
+                ChannelHelper.flush(channel);
+            }
+        }
+    }
+}
@@ -54,7 +54,6 @@ public interface ProtocolManager {
     void receivePacket(Object channel, Object byteBuf);
     void receivePacketSilently(Object channel, Object byteBuf);
     ClientVersion getClientVersion(Object channel);
-    //TODO Define method that accepts an array of channels/set/list of channels.
 
     default void sendPackets(Object channel, Object... byteBuf) {
         for (Object buf : byteBuf) {
@@ -132,6 +131,67 @@ public interface ProtocolManager {
         writePacketsSilently(channel, transformed);
     }
 
+    /**
+     * Send a packet to many channels at once.
+     * The packet is encoded once per client version instead of once per channel,
+     * and every event loop gets a single task writing and flushing the packet to its channels.
+     *
+     * @param channels The channels to send the packet to, closed channels are skipped
+     * @param wrapper  The packet
+     */
+    default void broadcastPacket(Collection<Object> channels, PacketWrapper<?> wrapper) {
+        PacketBroadcaster.broadcast(this, channels, wrapper, false);
+    }
+
+    /**
+     * Send a packet to many channels at once, without our listeners processing it.
+     *
+     * @see #broadcastPacket(Collection, PacketWrapper)
+     */
+    default void broadcastPacketSilently(Collection<Object> channels, PacketWrapper<?> wrapper) {
+        PacketBroadcaster.broadcast(this, channels, wrapper, true);
+    }
+
+    /**
+     * Send a packet which is sent many times with the same content, encoded only once per client version.
+     *
+     * @param channel The channel to send the packet to
+     * @param packet  The packet
+     * @see FrozenPacket
+     */
+    default void sendPacket(Object channel, FrozenPacket packet) {
+        packet.send(this, channel, false);
+    }
+
+    /**
+     * Send a frozen packet without our listeners processing it.
+     *
+     * @see #sendPacket(Object, FrozenPacket)
+     */
+    default void sendPacketSilently(Object channel, FrozenPacket packet) {
+        packet.send(this, channel, true);
+    }
+
+    /**
+     * Send packets which belong together, wrapped in a bundle for clients which support them.
+     *
+     * @param channel The channel to send the packets to
+     * @param batch   The packets
+     * @see PacketBatch
+     */
+    default void sendPacketBatch(Object channel, PacketBatch batch) {
+        batch.send(this, channel, false);
+    }
+
+    /**
+     * Send packets which belong together without our listeners processing them.
+     *
+     * @see #sendPacketBatch(Object, PacketBatch)
+     */
+    default void sendPacketBatchSilently(Object channel, PacketBatch batch) {
+        batch.send(this, channel, true);
+    }
+
     default void receivePacket(Object channel, PacketWrapper<?> wrapper) {
         Object[] transformed = transformWrappers(wrapper, channel, false);
         receivePackets(channel, transformed);
@@ -0,0 +1,76 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.metrics;
+
+import com.github.retrooper.packetevents.event.PacketListenerCommon;
+import com.github.retrooper.packetevents.event.PacketListenerPriority;
+import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Everything {@link PacketMetrics} recorded up to one point in time.
+ * Taking a snapshot doesn't stop the recording, the counters may be slightly apart from each other.
+ */
+public final class MetricsSnapshot {
+    private final long timestamp;
+    private final Map<PacketTypeCommon, PacketTypeStats> packetTypes;
+    private final Map<PacketListenerCommon, HistogramSnapshot> listeners;
+    private final Map<PacketListenerPriority, HistogramSnapshot> priorities;
+
+    MetricsSnapshot(long timestamp, Map<PacketTypeCommon, PacketTypeStats> packetTypes,
+                    Map<PacketListenerCommon, HistogramSnapshot> listeners,
+                    Map<PacketListenerPriority, HistogramSnapshot> priorities) {
+        this.timestamp = timestamp;
+        this.packetTypes = Collections.unmodifiableMap(packetTypes);
+        this.listeners = Collections.unmodifiableMap(listeners);
+        this.priorities = Collections.unmodifiableMap(priorities);
+    }
+
+    /**
+     * @return When the snapshot was taken, in milliseconds since the epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public Map<PacketTypeCommon, PacketTypeStats> getPacketTypes() {
+        return packetTypes;
+    }
+
+    public @Nullable PacketTypeStats getPacketType(PacketTypeCommon packetType) {
+        return packetTypes.get(packetType);
+    }
+
+    /**
+     * @return Time spent in each listener per call, over all packet types
+     */
+    public Map<PacketListenerCommon, HistogramSnapshot> getListeners() {
+        return listeners;
+    }
+
+    /**
+     * @return Time spent in the listeners of each priority per call, over all packet types
+     */
+    public Map<PacketListenerPriority, HistogramSnapshot> getPriorities() {
+        return priorities;
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.metrics;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.event.PacketListenerCommon;
+import com.github.retrooper.packetevents.event.PacketListenerPriority;
+import com.github.retrooper.packetevents.event.ProtocolPacketEvent;
+import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * Records how many packets of each type pass through packetevents, how large they are,
+ * how often they are cancelled or re-encoded and how long the listeners take to process them.
+ * <p>
+ * Disabled by default, nothing is measured until {@link #setEnabled(boolean)} is called.
+ * While enabled, the metrics are also exposed over JMX as {@link PacketMetricsMXBean}.
+ *
+ * @see #snapshot()
+ */
+public final class PacketMetrics {
+    private final ConcurrentMap<PacketTypeCommon, PacketTypeCounters> packetTypes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<PacketListenerCommon, LatencyHistogram> listeners = new ConcurrentHashMap<>();
+    // Only these are recorded, so unregistered listeners (and their plugins) aren't kept alive by us
+    private volatile Set<PacketListenerCommon> registeredListeners = Collections.emptySet();
+    private final LatencyHistogram[] priorities = new LatencyHistogram[PacketListenerPriority.values().length];
+    private volatile boolean enabled;
+    private @Nullable ObjectName objectName;
+
+    public PacketMetrics() {
+        for (int i = 0; i < priorities.length; i++) {
+            priorities[i] = new LatencyHistogram();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Start or stop recording. Recorded values are kept when disabling, see {@link #reset()}.
+     * Remember to disable the metrics again before your plugin is unloaded, so the JMX bean is unregistered.
+     *
+     * @param enabled Whether to record metrics
+     */
+    public synchronized void setEnabled(boolean enabled) {
+        if (this.enabled == enabled) {
+            return;
+        }
+        this.enabled = enabled;
+        if (enabled) {
+            registerMBean();
+        } else {
+            unregisterMBean();
+        }
+    }
+
+    /**
+     * Forget everything recorded so far.
+     */
+    public void reset() {
+        packetTypes.clear();
+        listeners.clear();
+        for (LatencyHistogram histogram : priorities) {
+            histogram.reset();
+        }
+    }
+
+    public MetricsSnapshot snapshot() {
+        Map<PacketTypeCommon, PacketTypeStats> packetTypes = new HashMap<>();
+        for (Map.Entry<PacketTypeCommon, PacketTypeCounters> entry : this.packetTypes.entrySet()) {
+            packetTypes.put(entry.getKey(), entry.getValue().snapshot(entry.getKey()));
+        }
+        Map<PacketListenerCommon, HistogramSnapshot> listeners = new HashMap<>();
+        for (Map.Entry<PacketListenerCommon, LatencyHistogram> entry : this.listeners.entrySet()) {
+            listeners.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        Map<PacketListenerPriority, HistogramSnapshot> priorities = new EnumMap<>(PacketListenerPriority.class);
+        for (PacketListenerPriority priority : PacketListenerPriority.values()) {
+            priorities.put(priority, this.priorities[priority.ordinal()].snapshot());
+        }
+        return new MetricsSnapshot(System.currentTimeMillis(), packetTypes, listeners, priorities);
+    }
+
+    /**
+     * Called whenever the registered listeners change, forgets the metrics of those which were unregistered.
+     */
+    @ApiStatus.Internal
+    public void setRegisteredListeners(PacketListenerCommon[] listeners) {
+        Set<PacketListenerCommon> registered = new HashSet<>(Arrays.asList(listeners));
+        this.registeredListeners = registered;
+        this.listeners.keySet().retainAll(registered);
+    }
+
+    @ApiStatus.Internal
+    public void recordListener(PacketListenerCommon listener, long nanos) {
+        priorities[listener.getPriority().ordinal()].record(nanos);
+        LatencyHistogram histogram = listeners.get(listener);
+        if (histogram == null) {
+            if (!registeredListeners.contains(listener)) {
+                // Unregistered while this event was being processed
+                return;
+            }
+            // Java 8 locks in computeIfAbsent even if the key is present
+            histogram = listeners.computeIfAbsent(listener, l -> new LatencyHistogram());
+            // Unregistered in the meantime, then the entry we added may have been missed by setRegisteredListeners
+            if (!registeredListeners.contains(listener)) {
+                listeners.remove(listener);
+            }
+        }
+        histogram.record(nanos);
+    }
+
+    /**
+     * @param bytes         Size of the packet before the listeners processed it, without the packet id
+     * @param listenerNanos Time spent in all listeners together
+     */
+    @ApiStatus.Internal
+    public void recordPacket(ProtocolPacketEvent<?> event, int bytes, long listenerNanos) {
+        PacketTypeCommon packetType = event.getPacketType();
+        if (packetType == null) {
+            return;
+        }
+        PacketTypeCounters counters = packetTypes.get(packetType);
+        if (counters == null) {
+            counters = packetTypes.computeIfAbsent(packetType, type -> new PacketTypeCounters());
+        }
+        counters.count.increment();
+        counters.bytes.add(bytes);
+        if (event.isCancelled()) {
+            counters.cancelled.increment();
+        } else if (event.needsReEncode() && event.getLastUsedWrapper() != null) {
+            counters.reEncoded.increment();
+        }
+        counters.listenerTime.record(listenerNanos);
+    }
+
+    private void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            // Several plugins may shade their own copy, tell them apart by the relocated class name
+            ObjectName name = new ObjectName("packetevents:type=PacketMetrics,name="
+                    + ObjectName.quote(PacketMetrics.class.getName()));
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new PacketMetricsBean(this), name);
+                objectName = name;
+            }
+        } catch (JMException | RuntimeException e) {
+            PacketEvents.getAPI().getLogger().log(Level.WARNING, "Failed to register the packet metrics MBean", e);
+        }
+    }
+
+    private void unregisterMBean() {
+        ObjectName name = objectName;
+        if (name == null) {
+            return;
+        }
+        objectName = null;
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        } catch (JMException e) {
+            PacketEvents.getAPI().getLogger().log(Level.WARNING, "Failed to unregister the packet metrics MBean", e);
+        }
+    }
+
+    private static final class PacketTypeCounters {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder cancelled = new LongAdder();
+        private final LongAdder reEncoded = new LongAdder();
+        private final LatencyHistogram listenerTime = new LatencyHistogram();
+
+        private PacketTypeStats snapshot(PacketTypeCommon packetType) {
+            return new PacketTypeStats(packetType, count.sum(), bytes.sum(), cancelled.sum(),
+                    reEncoded.sum(), listenerTime.snapshot());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.metrics;
+
+import com.github.retrooper.packetevents.event.PacketListenerCommon;
+import com.github.retrooper.packetevents.event.PacketListenerPriority;
+import com.github.retrooper.packetevents.protocol.ConnectionState;
+import com.github.retrooper.packetevents.protocol.packettype.PacketType;
+import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+final class PacketMetricsBean implements PacketMetricsMXBean {
+    private final PacketMetrics metrics;
+
+    PacketMetricsBean(PacketMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void reset() {
+        metrics.reset();
+    }
+
+    @Override
+    public Map<String, Long> getPacketCounts() {
+        return byPacketType(PacketTypeStats::getCount);
+    }
+
+    @Override
+    public Map<String, Long> getPacketBytes() {
+        return byPacketType(PacketTypeStats::getBytes);
+    }
+
+    @Override
+    public Map<String, Double> getCancellationRates() {
+        return byPacketType(PacketTypeStats::getCancellationRate);
+    }
+
+    @Override
+    public Map<String, Double> getReEncodeRates() {
+        return byPacketType(PacketTypeStats::getReEncodeRate);
+    }
+
+    @Override
+    public Map<String, Long> getPacketListenerP99Nanos() {
+        return byPacketType(stats -> stats.getListenerTime().getPercentileNanos(99));
+    }
+
+    @Override
+    public Map<String, Long> getListenerTotalNanos() {
+        return byListener(HistogramSnapshot::getTotalNanos);
+    }
+
+    @Override
+    public Map<String, Long> getListenerP99Nanos() {
+        return byListener(histogram -> histogram.getPercentileNanos(99));
+    }
+
+    @Override
+    public Map<String, Long> getPriorityTotalNanos() {
+        return byPriority(HistogramSnapshot::getTotalNanos);
+    }
+
+    @Override
+    public Map<String, Long> getPriorityP99Nanos() {
+        return byPriority(histogram -> histogram.getPercentileNanos(99));
+    }
+
+    private <T> Map<String, T> byPacketType(Function<PacketTypeStats, T> value) {
+        Map<String, T> map = new TreeMap<>();
+        for (PacketTypeStats stats : metrics.snapshot().getPacketTypes().values()) {
+            map.put(describe(stats.getPacketType()), value.apply(stats));
+        }
+        return map;
+    }
+
+    private <T> Map<String, T> byListener(Function<HistogramSnapshot, T> value) {
+        Map<String, T> map = new TreeMap<>();
+        for (Map.Entry<PacketListenerCommon, HistogramSnapshot> entry : metrics.snapshot().getListeners().entrySet()) {
+            map.put(entry.getKey().toString(), value.apply(entry.getValue()));
+        }
+        return map;
+    }
+
+    private <T> Map<String, T> byPriority(Function<HistogramSnapshot, T> value) {
+        Map<String, T> map = new TreeMap<>();
+        for (Map.Entry<PacketListenerPriority, HistogramSnapshot> entry : metrics.snapshot().getPriorities().entrySet()) {
+            map.put(entry.getKey().name(), value.apply(entry.getValue()));
+        }
+        return map;
+    }
+
+    // Client and server packets share a lot of names
+    private static String describe(PacketTypeCommon packetType) {
+        ConnectionState state = PacketType.getConnectionState(packetType);
+        return (state == null ? "UNKNOWN" : state.name()) + "/" + packetType.getSide().name() + "/" + packetType.getName();
+    }
+}
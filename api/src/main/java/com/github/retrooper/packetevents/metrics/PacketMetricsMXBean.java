@@ -0,0 +1,47 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.metrics;
+
+import java.util.Map;
+
+/**
+ * The JMX view of {@link PacketMetrics}, registered while the metrics are enabled.
+ * Packet types are keyed by their name, listeners by their {@link Object#toString()}.
+ */
+public interface PacketMetricsMXBean {
+    void reset();
+
+    Map<String, Long> getPacketCounts();
+
+    Map<String, Long> getPacketBytes();
+
+    Map<String, Double> getCancellationRates();
+
+    Map<String, Double> getReEncodeRates();
+
+    Map<String, Long> getPacketListenerP99Nanos();
+
+    Map<String, Long> getListenerTotalNanos();
+
+    Map<String, Long> getListenerP99Nanos();
+
+    Map<String, Long> getPriorityTotalNanos();
+
+    Map<String, Long> getPriorityP99Nanos();
+}
@@ -0,0 +1,87 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.metrics;
+
+import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
+
+/**
+ * What was recorded for one packet type, part of a {@link MetricsSnapshot}.
+ */
+public final class PacketTypeStats {
+    private final PacketTypeCommon packetType;
+    private final long count;
+    private final long bytes;
+    private final long cancelled;
+    private final long reEncoded;
+    private final HistogramSnapshot listenerTime;
+
+    PacketTypeStats(PacketTypeCommon packetType, long count, long bytes, long cancelled,
+                    long reEncoded, HistogramSnapshot listenerTime) {
+        this.packetType = packetType;
+        this.count = count;
+        this.bytes = bytes;
+        this.cancelled = cancelled;
+        this.reEncoded = reEncoded;
+        this.listenerTime = listenerTime;
+    }
+
+    public PacketTypeCommon getPacketType() {
+        return packetType;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return Total size of the packets without their packet ids, as they were before the listeners processed them
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getCancelled() {
+        return cancelled;
+    }
+
+    public long getReEncoded() {
+        return reEncoded;
+    }
+
+    public double getCancellationRate() {
+        return count == 0 ? 0 : (double) cancelled / count;
+    }
+
+    public double getReEncodeRate() {
+        return count == 0 ? 0 : (double) reEncoded / count;
+    }
+
+    /**
+     * @return Time spent in all listeners together, per packet
+     */
+    public HistogramSnapshot getListenerTime() {
+        return listenerTime;
+    }
+
+    @Override
+    public String toString() {
+        return "PacketTypeStats{packetType=" + packetType + ", count=" + count + ", bytes=" + bytes
+                + ", cancelled=" + cancelled + ", reEncoded=" + reEncoded + ", listenerTime=" + listenerTime + "}";
+    }
+}
@@ -232,29 +232,11 @@ public class ByteBufHelper {
     }
 
     public static int readVarInt(Object buffer) {
-        int value = 0;
-        int length = 0;
-        byte currentByte;
-        do {
-            currentByte = readByte(buffer);
-            value |= (currentByte & 0x7F) << (length * 7);
-            length++;
-            if (length > 5) {
-                throw new RuntimeException("VarInt is too large. Must be smaller than 5 bytes.");
-            }
-        } while ((currentByte & 0x80) == 0x80);
-        return value;
+        return PacketEvents.getAPI().getNettyManager().getByteBufOperator().readVarInt(buffer);
     }
 
     public static void writeVarInt(Object buffer, int value) {
-        while (true) {
-            if ((value & ~0x7F) == 0) {
-                writeByte(buffer, value);
-                return;
-            }
-            writeByte(buffer, (value & 0x7F) | 0x80);
-            value >>>= 7;
-        }
+        PacketEvents.getAPI().getNettyManager().getByteBufOperator().writeVarInt(buffer, value);
     }
 
     public static byte[] copyBytes(Object buffer) {
@@ -106,6 +106,32 @@ public interface ByteBufOperator {
         return (short) (this.readByte(buffer) & 255);
     }
 
+    default int readVarInt(Object buffer) {
+        int value = 0;
+        int length = 0;
+        byte currentByte;
+        do {
+            currentByte = readByte(buffer);
+            value |= (currentByte & 0x7F) << (length * 7);
+            length++;
+            if (length > 5) {
+                throw new RuntimeException("VarInt is too large. Must be smaller than 5 bytes.");
+            }
+        } while ((currentByte & 0x80) == 0x80);
+        return value;
+    }
+
+    default void writeVarInt(Object buffer, int value) {
+        while (true) {
+            if ((value & ~0x7F) == 0) {
+                writeByte(buffer, value);
+                return;
+            }
+            writeByte(buffer, (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+    }
+
     default boolean readBoolean(Object buffer) {
         return readByte(buffer) != 0;
     }
@@ -100,4 +100,12 @@ public class ChannelHelper {
     public static void runInEventLoop(Object channel, Runnable runnable) {
         PacketEvents.getAPI().getNettyManager().getChannelOperator().runInEventLoop(channel, runnable);
     }
+
+    public static Object eventLoop(Object channel) {
+        return PacketEvents.getAPI().getNettyManager().getChannelOperator().eventLoop(channel);
+    }
+
+    public static boolean inEventLoop(Object channel) {
+        return PacketEvents.getAPI().getNettyManager().getChannelOperator().inEventLoop(channel);
+    }
 }
@@ -56,5 +56,15 @@ public interface ChannelOperator {
 
     void runInEventLoop(Object channel, Runnable runnable);
 
+    // Channels sharing an event loop are processed on the same thread
+    default Object eventLoop(Object channel) {
+        return channel;
+    }
+
+    // Whether the current thread is the event loop of the channel, if unknown tasks are always scheduled
+    default boolean inEventLoop(Object channel) {
+        return false;
+    }
+
     Object pooledByteBuf(Object channel);
 }
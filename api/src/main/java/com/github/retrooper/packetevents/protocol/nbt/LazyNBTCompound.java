@@ -0,0 +1,181 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.protocol.nbt;
+
+import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
+import com.github.retrooper.packetevents.netty.buffer.UnpooledByteBufAllocationHelper;
+import com.github.retrooper.packetevents.protocol.nbt.codec.NBTBufferCodec;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A compound read from the network which is only parsed once its tags are accessed.
+ * Until then, writing it copies the bytes it was read from.
+ *
+ * @see com.github.retrooper.packetevents.settings.PacketEventsSettings#lazyNBT(boolean)
+ */
+public class LazyNBTCompound extends NBTCompound {
+
+    /**
+     * @param payload The encoded tags of the compound, without the type id and name in front of them
+     */
+    public LazyNBTCompound(byte[] payload) {
+        super(new LazyTags(payload));
+    }
+
+    /**
+     * @return A copy of the encoded tags, or null if the compound has already been parsed
+     */
+    public byte @Nullable [] getPayload() {
+        byte[] payload = ((LazyTags) tags).payload;
+        return payload != null ? payload.clone() : null;
+    }
+
+    /**
+     * Write the encoded tags as they were read, if the compound hasn't been parsed yet.
+     *
+     * @return Whether the tags were written, otherwise they have to be written from {@link #getTags()}
+     */
+    public boolean writePayload(Object buffer) {
+        byte[] payload = ((LazyTags) tags).payload;
+        if (payload == null) {
+            return false;
+        }
+        ByteBufHelper.writeBytes(buffer, payload);
+        return true;
+    }
+
+    public boolean isParsed() {
+        return ((LazyTags) tags).parsed != null;
+    }
+
+    @Override
+    public NBTCompound copy() {
+        byte[] payload = ((LazyTags) tags).payload;
+        // The payload never changes, so it can be shared
+        return payload != null ? new LazyNBTCompound(payload) : super.copy();
+    }
+
+    // Parses on first access, after that the payload may be out of date and is dropped
+    private static final class LazyTags extends AbstractMap<String, NBT> {
+        private volatile byte[] payload;
+        private volatile Map<String, NBT> parsed;
+
+        private LazyTags(byte[] payload) {
+            this.payload = payload;
+        }
+
+        private Map<String, NBT> parsed() {
+            Map<String, NBT> parsed = this.parsed;
+            if (parsed == null) {
+                // A compound may be read by several threads, like one sent to many players
+                synchronized (this) {
+                    parsed = this.parsed;
+                    if (parsed == null) {
+                        parsed = parse(payload);
+                        this.parsed = parsed;
+                        payload = null;
+                    }
+                }
+            }
+            return parsed;
+        }
+
+        private static Map<String, NBT> parse(byte[] payload) {
+            Object buffer = UnpooledByteBufAllocationHelper.wrappedBuffer(payload);
+            try {
+                return NBTBufferCodec.readCompoundPayload(buffer, new NBTLimiter(buffer, 2097152)).tags;
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            } finally {
+                ByteBufHelper.release(buffer);
+            }
+        }
+
+        @Override
+        public int size() {
+            return parsed().size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return parsed().isEmpty();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return parsed().containsKey(key);
+        }
+
+        @Override
+        public NBT get(Object key) {
+            return parsed().get(key);
+        }
+
+        @Override
+        public NBT put(String key, NBT value) {
+            return parsed().put(key, value);
+        }
+
+        @Override
+        public NBT remove(Object key) {
+            return parsed().remove(key);
+        }
+
+        @Override
+        public void clear() {
+            parsed().clear();
+        }
+
+        @Override
+        public Set<String> keySet() {
+            return parsed().keySet();
+        }
+
+        @Override
+        public Collection<NBT> values() {
+            return parsed().values();
+        }
+
+        @Override
+        public Set<Entry<String, NBT>> entrySet() {
+            return parsed().entrySet();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return parsed().equals(o);
+        }
+
+        @Override
+        public int hashCode() {
+            return parsed().hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return parsed().toString();
+        }
+    }
+}
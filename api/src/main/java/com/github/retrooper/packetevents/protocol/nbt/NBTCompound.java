@@ -28,7 +28,15 @@ import java.util.Set;
 
 public class NBTCompound extends NBT {
 
-    protected final Map<String, NBT> tags = new LinkedHashMap<>();
+    protected final Map<String, NBT> tags;
+
+    public NBTCompound() {
+        this(new LinkedHashMap<>());
+    }
+
+    protected NBTCompound(Map<String, NBT> tags) {
+        this.tags = tags;
+    }
 
     @Override
     public NBTType<NBTCompound> getType() {
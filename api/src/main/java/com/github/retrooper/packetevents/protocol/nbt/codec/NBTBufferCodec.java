@@ -0,0 +1,622 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.protocol.nbt.codec;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.netty.buffer.ByteBufOperator;
+import com.github.retrooper.packetevents.protocol.nbt.*;
+
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes uncompressed NBT straight from and to a buffer, without going through data streams.
+ * <p>
+ * The format and the accounting of the {@link NBTLimiter} are the same as in the
+ * {@link com.github.retrooper.packetevents.protocol.nbt.serializer.DefaultNBTSerializer},
+ * but the limiter is only checked once per compound, list or array instead of for every tag.
+ */
+public final class NBTBufferCodec {
+    private static final int END = 0;
+    private static final int BYTE = 1;
+    private static final int SHORT = 2;
+    private static final int INT = 3;
+    private static final int LONG = 4;
+    private static final int FLOAT = 5;
+    private static final int DOUBLE = 6;
+    private static final int BYTE_ARRAY = 7;
+    private static final int STRING = 8;
+    private static final int LIST = 9;
+    private static final int COMPOUND = 10;
+    private static final int INT_ARRAY = 11;
+    private static final int LONG_ARRAY = 12;
+
+    private static final NBTType<?>[] TYPES = {
+            NBTType.END, NBTType.BYTE, NBTType.SHORT, NBTType.INT, NBTType.LONG, NBTType.FLOAT, NBTType.DOUBLE,
+            NBTType.BYTE_ARRAY, NBTType.STRING, NBTType.LIST, NBTType.COMPOUND, NBTType.INT_ARRAY, NBTType.LONG_ARRAY
+    };
+    // Bytes are immutable and mostly booleans, no need for a new one every time
+    private static final NBTByte[] BYTES = new NBTByte[256];
+
+    static {
+        for (int i = 0; i < BYTES.length; i++) {
+            BYTES[i] = new NBTByte((byte) i);
+        }
+    }
+
+    private final Object buffer;
+    private final ByteBufOperator operator;
+    private final NBTLimiter limiter;
+    // Accounted bytes which haven't been passed to the limiter yet
+    private int pending;
+    private byte[] chars = new byte[64];
+
+    private NBTBufferCodec(Object buffer, NBTLimiter limiter) {
+        this.buffer = buffer;
+        this.operator = PacketEvents.getAPI().getNettyManager().getByteBufOperator();
+        this.limiter = limiter;
+    }
+
+    /**
+     * Read a tag, with a name in front of it if it's named.
+     *
+     * @return The tag, or null if the buffer holds an end tag instead
+     */
+    public static NBT read(Object buffer, NBTLimiter limiter, boolean named) throws IOException {
+        NBTBufferCodec codec = new NBTBufferCodec(buffer, limiter);
+        int type = codec.readType();
+        if (type == END) {
+            codec.flushLimiter();
+            return null;
+        }
+        if (named) {
+            codec.readName();
+        }
+        NBT tag = codec.readTag(type);
+        codec.flushLimiter();
+        return tag;
+    }
+
+    /**
+     * Read a tag like {@link #read(Object, NBTLimiter, boolean)}, but keep compounds encoded
+     * until they are accessed, see {@link LazyNBTCompound}.
+     * Their structure is checked right away, so a malformed compound still fails here.
+     */
+    public static NBT readLazy(Object buffer, NBTLimiter limiter, boolean named) throws IOException {
+        NBTBufferCodec codec = new NBTBufferCodec(buffer, limiter);
+        int type = codec.readType();
+        if (type == END) {
+            codec.flushLimiter();
+            return null;
+        }
+        if (named) {
+            codec.readName();
+        }
+        if (type != COMPOUND) {
+            NBT tag = codec.readTag(type);
+            codec.flushLimiter();
+            return tag;
+        }
+        int start = codec.operator.readerIndex(buffer);
+        // Accounted like reading it, so a compound too large to read is rejected here already
+        codec.skipTag(COMPOUND);
+        codec.flushLimiter();
+        byte[] payload = new byte[codec.operator.readerIndex(buffer) - start];
+        codec.operator.getBytes(buffer, start, payload);
+        return new LazyNBTCompound(payload);
+    }
+
+    /**
+     * Move past a tag, with a name in front of it if it's named, checking its structure without reading it.
+     */
+    public static void skip(Object buffer, NBTLimiter limiter, boolean named) throws IOException {
+        NBTBufferCodec codec = new NBTBufferCodec(buffer, limiter);
+        int type = codec.readType();
+        if (type != END) {
+            if (named) {
+                codec.skipName();
+            }
+            codec.skipTag(type);
+        }
+        codec.flushLimiter();
+    }
+
+    /**
+     * Read the tags of a compound, which are followed by an end tag.
+     */
+    public static NBTCompound readCompoundPayload(Object buffer, NBTLimiter limiter) throws IOException {
+        NBTBufferCodec codec = new NBTBufferCodec(buffer, limiter);
+        NBTCompound compound = codec.readCompound();
+        codec.flushLimiter();
+        return compound;
+    }
+
+    /**
+     * Write a tag, with an empty name in front of it if it's named. A null tag is written as an end tag.
+     */
+    public static void write(Object buffer, NBT tag, boolean named) throws IOException {
+        NBTBufferCodec codec = new NBTBufferCodec(buffer, null);
+        if (tag == null || tag.getType() == NBTType.END) {
+            codec.operator.writeByte(buffer, END);
+            return;
+        }
+        codec.operator.writeByte(buffer, typeId(tag.getType()));
+        if (named) {
+            codec.operator.writeShort(buffer, 0);
+        }
+        codec.writeTag(tag);
+    }
+
+    private void flushLimiter() {
+        limiter.increment(pending);
+        pending = 0;
+    }
+
+    private int readType() throws IOException {
+        pending += 1;
+        int id = operator.readByte(buffer);
+        if (id < 0 || id >= TYPES.length) {
+            throw new IOException(MessageFormat.format("Unknown nbt type id {0}", id));
+        }
+        return id;
+    }
+
+    private String readName() throws IOException {
+        String name = readString();
+        pending += name.length() * 2 + 28;
+        return name;
+    }
+
+    private NBT readTag(int type) throws IOException {
+        switch (type) {
+            case END:
+                pending += 8;
+                return NBTEnd.INSTANCE;
+            case BYTE:
+                pending += 9;
+                return BYTES[operator.readByte(buffer) & 0xFF];
+            case SHORT:
+                pending += 10;
+                return new NBTShort(operator.readShort(buffer));
+            case INT:
+                pending += 12;
+                return new NBTInt(operator.readInt(buffer));
+            case LONG:
+                pending += 16;
+                return new NBTLong(operator.readLong(buffer));
+            case FLOAT:
+                pending += 12;
+                return new NBTFloat(operator.readFloat(buffer));
+            case DOUBLE:
+                pending += 16;
+                return new NBTDouble(operator.readDouble(buffer));
+            case BYTE_ARRAY:
+                return readByteArray();
+            case STRING: {
+                String string = readString();
+                pending += 36 + string.length() * 2;
+                return new NBTString(string);
+            }
+            case LIST:
+                return readList();
+            case COMPOUND:
+                return readCompound();
+            case INT_ARRAY:
+                return readIntArray();
+            case LONG_ARRAY:
+                return readLongArray();
+            default:
+                throw new IOException(MessageFormat.format("Unknown nbt type id {0}", type));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private NBTList<NBT> readList() throws IOException {
+        pending += 37;
+        int type = readType();
+        int size = operator.readInt(buffer);
+        if (type == END && size > 0) {
+            throw new IllegalStateException("Missing nbt list values tag type");
+        }
+        pending += 4 * size;
+        // Before allocating for the elements
+        flushLimiter();
+        NBTList<NBT> list = new NBTList<>((NBTType<NBT>) TYPES[type], size);
+        for (int i = 0; i < size; i++) {
+            list.addTag(readTag(type));
+        }
+        return list;
+    }
+
+    private NBTCompound readCompound() throws IOException {
+        pending += 48;
+        flushLimiter();
+        NBTCompound compound = new NBTCompound();
+        int type;
+        while ((type = readType()) != END) {
+            String name = readName();
+            NBT tag = readTag(type);
+            int size = compound.size();
+            compound.setTag(name, tag);
+            if (compound.size() != size) {
+                pending += 36;
+            }
+        }
+        flushLimiter();
+        return compound;
+    }
+
+    private NBTByteArray readByteArray() {
+        pending += 24;
+        int length = operator.readInt(buffer);
+        if (length >= 1 << 24) {
+            throw new IllegalArgumentException("Byte array length is too large: " + length);
+        }
+        limiter.checkReadability(length);
+        pending += length;
+        flushLimiter();
+        byte[] array = new byte[length];
+        operator.readBytes(buffer, array);
+        return new NBTByteArray(array);
+    }
+
+    private NBTIntArray readIntArray() {
+        pending += 24;
+        int length = operator.readInt(buffer);
+        if (length >= 1 << 24) {
+            throw new IllegalArgumentException("Int array length is too large: " + length);
+        }
+        limiter.checkReadability(length * 4);
+        pending += length * 4;
+        flushLimiter();
+        int[] array = new int[length];
+        for (int i = 0; i < length; i++) {
+            array[i] = operator.readInt(buffer);
+        }
+        return new NBTIntArray(array);
+    }
+
+    private NBTLongArray readLongArray() {
+        pending += 24;
+        int length = operator.readInt(buffer);
+        limiter.checkReadability(length * 8);
+        pending += length * 8;
+        flushLimiter();
+        long[] array = new long[length];
+        for (int i = 0; i < length; i++) {
+            array[i] = operator.readLong(buffer);
+        }
+        return new NBTLongArray(array);
+    }
+
+    // Accounts the same as reading the tag would
+    private void skipTag(int type) throws IOException {
+        int width = width(type);
+        if (width > 0) {
+            pending += 8 + width;
+            skipBytes(width);
+            return;
+        }
+        switch (type) {
+            case END:
+                pending += 8;
+                break;
+            case BYTE_ARRAY: {
+                pending += 24;
+                int length = operator.readInt(buffer);
+                if (length >= 1 << 24) {
+                    throw new IllegalArgumentException("Byte array length is too large: " + length);
+                }
+                skipBytes(length);
+                pending += length;
+                break;
+            }
+            case STRING:
+                pending += 36 + skipString() * 2;
+                break;
+            case LIST: {
+                pending += 37;
+                int elementType = readType();
+                int size = operator.readInt(buffer);
+                if ((elementType == END && size > 0) || size < 0) {
+                    throw new IllegalStateException("Invalid nbt list of " + size + " tags of type id " + elementType);
+                }
+                int elementWidth = width(elementType);
+                if (elementWidth > 0) {
+                    skipBytes((long) size * elementWidth);
+                    pending += 4 * size + (8 + elementWidth) * size;
+                } else {
+                    pending += 4 * size;
+                    flushLimiter();
+                    for (int i = 0; i < size; i++) {
+                        skipTag(elementType);
+                    }
+                }
+                break;
+            }
+            case COMPOUND: {
+                pending += 48;
+                flushLimiter();
+                int valueType;
+                while ((valueType = readType()) != END) {
+                    skipName();
+                    skipTag(valueType);
+                    // Reading only accounts this for names which weren't there yet, but duplicates aren't worth tracking
+                    pending += 36;
+                }
+                flushLimiter();
+                break;
+            }
+            case INT_ARRAY: {
+                pending += 24;
+                int length = operator.readInt(buffer);
+                if (length >= 1 << 24) {
+                    throw new IllegalArgumentException("Int array length is too large: " + length);
+                }
+                skipBytes(length * 4L);
+                pending += length * 4;
+                break;
+            }
+            case LONG_ARRAY: {
+                pending += 24;
+                int length = operator.readInt(buffer);
+                skipBytes(length * 8L);
+                pending += length * 8;
+                break;
+            }
+            default:
+                throw new IOException(MessageFormat.format("Unknown nbt type id {0}", type));
+        }
+    }
+
+    private void skipName() {
+        pending += skipString() * 2 + 28;
+    }
+
+    // Skips a string, returning how many chars it has without decoding it
+    private int skipString() {
+        int length = operator.readUnsignedShort(buffer);
+        limiter.checkReadability(length);
+        byte[] bytes = chars(length);
+        operator.readBytes(buffer, bytes, 0, length);
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            // Every char starts with a byte which isn't a continuation byte
+            if ((bytes[i] & 0xC0) != 0x80) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void skipBytes(long length) {
+        if (length < 0 || length > operator.readableBytes(buffer)) {
+            throw new IllegalArgumentException("Length is too large: " + length
+                    + ", readable: " + operator.readableBytes(buffer));
+        }
+        operator.skipBytes(buffer, (int) length);
+    }
+
+    // Size of tags which always take the same amount of bytes, 0 for all others
+    private static int width(int type) {
+        switch (type) {
+            case BYTE:
+                return 1;
+            case SHORT:
+                return 2;
+            case INT:
+            case FLOAT:
+                return 4;
+            case LONG:
+            case DOUBLE:
+                return 8;
+            default:
+                return 0;
+        }
+    }
+
+    // Modified UTF-8, as read by DataInput#readUTF
+    private String readString() throws IOException {
+        int length = operator.readUnsignedShort(buffer);
+        limiter.checkReadability(length);
+        byte[] bytes = chars(length);
+        operator.readBytes(buffer, bytes, 0, length);
+        int i = 0;
+        while (i < length && bytes[i] >= 0) {
+            i++;
+        }
+        if (i == length) {
+            // Only ASCII, which is what almost all names and values are
+            return new String(bytes, 0, length, StandardCharsets.ISO_8859_1);
+        }
+        char[] decoded = new char[length];
+        for (int j = 0; j < i; j++) {
+            decoded[j] = (char) bytes[j];
+        }
+        int count = i;
+        while (i < length) {
+            int b = bytes[i] & 0xFF;
+            switch (b >> 4) {
+                case 0: case 1: case 2: case 3: case 4: case 5: case 6: case 7:
+                    decoded[count++] = (char) b;
+                    i++;
+                    break;
+                case 12: case 13: {
+                    if (i + 1 >= length || (bytes[i + 1] & 0xC0) != 0x80) {
+                        throw new UTFDataFormatException("Malformed input around byte " + i);
+                    }
+                    decoded[count++] = (char) ((b & 0x1F) << 6 | bytes[i + 1] & 0x3F);
+                    i += 2;
+                    break;
+                }
+                case 14: {
+                    if (i + 2 >= length || (bytes[i + 1] & 0xC0) != 0x80 || (bytes[i + 2] & 0xC0) != 0x80) {
+                        throw new UTFDataFormatException("Malformed input around byte " + i);
+                    }
+                    decoded[count++] = (char) ((b & 0x0F) << 12 | (bytes[i + 1] & 0x3F) << 6 | bytes[i + 2] & 0x3F);
+                    i += 3;
+                    break;
+                }
+                default:
+                    throw new UTFDataFormatException("Malformed input around byte " + i);
+            }
+        }
+        return new String(decoded, 0, count);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void writeTag(NBT tag) throws IOException {
+        switch (typeId(tag.getType())) {
+            case END:
+                break;
+            case BYTE:
+                operator.writeByte(buffer, ((NBTByte) tag).getAsByte());
+                break;
+            case SHORT:
+                operator.writeShort(buffer, ((NBTShort) tag).getAsShort());
+                break;
+            case INT:
+                operator.writeInt(buffer, ((NBTInt) tag).getAsInt());
+                break;
+            case LONG:
+                operator.writeLong(buffer, ((NBTLong) tag).getAsLong());
+                break;
+            case FLOAT:
+                operator.writeFloat(buffer, ((NBTFloat) tag).getAsFloat());
+                break;
+            case DOUBLE:
+                operator.writeDouble(buffer, ((NBTDouble) tag).getAsDouble());
+                break;
+            case BYTE_ARRAY: {
+                byte[] array = ((NBTByteArray) tag).getValue();
+                operator.writeInt(buffer, array.length);
+                operator.writeBytes(buffer, array);
+                break;
+            }
+            case STRING:
+                writeString(((NBTString) tag).getValue());
+                break;
+            case LIST: {
+                NBTList<NBT> list = (NBTList<NBT>) tag;
+                operator.writeByte(buffer, typeId(list.getTagsType()));
+                List<NBT> tags = list.getTags();
+                operator.writeInt(buffer, tags.size());
+                for (NBT element : tags) {
+                    writeTag(element);
+                }
+                break;
+            }
+            case COMPOUND:
+                // Never parsed, so the tags haven't changed either
+                if (tag instanceof LazyNBTCompound && ((LazyNBTCompound) tag).writePayload(buffer)) {
+                    break;
+                }
+                for (Map.Entry<String, NBT> entry : ((NBTCompound) tag).getTags().entrySet()) {
+                    NBT value = entry.getValue();
+                    operator.writeByte(buffer, typeId(value.getType()));
+                    writeString(entry.getKey());
+                    writeTag(value);
+                }
+                operator.writeByte(buffer, END);
+                break;
+            case INT_ARRAY: {
+                int[] array = ((NBTIntArray) tag).getValue();
+                operator.writeInt(buffer, array.length);
+                for (int i : array) {
+                    operator.writeInt(buffer, i);
+                }
+                break;
+            }
+            case LONG_ARRAY: {
+                long[] array = ((NBTLongArray) tag).getValue();
+                operator.writeInt(buffer, array.length);
+                for (long l : array) {
+                    operator.writeLong(buffer, l);
+                }
+                break;
+            }
+        }
+    }
+
+    // Modified UTF-8, as written by DataOutput#writeUTF
+    private void writeString(String string) throws IOException {
+        int length = string.length();
+        byte[] bytes = chars(length);
+        int i = 0;
+        for (; i < length; i++) {
+            char c = string.charAt(i);
+            if (c == 0 || c >= 0x80) {
+                break;
+            }
+            bytes[i] = (byte) c;
+        }
+        int count = i;
+        if (i < length) {
+            // Every char takes up to three bytes
+            bytes = chars(length * 3);
+            for (; i < length; i++) {
+                char c = string.charAt(i);
+                if (c != 0 && c < 0x80) {
+                    bytes[count++] = (byte) c;
+                } else if (c < 0x800) {
+                    bytes[count++] = (byte) (0xC0 | c >> 6);
+                    bytes[count++] = (byte) (0x80 | c & 0x3F);
+                } else {
+                    bytes[count++] = (byte) (0xE0 | c >> 12);
+                    bytes[count++] = (byte) (0x80 | c >> 6 & 0x3F);
+                    bytes[count++] = (byte) (0x80 | c & 0x3F);
+                }
+            }
+        }
+        // Like DataOutput#writeUTF, the length has to fit into the unsigned short in front of it
+        if (count > 0xFFFF) {
+            throw new UTFDataFormatException("Encoded string too long: " + count + " bytes");
+        }
+        operator.writeShort(buffer, count);
+        operator.writeBytes(buffer, bytes, 0, count);
+    }
+
+    private byte[] chars(int length) {
+        if (chars.length < length) {
+            byte[] grown = new byte[Math.max(length, chars.length * 2)];
+            // Writing non-ASCII strings keeps what has been encoded so far
+            System.arraycopy(chars, 0, grown, 0, chars.length);
+            chars = grown;
+        }
+        return chars;
+    }
+
+    private static int typeId(NBTType<?> type) throws IOException {
+        for (int id = 0; id < TYPES.length; id++) {
+            if (TYPES[id] == type) {
+                return id;
+            }
+        }
+        for (int id = 0; id < TYPES.length; id++) {
+            if (TYPES[id].equals(type)) {
+                return id;
+            }
+        }
+        throw new IOException(MessageFormat.format("Unknown nbt type {0}", type));
+    }
+}
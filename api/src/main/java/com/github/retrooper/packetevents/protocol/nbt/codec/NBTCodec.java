@@ -149,12 +149,20 @@ public class NBTCodec {
     //PacketEvents end
 
     public static NBT readNBTFromBuffer(Object byteBuf, ServerVersion serverVersion) {
+        return readNBTFromBuffer(byteBuf, serverVersion, false);
+    }
+
+    /**
+     * @param lazy Whether compounds should only be parsed once accessed, see {@link LazyNBTCompound}.
+     *             The compressed NBT of 1.7 is always parsed right away.
+     */
+    public static NBT readNBTFromBuffer(Object byteBuf, ServerVersion serverVersion, boolean lazy) {
         NBTLimiter limiter = new NBTLimiter(byteBuf, 2097152);
         if (serverVersion.isNewerThanOrEquals(ServerVersion.V_1_8)) {
             try {
                 final boolean named = serverVersion.isOlderThan(ServerVersion.V_1_20_2);
-                return DefaultNBTSerializer.INSTANCE.deserializeTag(limiter,
-                        new ByteBufInputStream(byteBuf), named);
+                return lazy ? NBTBufferCodec.readLazy(byteBuf, limiter, named)
+                        : NBTBufferCodec.read(byteBuf, limiter, named);
             } catch (IOException e) {
                 e.printStackTrace();
             }
@@ -178,19 +186,35 @@ public class NBTCodec {
         return null;
     }
 
+    /**
+     * Move past the NBT in the buffer without reading it, its structure is still checked.
+     */
+    public static void skipNBTInBuffer(Object byteBuf, ServerVersion serverVersion) {
+        if (serverVersion.isOlderThan(ServerVersion.V_1_8)) {
+            // Compressed, with the length in front of it
+            short length = ByteBufHelper.readShort(byteBuf);
+            if (length > 0) {
+                ByteBufHelper.skipBytes(byteBuf, length);
+            }
+            return;
+        }
+        try {
+            NBTBufferCodec.skip(byteBuf, new NBTLimiter(byteBuf, 2097152),
+                    serverVersion.isOlderThan(ServerVersion.V_1_20_2));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     public static void writeNBTToBuffer(Object byteBuf, ServerVersion serverVersion, NBTCompound tag) {
         writeNBTToBuffer(byteBuf, serverVersion, (NBT) tag);
     }
 
     public static void writeNBTToBuffer(Object byteBuf, ServerVersion serverVersion, NBT tag) {
         if (serverVersion.isNewerThanOrEquals(ServerVersion.V_1_8)) {
-            try (ByteBufOutputStream outputStream = new ByteBufOutputStream(byteBuf)) {
-                if (tag != null) {
-                    boolean named = serverVersion.isOlderThan(ServerVersion.V_1_20_2);
-                    DefaultNBTSerializer.INSTANCE.serializeTag(outputStream, tag, named);
-                } else {
-                    DefaultNBTSerializer.INSTANCE.serializeTag(outputStream, NBTEnd.INSTANCE);
-                }
+            try {
+                boolean named = serverVersion.isOlderThan(ServerVersion.V_1_20_2);
+                NBTBufferCodec.write(byteBuf, tag, named);
             } catch (IOException e) {
                 throw new IllegalStateException(e);
             }
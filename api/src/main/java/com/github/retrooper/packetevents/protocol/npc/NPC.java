@@ -19,6 +19,7 @@
 package com.github.retrooper.packetevents.protocol.npc;
 
 import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.manager.protocol.PacketBatch;
 import com.github.retrooper.packetevents.manager.server.ServerVersion;
 import com.github.retrooper.packetevents.protocol.entity.type.EntityTypes;
 import com.github.retrooper.packetevents.protocol.item.ItemStack;
@@ -76,6 +77,8 @@ public class NPC {
 
     public void spawn(Object channel) {
         if (hasSpawned(channel)) return;
+        // Sent as one bundle, so newer clients spawn the player within a single tick
+        PacketBatch batch = new PacketBatch();
         PacketWrapper<?> playerInfo;
         if (PacketEvents.getAPI().getServerManager().getVersion().isNewerThanOrEquals(ServerVersion.V_1_19_3)) {
             playerInfo = new WrapperPlayServerPlayerInfoUpdate(WrapperPlayServerPlayerInfoUpdate.Action.ADD_PLAYER,
@@ -84,7 +87,7 @@ public class NPC {
         else {
             playerInfo = new WrapperPlayServerPlayerInfo(WrapperPlayServerPlayerInfo.Action.ADD_PLAYER, getLegacyPlayerInfoData());
         }
-        PacketEvents.getAPI().getProtocolManager().sendPacket(channel, playerInfo);
+        batch.add(playerInfo);
 
         //TODO Later if we want entity metadata, its not supported on newer server versions though(confirm if its mandatory on older versions)
 
@@ -97,13 +100,14 @@ public class NPC {
                     getProfile().getUUID(),
                     getLocation());
         }
-        PacketEvents.getAPI().getProtocolManager().sendPacket(channel, spawnPacket);
+        batch.add(spawnPacket);
 
         //Create team
         if (getNameColor() != null || getPrefixName() != null
                 || getSuffixName() != null) {
-            PacketEvents.getAPI().getProtocolManager().sendPacket(channel, generateTeamsData());
+            batch.add(generateTeamsData());
         }
+        PacketEvents.getAPI().getProtocolManager().sendPacketBatch(channel, batch);
         channels.add(channel);
     }
 
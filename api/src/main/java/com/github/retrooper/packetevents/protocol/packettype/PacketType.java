@@ -70,8 +70,6 @@ import com.github.retrooper.packetevents.util.VersionMapper;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
 
 public final class PacketType {
 
@@ -133,6 +131,13 @@ public final class PacketType {
             ClientVersion.V_1_20_2,
             ClientVersion.V_1_20_5);
 
+    private static final PacketTypeCommon[] HANDSHAKING_CLIENT_ID_TABLE = createIdTable(Handshaking.Client.values());
+    private static final PacketTypeCommon[] HANDSHAKING_SERVER_ID_TABLE = createIdTable(Handshaking.Server.values());
+    private static final PacketTypeCommon[] STATUS_CLIENT_ID_TABLE = createIdTable(Status.Client.values());
+    private static final PacketTypeCommon[] STATUS_SERVER_ID_TABLE = createIdTable(Status.Server.values());
+    private static final PacketTypeCommon[] LOGIN_CLIENT_ID_TABLE = createIdTable(Login.Client.values());
+    private static final PacketTypeCommon[] LOGIN_SERVER_ID_TABLE = createIdTable(Login.Server.values());
+
     public static void prepare() {
         PacketType.Play.Client.load();
         PacketType.Play.Server.load();
@@ -146,42 +151,107 @@ public final class PacketType {
     }
 
     public static PacketTypeCommon getById(PacketSide side, ConnectionState state, ClientVersion version, int packetID) {
+        return lookup(getIdTable(side, state, version), packetID);
+    }
+
+    /**
+     * Get the table mapping packet IDs to packet types.
+     * The index of each packet type in this table is its packet ID in the specified version.
+     * The returned array is shared and must not be modified.
+     *
+     * @param side    Packet side
+     * @param state   Connection state
+     * @param version Client version
+     * @return Packet types indexed by packet ID, unknown IDs map to null
+     */
+    public static @Nullable PacketTypeCommon[] getIdTable(PacketSide side, ConnectionState state, ClientVersion version) {
         switch (state) {
             case HANDSHAKING:
-                if (side == PacketSide.CLIENT) {
-                    return PacketType.Handshaking.Client.getById(packetID);
-                } else {
-                    return PacketType.Handshaking.Server.getById(packetID);
-                }
+                return side == PacketSide.CLIENT ? HANDSHAKING_CLIENT_ID_TABLE : HANDSHAKING_SERVER_ID_TABLE;
             case STATUS:
-                if (side == PacketSide.CLIENT) {
-                    return Status.Client.getById(packetID);
-                } else {
-                    return Status.Server.getById(packetID);
-                }
+                return side == PacketSide.CLIENT ? STATUS_CLIENT_ID_TABLE : STATUS_SERVER_ID_TABLE;
             case LOGIN:
-                if (side == PacketSide.CLIENT) {
-                    return Login.Client.getById(packetID);
-                } else {
-                    return Login.Server.getById(packetID);
-                }
+                return side == PacketSide.CLIENT ? LOGIN_CLIENT_ID_TABLE : LOGIN_SERVER_ID_TABLE;
             case PLAY:
+                if (!PREPARED) {
+                    PacketType.prepare();
+                }
                 if (side == PacketSide.CLIENT) {
-                    return Play.Client.getById(version, packetID);
+                    return Play.Client.PACKET_TYPE_ID_TABLE[SERVERBOUND_PLAY_VERSION_MAPPER.getIndex(version)];
                 } else {
-                    return Play.Server.getById(version, packetID);
+                    return Play.Server.PACKET_TYPE_ID_TABLE[CLIENTBOUND_PLAY_VERSION_MAPPER.getIndex(version)];
                 }
             case CONFIGURATION:
+                if (!PREPARED) {
+                    PacketType.prepare();
+                }
                 if (side == PacketSide.CLIENT) {
-                    return Configuration.Client.getById(version, packetID);
+                    return Configuration.Client.PACKET_TYPE_ID_TABLE[SERVERBOUND_CONFIG_VERSION_MAPPER.getIndex(version)];
                 } else {
-                    return Configuration.Server.getById(version, packetID);
+                    return Configuration.Server.PACKET_TYPE_ID_TABLE[CLIENTBOUND_CONFIG_VERSION_MAPPER.getIndex(version)];
                 }
             default:
                 return null;
         }
     }
 
+    public static @Nullable PacketTypeCommon lookup(@Nullable PacketTypeCommon[] idTable, int packetID) {
+        if (idTable == null || packetID < 0 || packetID >= idTable.length) {
+            return null;
+        }
+        return idTable[packetID];
+    }
+
+    private static PacketTypeCommon[] createIdTable(PacketTypeConstant[] packetTypes) {
+        int length = 0;
+        for (PacketTypeConstant packetType : packetTypes) {
+            length = Math.max(length, packetType.getId() + 1);
+        }
+        PacketTypeCommon[] idTable = new PacketTypeCommon[length];
+        for (PacketTypeConstant packetType : packetTypes) {
+            idTable[packetType.getId()] = packetType;
+        }
+        return idTable;
+    }
+
+    public static PacketTypeCommon[] getPacketTypes(PacketSide side, ConnectionState state) {
+        switch (state) {
+            case HANDSHAKING:
+                return side == PacketSide.CLIENT ? Handshaking.Client.values() : Handshaking.Server.values();
+            case STATUS:
+                return side == PacketSide.CLIENT ? Status.Client.values() : Status.Server.values();
+            case LOGIN:
+                return side == PacketSide.CLIENT ? Login.Client.values() : Login.Server.values();
+            case PLAY:
+                return side == PacketSide.CLIENT ? Play.Client.values() : Play.Server.values();
+            case CONFIGURATION:
+                return side == PacketSide.CLIENT ? Configuration.Client.values() : Configuration.Server.values();
+            default:
+                return new PacketTypeCommon[0];
+        }
+    }
+
+    /**
+     * Find the connection state a packet type belongs to.
+     *
+     * @param packetType Packet type
+     * @return Connection state, or null if this isn't one of our packet type constants
+     */
+    public static @Nullable ConnectionState getConnectionState(PacketTypeCommon packetType) {
+        if (packetType instanceof Play.Client || packetType instanceof Play.Server) {
+            return ConnectionState.PLAY;
+        } else if (packetType instanceof Configuration.Client || packetType instanceof Configuration.Server) {
+            return ConnectionState.CONFIGURATION;
+        } else if (packetType instanceof Login.Client || packetType instanceof Login.Server) {
+            return ConnectionState.LOGIN;
+        } else if (packetType instanceof Status.Client || packetType instanceof Status.Server) {
+            return ConnectionState.STATUS;
+        } else if (packetType instanceof Handshaking.Client || packetType instanceof Handshaking.Server) {
+            return ConnectionState.HANDSHAKING;
+        }
+        return null;
+    }
+
     public static class Handshaking {
 
         public enum Client implements PacketTypeConstant, ServerBoundPacket {
@@ -432,7 +502,9 @@ public final class PacketType {
             SELECT_KNOWN_PACKS;
 
             private static int INDEX = 0;
-            private static final Map<Byte, Map<Integer, PacketTypeCommon>> PACKET_TYPE_ID_MAP = new HashMap<>();
+            // Packet types indexed by [version index][packet id]
+            private static final PacketTypeCommon[][] PACKET_TYPE_ID_TABLE =
+                    new PacketTypeCommon[SERVERBOUND_CONFIG_VERSION_MAPPER.getVersions().length][];
             private final int[] ids;
 
             Client() {
@@ -449,13 +521,14 @@ public final class PacketType {
 
             private static void loadPacketIds(Enum<?>[] enumConstants) {
                 int index = INDEX;
+                PacketTypeCommon[] table = new PacketTypeCommon[enumConstants.length];
                 for (Enum<?> constant : enumConstants) {
                     int id = constant.ordinal();
                     Configuration.Client value = Configuration.Client.valueOf(constant.name());
                     value.ids[index] = id;
-                    Map<Integer, PacketTypeCommon> packetIdMap = PACKET_TYPE_ID_MAP.computeIfAbsent((byte) index, k -> new HashMap<>());
-                    packetIdMap.put(id, value);
+                    table[id] = value;
                 }
+                PACKET_TYPE_ID_TABLE[index] = table;
                 INDEX++;
             }
 
@@ -467,9 +540,7 @@ public final class PacketType {
                 if (!PREPARED) {
                     PacketType.prepare();
                 }
-                int index = SERVERBOUND_CONFIG_VERSION_MAPPER.getIndex(version);
-                Map<Integer, PacketTypeCommon> map = PACKET_TYPE_ID_MAP.get((byte) index);
-                return map.get(packetId);
+                return lookup(PACKET_TYPE_ID_TABLE[SERVERBOUND_CONFIG_VERSION_MAPPER.getIndex(version)], packetId);
             }
 
             @Deprecated
@@ -515,7 +586,9 @@ public final class PacketType {
             SELECT_KNOWN_PACKS;
 
             private static int INDEX = 0;
-            private static final Map<Byte, Map<Integer, PacketTypeCommon>> PACKET_TYPE_ID_MAP = new HashMap<>();
+            // Packet types indexed by [version index][packet id]
+            private static final PacketTypeCommon[][] PACKET_TYPE_ID_TABLE =
+                    new PacketTypeCommon[CLIENTBOUND_CONFIG_VERSION_MAPPER.getVersions().length][];
             private final int[] ids;
 
             Server() {
@@ -533,13 +606,14 @@ public final class PacketType {
 
             private static void loadPacketIds(Enum<?>[] enumConstants) {
                 int index = INDEX;
+                PacketTypeCommon[] table = new PacketTypeCommon[enumConstants.length];
                 for (Enum<?> constant : enumConstants) {
                     int id = constant.ordinal();
                     Configuration.Server value = Configuration.Server.valueOf(constant.name());
                     value.ids[index] = id;
-                    Map<Integer, PacketTypeCommon> packetIdMap = PACKET_TYPE_ID_MAP.computeIfAbsent((byte) index, k -> new HashMap<>());
-                    packetIdMap.put(id, value);
+                    table[id] = value;
                 }
+                PACKET_TYPE_ID_TABLE[index] = table;
                 INDEX++;
             }
 
@@ -551,9 +625,7 @@ public final class PacketType {
                 if (!PREPARED) {
                     PacketType.prepare();
                 }
-                int index = CLIENTBOUND_CONFIG_VERSION_MAPPER.getIndex(version);
-                Map<Integer, PacketTypeCommon> map = PACKET_TYPE_ID_MAP.get((byte) index);
-                return map.get(packetId);
+                return lookup(PACKET_TYPE_ID_TABLE[CLIENTBOUND_CONFIG_VERSION_MAPPER.getIndex(version)], packetId);
             }
 
             @Deprecated
@@ -658,7 +730,9 @@ public final class PacketType {
             DEBUG_SAMPLE_SUBSCRIPTION;
 
             private static int INDEX = 0;
-            private static final Map<Byte, Map<Integer, PacketTypeCommon>> PACKET_TYPE_ID_MAP = new HashMap<>();
+            // Packet types indexed by [version index][packet id]
+            private static final PacketTypeCommon[][] PACKET_TYPE_ID_TABLE =
+                    new PacketTypeCommon[SERVERBOUND_PLAY_VERSION_MAPPER.getVersions().length][];
             private final int[] ids;
 
             Client() {
@@ -671,21 +745,19 @@ public final class PacketType {
                 if (!PREPARED) {
                     PacketType.prepare();
                 }
-                int index = SERVERBOUND_PLAY_VERSION_MAPPER.getIndex(version);
-                Map<Integer, PacketTypeCommon> packetIdMap = PACKET_TYPE_ID_MAP.computeIfAbsent((byte) index, k -> new HashMap<>());
-                return packetIdMap.get(packetId);
+                return lookup(PACKET_TYPE_ID_TABLE[SERVERBOUND_PLAY_VERSION_MAPPER.getIndex(version)], packetId);
             }
 
             private static void loadPacketIds(Enum<?>[] enumConstants) {
                 int index = INDEX;
+                PacketTypeCommon[] table = new PacketTypeCommon[enumConstants.length];
                 for (Enum<?> constant : enumConstants) {
                     int id = constant.ordinal();
                     Client value = Client.valueOf(constant.name());
                     value.ids[index] = id;
-                    Map<Integer, PacketTypeCommon> packetIdMap = PACKET_TYPE_ID_MAP.computeIfAbsent((byte) index,
-                            k -> new HashMap<>());
-                    packetIdMap.put(id, value);
+                    table[id] = value;
                 }
+                PACKET_TYPE_ID_TABLE[index] = table;
                 INDEX++;
             }
 
@@ -891,7 +963,9 @@ public final class PacketType {
             PROJECTILE_POWER;
 
             private static int INDEX = 0;
-            private static final Map<Byte, Map<Integer, PacketTypeCommon>> PACKET_TYPE_ID_MAP = new HashMap<>();
+            // Packet types indexed by [version index][packet id]
+            private static final PacketTypeCommon[][] PACKET_TYPE_ID_TABLE =
+                    new PacketTypeCommon[CLIENTBOUND_PLAY_VERSION_MAPPER.getVersions().length][];
             private final int[] ids;
 
             Server() {
@@ -912,9 +986,7 @@ public final class PacketType {
                 if (!PREPARED) {
                     PacketType.prepare();
                 }
-                int index = CLIENTBOUND_PLAY_VERSION_MAPPER.getIndex(version);
-                Map<Integer, PacketTypeCommon> map = PACKET_TYPE_ID_MAP.get((byte) index);
-                return map.get(packetId);
+                return lookup(PACKET_TYPE_ID_TABLE[CLIENTBOUND_PLAY_VERSION_MAPPER.getIndex(version)], packetId);
             }
 
             @Override
@@ -924,13 +996,14 @@ public final class PacketType {
 
             private static void loadPacketIds(Enum<?>[] enumConstants) {
                 int index = INDEX;
+                PacketTypeCommon[] table = new PacketTypeCommon[enumConstants.length];
                 for (Enum<?> constant : enumConstants) {
                     int id = constant.ordinal();
                     Server value = Server.valueOf(constant.name());
                     value.ids[index] = id;
-                    Map<Integer, PacketTypeCommon> packetIdMap = PACKET_TYPE_ID_MAP.computeIfAbsent((byte) index, k -> new HashMap<>());
-                    packetIdMap.put(id, value);
+                    table[id] = value;
                 }
+                PACKET_TYPE_ID_TABLE[index] = table;
                 INDEX++;
             }
 
@@ -19,9 +19,11 @@
 package com.github.retrooper.packetevents.protocol.player;
 
 import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.manager.protocol.FrozenPacket;
 import com.github.retrooper.packetevents.manager.server.ServerVersion;
 import com.github.retrooper.packetevents.netty.channel.ChannelHelper;
 import com.github.retrooper.packetevents.protocol.ConnectionState;
+import com.github.retrooper.packetevents.protocol.PacketSide;
 import com.github.retrooper.packetevents.protocol.chat.ChatType;
 import com.github.retrooper.packetevents.protocol.chat.ChatTypes;
 import com.github.retrooper.packetevents.protocol.chat.message.ChatMessage;
@@ -29,7 +31,10 @@ import com.github.retrooper.packetevents.protocol.chat.message.ChatMessageLegacy
 import com.github.retrooper.packetevents.protocol.chat.message.ChatMessage_v1_16;
 import com.github.retrooper.packetevents.protocol.nbt.NBTCompound;
 import com.github.retrooper.packetevents.protocol.nbt.NBTList;
+import com.github.retrooper.packetevents.protocol.packettype.PacketType;
+import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
 import com.github.retrooper.packetevents.protocol.world.Dimension;
+import com.github.retrooper.packetevents.protocol.world.WorldNBTIndex;
 import com.github.retrooper.packetevents.util.adventure.AdventureSerializer;
 import com.github.retrooper.packetevents.wrapper.PacketWrapper;
 import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerChatMessage;
@@ -43,7 +48,6 @@ import net.kyori.adventure.text.Component;
 import org.jetbrains.annotations.Nullable;
 
 import java.net.InetSocketAddress;
-import java.util.List;
 import java.util.UUID;
 
 public class User {
@@ -55,8 +59,10 @@ public class User {
     private int entityId = -1;
     private int minWorldHeight = 0;
     private int totalWorldHeight = 256;
-    private List<NBTCompound> worldNBT;
+    private WorldNBTIndex worldNBT;
     private Dimension dimension = new Dimension(0);
+    // Replaced as a whole, as the netty threads of both directions may look up packet types at once
+    private volatile PacketTypeIdTables packetTypeIdTables;
 
     public User(Object channel,
                 ConnectionState connectionState, ClientVersion clientVersion,
@@ -118,6 +124,53 @@ public class User {
         this.clientVersion = clientVersion;
     }
 
+    /**
+     * Resolve the packet type of a packet this user sent or is about to receive.
+     * The lookup tables of the last requested version are cached on this user,
+     * so they are only resolved again if the version changes.
+     *
+     * @param side     Packet side
+     * @param state    Connection state
+     * @param version  Client version the packet ID belongs to
+     * @param packetId Packet ID
+     * @return Packet type, or null if the packet ID is unknown
+     */
+    public @Nullable PacketTypeCommon getPacketType(PacketSide side, ConnectionState state,
+                                                    ClientVersion version, int packetId) {
+        PacketTypeIdTables idTables = this.packetTypeIdTables;
+        if (idTables == null || idTables.version != version) {
+            idTables = new PacketTypeIdTables(version);
+        }
+        PacketTypeCommon[] idTable = idTables.tables[side.ordinal()][state.ordinal()];
+        if (idTable == null) {
+            idTable = PacketType.getIdTable(side, state, version);
+            this.packetTypeIdTables = idTables.with(side, state, idTable);
+        }
+        return PacketType.lookup(idTable, packetId);
+    }
+
+    // Packet ID lookup tables of one version, indexed by [packet side][connection state], never modified once created
+    private static final class PacketTypeIdTables {
+        private final ClientVersion version;
+        private final PacketTypeCommon[][][] tables;
+
+        private PacketTypeIdTables(ClientVersion version) {
+            this(version, new PacketTypeCommon[PacketSide.values().length][ConnectionState.values().length][]);
+        }
+
+        private PacketTypeIdTables(ClientVersion version, PacketTypeCommon[][][] tables) {
+            this.version = version;
+            this.tables = tables;
+        }
+
+        private PacketTypeIdTables with(PacketSide side, ConnectionState state, PacketTypeCommon[] idTable) {
+            PacketTypeCommon[][][] tables = this.tables.clone();
+            tables[side.ordinal()] = tables[side.ordinal()].clone();
+            tables[side.ordinal()][state.ordinal()] = idTable;
+            return new PacketTypeIdTables(version, tables);
+        }
+    }
+
     public UserProfile getProfile() {
         return profile;
     }
@@ -150,6 +203,14 @@ public class User {
         PacketEvents.getAPI().getProtocolManager().sendPacketSilently(channel, wrapper);
     }
 
+    public void sendPacket(FrozenPacket packet) {
+        PacketEvents.getAPI().getProtocolManager().sendPacket(channel, packet);
+    }
+
+    public void sendPacketSilently(FrozenPacket packet) {
+        PacketEvents.getAPI().getProtocolManager().sendPacketSilently(channel, packet);
+    }
+
     public void writePacket(PacketWrapper<?> wrapper) {
         PacketEvents.getAPI().getProtocolManager().writePacket(channel, wrapper);
     }
@@ -301,7 +362,7 @@ public class User {
     }
 
     public void setWorldNBT(NBTList<NBTCompound> worldNBT) {
-        this.worldNBT = worldNBT.getTags();
+        this.worldNBT = WorldNBTIndex.of(worldNBT.getTags());
     }
 
     public Dimension getDimension() {
@@ -314,27 +375,11 @@ public class User {
 
     @Nullable
     public NBTCompound getWorldNBT(String worldName) {
-        if (worldNBT == null) {
-            return null;
-        }
-        for (NBTCompound compound : worldNBT) {
-            if (compound.getStringTagOrNull("name").getValue().equals(worldName)) {
-                return compound;
-            }
-        }
-        return null;
+        return worldNBT != null ? worldNBT.get(worldName) : null;
     }
 
     public @Nullable NBTCompound getWorldNBT(int worldId) {
-        if (this.worldNBT == null) {
-            return null;
-        }
-        for (NBTCompound element : this.worldNBT) {
-            if (element.getNumberTagOrNull("id").getAsInt() == worldId) {
-                return element;
-            }
-        }
-        return null;
+        return this.worldNBT != null ? this.worldNBT.get(worldId) : null;
     }
 
     public @Nullable NBTCompound getWorldNBT(Dimension dimension) {
@@ -346,15 +391,8 @@ public class User {
     }
 
     public @Nullable String getWorldName(int worldId) {
-        if (this.worldNBT == null) {
-            return null;
-        }
-        for (NBTCompound element : this.worldNBT) {
-            if (element.getNumberTagOrNull("id").getAsInt() == worldId) {
-                return element.getStringTagValueOrNull("name");
-            }
-        }
-        return null;
+        NBTCompound element = this.getWorldNBT(worldId);
+        return element != null ? element.getStringTagValueOrNull("name") : null;
     }
 
     public @Nullable String getWorldName(Dimension dimension) {
@@ -0,0 +1,148 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.protocol.stream;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A {@link NetStreamInput} reading straight from a {@link ByteBuffer} instead of going through an input stream
+ * byte by byte. Longs are read in bulk, which is what most of the chunk data consists of.
+ * <p>
+ * Reading past the end of the buffer throws an {@link IllegalStateException}, just like the stream based input.
+ */
+public class ByteBufferNetStreamInput extends NetStreamInput {
+    private final ByteBuffer buffer;
+
+    public ByteBufferNetStreamInput(ByteBuffer buffer) {
+        super(null);
+        this.buffer = buffer.order(ByteOrder.BIG_ENDIAN);
+    }
+
+    public ByteBufferNetStreamInput(byte[] data, int offset, int length) {
+        this(ByteBuffer.wrap(data, offset, length));
+    }
+
+    public ByteBufferNetStreamInput(byte[] data) {
+        this(data, 0, data.length);
+    }
+
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    private void ensureReadable(int bytes) {
+        if (buffer.remaining() < bytes) {
+            throw new IllegalStateException("Tried to read " + bytes + " bytes, but only "
+                    + buffer.remaining() + " are left");
+        }
+    }
+
+    @Override
+    public int read() {
+        return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        if (len == 0) {
+            return 0;
+        }
+        if (!buffer.hasRemaining()) {
+            return -1;
+        }
+        len = Math.min(len, buffer.remaining());
+        buffer.get(b, off, len);
+        return len;
+    }
+
+    @Override
+    public long skip(long n) {
+        int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+        buffer.position(buffer.position() + skipped);
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return buffer.remaining();
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public void mark(int readlimit) {
+        buffer.mark();
+    }
+
+    @Override
+    public void reset() {
+        buffer.reset();
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public int readUnsignedByte() {
+        ensureReadable(1);
+        return buffer.get() & 0xFF;
+    }
+
+    @Override
+    public int readUnsignedShort() {
+        ensureReadable(2);
+        return buffer.getShort() & 0xFFFF;
+    }
+
+    @Override
+    public int readInt() {
+        ensureReadable(4);
+        return buffer.getInt();
+    }
+
+    @Override
+    public long readLong() {
+        ensureReadable(8);
+        return buffer.getLong();
+    }
+
+    @Override
+    public byte[] readBytes(int length) {
+        if (length < 0) {
+            throw new IllegalArgumentException("Array cannot have length less than 0.");
+        }
+        ensureReadable(length);
+        byte[] b = new byte[length];
+        buffer.get(b);
+        return b;
+    }
+
+    @Override
+    public int readLongs(long[] l, int offset, int length) {
+        int readable = Math.min(length, buffer.remaining() / 8);
+        buffer.asLongBuffer().get(l, offset, readable);
+        buffer.position(buffer.position() + readable * 8);
+        return readable;
+    }
+}
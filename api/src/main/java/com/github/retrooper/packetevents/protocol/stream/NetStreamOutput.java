@@ -27,14 +27,24 @@ package com.github.retrooper.packetevents.protocol.stream;
 import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.UUID;
 
 public class NetStreamOutput extends FilterOutputStream {
+    // Longs are encoded in here first, so they can be handed to the stream in bulk
+    private byte[] longBuffer;
+
     public NetStreamOutput(OutputStream out) {
         super(out);
     }
 
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        // FilterOutputStream would write these one by one
+        this.out.write(b, off, len);
+    }
+
 
     public void writeBoolean(boolean b) {
         this.writeByte(b ? 1 : 0);
@@ -80,14 +90,11 @@ public class NetStreamOutput extends FilterOutputStream {
 
 
     public void writeLong(long l) {
-        this.writeByte((byte) (l >>> 56));
-        this.writeByte((byte) (l >>> 48));
-        this.writeByte((byte) (l >>> 40));
-        this.writeByte((byte) (l >>> 32));
-        this.writeByte((byte) (l >>> 24));
-        this.writeByte((byte) (l >>> 16));
-        this.writeByte((byte) (l >>> 8));
-        this.writeByte((byte) (l >>> 0));
+        byte[] b = this.longBuffer();
+        for (int index = 0; index < 8; index++) {
+            b[index] = (byte) (l >>> (56 - index * 8));
+        }
+        this.writeBytes(b, 8);
     }
 
 
@@ -155,9 +162,22 @@ public class NetStreamOutput extends FilterOutputStream {
 
 
     public void writeLongs(long[] l, int length) {
-        for (int index = 0; index < length; index++) {
-            this.writeLong(l[index]);
+        byte[] b = this.longBuffer();
+        ByteBuffer buffer = ByteBuffer.wrap(b);
+        int perWrite = b.length / 8;
+        for (int index = 0; index < length; index += perWrite) {
+            int count = Math.min(perWrite, length - index);
+            buffer.asLongBuffer().put(l, index, count);
+            this.writeBytes(b, count * 8);
+        }
+    }
+
+    private byte[] longBuffer() {
+        if (this.longBuffer == null) {
+            // Enough for the block states of a chunk section with up to 8 bits per entry in one go
+            this.longBuffer = new byte[4096];
         }
+        return this.longBuffer;
     }
 
 
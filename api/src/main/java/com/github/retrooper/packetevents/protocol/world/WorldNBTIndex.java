@@ -0,0 +1,145 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.protocol.world;
+
+import com.github.retrooper.packetevents.protocol.nbt.NBTCompound;
+import com.github.retrooper.packetevents.protocol.nbt.NBTNumber;
+import com.github.retrooper.packetevents.protocol.nbt.NBTString;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * The dimension types a server sent to a user, looked up by id or name.
+ * <p>
+ * All users which received the same dimension types share one index, see {@link #of(List)}.
+ * The index holds copies of the compounds it was created from, which are shared as well, so they must not be changed.
+ */
+public final class WorldNBTIndex {
+    // Ids are indices into the registry, anything above this is looked up in a map instead
+    private static final int MAX_ARRAY_ID = 1024;
+    private static final Map<WorldNBTIndex, WeakReference<WorldNBTIndex>> INTERNED = new WeakHashMap<>();
+
+    private final NBTCompound[] entries;
+    private final int hashCode;
+    private NBTCompound[] byId;
+    private Map<Integer, NBTCompound> byLargeId;
+    private Map<String, NBTCompound> byName;
+
+    private WorldNBTIndex(List<NBTCompound> entries) {
+        this.entries = entries.toArray(new NBTCompound[0]);
+        this.hashCode = Arrays.hashCode(this.entries);
+    }
+
+    private WorldNBTIndex(WorldNBTIndex index) {
+        this.entries = new NBTCompound[index.entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            this.entries[i] = index.entries[i].copy();
+        }
+        this.hashCode = index.hashCode;
+    }
+
+    /**
+     * @param entries The entries of the dimension type registry, each with a name, an id and usually an element
+     * @return An index equal to the one of any other user with the same entries, not backed by the given entries
+     */
+    public static WorldNBTIndex of(List<NBTCompound> entries) {
+        WorldNBTIndex index = new WorldNBTIndex(entries);
+        synchronized (INTERNED) {
+            WeakReference<WorldNBTIndex> reference = INTERNED.get(index);
+            WorldNBTIndex interned = reference != null ? reference.get() : null;
+            if (interned != null) {
+                return interned;
+            }
+            // The entries usually belong to the packet of the first user, which may still change them
+            WorldNBTIndex copy = new WorldNBTIndex(index);
+            copy.buildLookups();
+            INTERNED.put(copy, new WeakReference<>(copy));
+            return copy;
+        }
+    }
+
+    private void buildLookups() {
+        int maxId = -1;
+        for (NBTCompound entry : entries) {
+            NBTNumber id = entry.getNumberTagOrNull("id");
+            if (id != null && id.getAsInt() >= 0 && id.getAsInt() < MAX_ARRAY_ID) {
+                maxId = Math.max(maxId, id.getAsInt());
+            }
+        }
+        byId = new NBTCompound[maxId + 1];
+        byLargeId = new HashMap<>();
+        byName = new HashMap<>(entries.length * 2);
+        // The first entry wins, as it did when scanning through them
+        for (NBTCompound entry : entries) {
+            NBTNumber id = entry.getNumberTagOrNull("id");
+            if (id != null) {
+                int value = id.getAsInt();
+                if (value >= 0 && value < byId.length) {
+                    if (byId[value] == null) {
+                        byId[value] = entry;
+                    }
+                } else {
+                    byLargeId.putIfAbsent(value, entry);
+                }
+            }
+            NBTString name = entry.getStringTagOrNull("name");
+            if (name != null) {
+                byName.putIfAbsent(name.getValue(), entry);
+            }
+        }
+    }
+
+    public @Nullable NBTCompound get(int id) {
+        if (id >= 0 && id < byId.length) {
+            return byId[id];
+        }
+        return byLargeId.isEmpty() ? null : byLargeId.get(id);
+    }
+
+    public @Nullable NBTCompound get(String name) {
+        return byName.get(name);
+    }
+
+    public List<NBTCompound> getEntries() {
+        return Arrays.asList(entries.clone());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof WorldNBTIndex)) {
+            return false;
+        }
+        WorldNBTIndex other = (WorldNBTIndex) obj;
+        return hashCode == other.hashCode && Arrays.equals(entries, other.entries);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.protocol.world.chunk;
+
+import com.github.retrooper.packetevents.protocol.world.chunk.impl.v_1_18.Chunk_v1_18;
+import com.github.retrooper.packetevents.protocol.world.chunk.palette.GlobalPalette;
+import com.github.retrooper.packetevents.protocol.world.chunk.palette.PaletteType;
+
+import java.util.Arrays;
+
+/**
+ * One section of a 1.18+ chunk, as handed to a {@link ChunkSectionTransformer}.
+ * <p>
+ * The block palette can be read and changed without decoding the section. Changing a palette entry
+ * changes all blocks using it, and only the palette of the section is written again.
+ * Anything else needs the decoded section from {@link #getChunk()}.
+ */
+public final class ChunkSection {
+    private static final int AIR = 0;
+
+    private final Column column;
+    private int index;
+    // Whether the section is still encoded, the fields below are only used while it is
+    private boolean encoded;
+    private int start;
+    private int blockCount;
+    private int bitsPerEntry;
+    private int[] paletteStates = new int[1 << PaletteType.CHUNK.getMaxBitsPerEntry()];
+    private int paletteSize;
+    private int paletteEnd;
+    private boolean paletteChanged;
+
+    ChunkSection(Column column) {
+        this.column = column;
+    }
+
+    void resetEncoded(int index, byte[] data, int start) {
+        this.index = index;
+        this.encoded = true;
+        this.start = start;
+        this.paletteChanged = false;
+        this.blockCount = (short) ((data[start] & 0xFF) << 8 | data[start + 1] & 0xFF);
+        this.bitsPerEntry = data[start + 2];
+        this.paletteEnd = start + 3;
+        if (this.bitsPerEntry == 0) {
+            this.paletteSize = 1;
+            this.paletteStates[0] = readVarInt(data);
+        } else if (this.bitsPerEntry <= PaletteType.CHUNK.getMaxBitsPerEntry()) {
+            this.paletteSize = readVarInt(data);
+            if (this.paletteSize > this.paletteStates.length) {
+                this.paletteStates = Arrays.copyOf(this.paletteStates, this.paletteSize);
+            }
+            for (int id = 0; id < this.paletteSize; id++) {
+                this.paletteStates[id] = readVarInt(data);
+            }
+        } else {
+            this.paletteSize = 0;
+        }
+    }
+
+    void resetDecoded(int index) {
+        this.index = index;
+        this.encoded = false;
+        this.paletteChanged = false;
+    }
+
+    /**
+     * @return The index of the section, counted from the bottom of the world
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return The amount of blocks which aren't air
+     */
+    public int getBlockCount() {
+        return encoded ? blockCount : getChunk().getBlockCount();
+    }
+
+    /**
+     * @return Whether the blocks hold their states directly, in which case there are no palette entries
+     */
+    public boolean hasGlobalPalette() {
+        if (encoded) {
+            return bitsPerEntry > PaletteType.CHUNK.getMaxBitsPerEntry();
+        }
+        return getChunk().getChunkData().palette instanceof GlobalPalette;
+    }
+
+    /**
+     * @return The amount of entries in the block palette
+     */
+    public int getPaletteSize() {
+        if (encoded) {
+            return paletteSize;
+        }
+        return hasGlobalPalette() ? 0 : getChunk().getChunkData().palette.size();
+    }
+
+    public int getPaletteState(int id) {
+        checkPaletteId(id);
+        return encoded ? paletteStates[id] : getChunk().getChunkData().palette.idToState(id);
+    }
+
+    /**
+     * Change the state of a palette entry, which changes all blocks using it.
+     * Turning blocks into air or air into blocks decodes the section, as the block count changes.
+     */
+    public void setPaletteState(int id, int state) {
+        checkPaletteId(id);
+        if (encoded && (paletteStates[id] == AIR) == (state == AIR)) {
+            paletteStates[id] = state;
+            paletteChanged = true;
+            return;
+        }
+        getChunk().setPaletteState(id, state);
+    }
+
+    /**
+     * Decode the section for full access to its palettes and storage.
+     * Changes made through the returned section are written like for any other decoded section.
+     */
+    public Chunk_v1_18 getChunk() {
+        Chunk_v1_18 chunk = (Chunk_v1_18) column.getChunk(index);
+        if (encoded) {
+            encoded = false;
+            if (paletteChanged) {
+                paletteChanged = false;
+                for (int id = 0; id < paletteSize; id++) {
+                    chunk.getChunkData().setPaletteState(id, paletteStates[id]);
+                }
+            }
+        }
+        return chunk;
+    }
+
+    boolean isPaletteChanged() {
+        return encoded && paletteChanged;
+    }
+
+    /**
+     * Write the changed palette over the old one, if it takes as many bytes.
+     *
+     * @return Whether the palette was written
+     */
+    boolean writeInPlace(byte[] data) {
+        int length = 0;
+        for (int id = 0; id < paletteSize; id++) {
+            length += varIntSize(paletteStates[id]);
+        }
+        int offset = paletteEnd - length;
+        int expectedOffset = start + 3 + (bitsPerEntry != 0 ? varIntSize(paletteSize) : 0);
+        if (offset != expectedOffset) {
+            return false;
+        }
+        for (int id = 0; id < paletteSize; id++) {
+            offset = writeVarInt(data, offset, paletteStates[id]);
+        }
+        paletteChanged = false;
+        return true;
+    }
+
+    /**
+     * Write the encoded section with the changed palette, copying everything after the palette as it was.
+     *
+     * @return The offset after the written section
+     */
+    int writeEncoded(byte[] data, int end, byte[] out, int offset) {
+        // Block count and bits per entry
+        System.arraycopy(data, start, out, offset, 3);
+        offset += 3;
+        if (bitsPerEntry != 0) {
+            offset = writeVarInt(out, offset, paletteSize);
+        }
+        for (int id = 0; id < paletteSize; id++) {
+            offset = writeVarInt(out, offset, paletteStates[id]);
+        }
+        System.arraycopy(data, paletteEnd, out, offset, end - paletteEnd);
+        return offset + end - paletteEnd;
+    }
+
+    /**
+     * @return How many bytes the section grows by when writing the changed palette, at most
+     */
+    int maxGrowth() {
+        // Every entry could have been a single byte which now takes five
+        return paletteSize * 4;
+    }
+
+    private void checkPaletteId(int id) {
+        int size = getPaletteSize();
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("Palette entry " + id + " out of bounds for length " + size);
+        }
+    }
+
+    // Reads the palette while resetting, paletteEnd ends up right after it
+    private int readVarInt(byte[] data) {
+        int value = 0;
+        int size = 0;
+        byte b;
+        while (((b = data[paletteEnd++]) & 0x80) == 0x80) {
+            value |= (b & 0x7F) << (size++ * 7);
+            if (size > 5) {
+                throw new IllegalStateException("VarInt too long (length must be <= 5)");
+            }
+        }
+        return value | ((b & 0x7F) << (size * 7));
+    }
+
+    private static int varIntSize(int value) {
+        if ((value & (0xFFFFFFFF << 7)) == 0) {
+            return 1;
+        } else if ((value & (0xFFFFFFFF << 14)) == 0) {
+            return 2;
+        } else if ((value & (0xFFFFFFFF << 21)) == 0) {
+            return 3;
+        } else if ((value & (0xFFFFFFFF << 28)) == 0) {
+            return 4;
+        }
+        return 5;
+    }
+
+    private static int writeVarInt(byte[] out, int offset, int value) {
+        while ((value & ~0x7F) != 0) {
+            out[offset++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out[offset++] = (byte) value;
+        return offset;
+    }
+}
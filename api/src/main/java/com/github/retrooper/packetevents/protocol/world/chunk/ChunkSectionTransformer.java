@@ -0,0 +1,43 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.protocol.world.chunk;
+
+/**
+ * Rewrites the sections of a 1.18+ chunk one after another, see {@link Column#transformSections(ChunkSectionTransformer)}.
+ * <p>
+ * Hiding ores from a chunk data packet only needs the block palettes:
+ * <pre>{@code
+ * WrapperPlayServerChunkData chunkData = new WrapperPlayServerChunkData(event);
+ * chunkData.getColumn().transformSections(section -> {
+ *     for (int id = 0; id < section.getPaletteSize(); id++) {
+ *         if (isOre(section.getPaletteState(id))) {
+ *             section.setPaletteState(id, stoneId);
+ *         }
+ *     }
+ * });
+ * event.markForReEncode(true);
+ * }</pre>
+ */
+@FunctionalInterface
+public interface ChunkSectionTransformer {
+    /**
+     * @param section The section, only valid during this call
+     */
+    void transform(ChunkSection section);
+}
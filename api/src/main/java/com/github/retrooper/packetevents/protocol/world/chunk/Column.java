@@ -25,7 +25,13 @@
 package com.github.retrooper.packetevents.protocol.world.chunk;
 
 import com.github.retrooper.packetevents.protocol.nbt.NBTCompound;
+import com.github.retrooper.packetevents.protocol.stream.ByteBufferNetStreamInput;
+import com.github.retrooper.packetevents.protocol.stream.NetStreamInput;
+import com.github.retrooper.packetevents.protocol.world.chunk.impl.v_1_18.Chunk_v1_18;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.ByteArrayOutputStream;
 import java.util.Arrays;
 
 public class Column {
@@ -41,6 +47,12 @@ public class Column {
     private int[] biomeDataInts;
     private byte[] biomeDataBytes;
 
+    // The sections as they were sent on 1.18+, each one is only decoded once it is accessed.
+    // Guarded by this column, the packet may be written on another thread than it was read or accessed on
+    private byte[] chunkData;
+    private int[] chunkOffsets;
+    private int decodedChunks;
+
     public Column(int x, int z, boolean fullChunk, BaseChunk[] chunks, TileEntity[] tileEntities, int[] biomeData) {
         this.x = x;
         this.z = z;
@@ -113,6 +125,27 @@ public class Column {
         this.biomeDataBytes = biomeDataBytes != null ? Arrays.copyOf(biomeDataBytes, biomeDataBytes.length) : null;
     }
 
+    /**
+     * Create a 1.18+ column from the encoded sections, which are only decoded once they are accessed.
+     * Sections that are never accessed are written back as they were received.
+     *
+     * @param chunkData  The encoded sections, as sent in the chunk data packet
+     * @param chunkCount The amount of sections in the data
+     */
+    public Column(int x, int z, boolean fullChunk, byte[] chunkData, int chunkCount, TileEntity[] tileEntities, NBTCompound heightMaps) {
+        this.x = x;
+        this.z = z;
+        this.fullChunk = fullChunk;
+        this.chunks = new BaseChunk[chunkCount];
+        this.tileEntities = tileEntities != null ? tileEntities : new TileEntity[0];
+        this.hasHeightMaps = true;
+        this.heightMaps = heightMaps;
+        this.hasBiomeData = false;
+        this.biomeDataInts = new int[1024];
+        this.chunkData = chunkData;
+        this.chunkOffsets = Chunk_v1_18.findSectionOffsets(chunkData, chunkCount);
+    }
+
     public int getX() {
         return x;
     }
@@ -125,10 +158,130 @@ public class Column {
         return fullChunk;
     }
 
-    public BaseChunk[] getChunks() {
+    /**
+     * Decodes all sections that haven't been decoded yet. If you only need a few sections,
+     * use {@link #getChunk(int)} instead.
+     */
+    public synchronized BaseChunk[] getChunks() {
+        if (chunkData != null) {
+            for (int i = 0; i < chunks.length; i++) {
+                getChunk(i);
+            }
+            // The array is out of our hands now, we can't tell if any section gets replaced
+            chunkData = null;
+            chunkOffsets = null;
+        }
         return chunks;
     }
 
+    public synchronized BaseChunk getChunk(int index) {
+        BaseChunk chunk = chunks[index];
+        if (chunk == null && chunkData != null) {
+            int offset = chunkOffsets[index];
+            NetStreamInput in = new ByteBufferNetStreamInput(chunkData, offset, chunkOffsets[index + 1] - offset);
+            chunk = chunks[index] = Chunk_v1_18.read(in);
+            decodedChunks++;
+        }
+        return chunk;
+    }
+
+    /**
+     * Hand every 1.18+ section to the transformer, in order from the bottom of the world.
+     * Sections which haven't been decoded yet stay encoded unless the transformer asks for them,
+     * only their changed block palettes are written again. As long as a palette keeps its size,
+     * it is written over the old one in the encoded sections this column was created with.
+     *
+     * @throws UnsupportedOperationException If the column holds sections of an older version
+     */
+    public synchronized void transformSections(ChunkSectionTransformer transformer) {
+        ChunkSection section = new ChunkSection(this);
+        byte[] data = chunkData;
+        int[] offsets = chunkOffsets;
+        byte[] rewritten = null;
+        int[] rewrittenOffsets = null;
+        int length = 0;
+        for (int i = 0; i < chunks.length; i++) {
+            if (data != null && chunks[i] == null) {
+                section.resetEncoded(i, data, offsets[i]);
+            } else if (chunks[i] instanceof Chunk_v1_18) {
+                section.resetDecoded(i);
+            } else if (chunks[i] == null) {
+                continue;
+            } else {
+                throw new UnsupportedOperationException("Only 1.18+ sections can be transformed, got "
+                        + chunks[i].getClass().getSimpleName());
+            }
+            transformer.transform(section);
+            if (data == null) {
+                continue;
+            }
+            if (section.isPaletteChanged() && section.writeInPlace(data)) {
+                // The section kept its size, nothing has to move
+                continue;
+            }
+            if (rewritten == null && section.isPaletteChanged()) {
+                // Everything before the first changed section stays where it is
+                rewritten = new byte[data.length + 256];
+                System.arraycopy(data, 0, rewritten, 0, offsets[i]);
+                rewrittenOffsets = offsets.clone();
+                length = offsets[i];
+            }
+            if (rewritten != null) {
+                int sectionLength = offsets[i + 1] - offsets[i];
+                int maxLength = length + sectionLength + section.maxGrowth() + data.length - offsets[i + 1];
+                if (maxLength > rewritten.length) {
+                    rewritten = Arrays.copyOf(rewritten, maxLength);
+                }
+                rewrittenOffsets[i] = length;
+                if (section.isPaletteChanged()) {
+                    length = section.writeEncoded(data, offsets[i + 1], rewritten, length);
+                } else {
+                    System.arraycopy(data, offsets[i], rewritten, length, sectionLength);
+                    length += sectionLength;
+                }
+            }
+        }
+        // Unless the transformer decoded everything through getChunks()
+        if (rewritten != null && chunkData != null) {
+            int end = offsets[chunks.length];
+            rewrittenOffsets[chunks.length] = length;
+            System.arraycopy(data, end, rewritten, length, data.length - end);
+            length += data.length - end;
+            chunkData = length == rewritten.length ? rewritten : Arrays.copyOf(rewritten, length);
+            chunkOffsets = rewrittenOffsets;
+        }
+    }
+
+    public int getChunkCount() {
+        return chunks.length;
+    }
+
+    /**
+     * @return The sections as they were received, or null if any of them has been decoded since
+     */
+    @ApiStatus.Internal
+    public synchronized byte @Nullable [] getRawChunkData() {
+        if (chunkData == null || decodedChunks != 0 || chunkOffsets[chunks.length] != chunkData.length) {
+            return null;
+        }
+        return chunkData;
+    }
+
+    /**
+     * Write the section as it was received, if it hasn't been decoded since.
+     *
+     * @return Whether the section was written
+     */
+    @ApiStatus.Internal
+    public synchronized boolean writeRawChunk(int index, ByteArrayOutputStream out) {
+        if (chunkData == null || chunks[index] != null) {
+            return false;
+        }
+        int offset = chunkOffsets[index];
+        out.write(chunkData, offset, chunkOffsets[index + 1] - offset);
+        return true;
+    }
+
     public TileEntity[] getTileEntities() {
         return tileEntities;
     }
@@ -54,6 +54,29 @@ public class Chunk_v1_18 implements BaseChunk {
         return new Chunk_v1_18(blockCount, chunkPalette, biomePalette);
     }
 
+    /**
+     * Find where each of the sections in the encoded chunk data starts, without decoding them.
+     *
+     * @return The start offsets of the sections, followed by the offset where the last section ends
+     */
+    public static int[] findSectionOffsets(byte[] data, int sections) {
+        int[] offsets = new int[sections + 1];
+        int offset = 0;
+        for (int i = 0; i < sections; i++) {
+            offsets[i] = offset;
+            // Block count
+            offset += 2;
+            offset = DataPalette.skip(data, offset, PaletteType.CHUNK);
+            offset = DataPalette.skip(data, offset, PaletteType.BIOME);
+        }
+        if (offset > data.length) {
+            throw new IllegalStateException("Chunk data of " + data.length + " bytes is too short for "
+                    + sections + " sections");
+        }
+        offsets[sections] = offset;
+        return offsets;
+    }
+
     public static void write(NetStreamOutput out, Chunk_v1_18 section)  {
         out.writeShort(section.blockCount);
         DataPalette.write(out, section.chunkData);
@@ -75,6 +98,59 @@ public class Chunk_v1_18 implements BaseChunk {
         }
     }
 
+    /**
+     * Decode the states of all blocks in one pass, each at index {@code y << 8 | z << 4 | x}.
+     *
+     * @param states Filled with the states, must hold at least 4096 of them
+     */
+    public void getBlocks(int[] states) {
+        this.chunkData.getAll(states);
+    }
+
+    /**
+     * Replace the states of all blocks at once, each at index {@code y << 8 | z << 4 | x}.
+     */
+    public void setBlocks(int[] states) {
+        this.chunkData.setAll(states);
+        this.blockCount = PaletteType.CHUNK.getStorageSize() - this.chunkData.count(AIR);
+    }
+
+    /**
+     * @return How many blocks have the state
+     */
+    public int countBlocks(int state) {
+        return this.chunkData.count(state);
+    }
+
+    /**
+     * Change every block with one state to another state.
+     *
+     * @return How many blocks were changed
+     */
+    public int replaceBlocks(int from, int to) {
+        int replaced = this.chunkData.replaceAll(from, to);
+        if (from == AIR && to != AIR) {
+            this.blockCount += replaced;
+        } else if (from != AIR && to == AIR) {
+            this.blockCount -= replaced;
+        }
+        return replaced;
+    }
+
+    /**
+     * Change the state of an entry of the block palette, which changes all blocks using it.
+     *
+     * @see DataPalette#setPaletteState(int, int)
+     */
+    public void setPaletteState(int id, int state) {
+        int current = this.chunkData.palette.idToState(id);
+        this.chunkData.setPaletteState(id, state);
+        if ((current == AIR) != (state == AIR)) {
+            int blocks = this.chunkData.storage == null ? PaletteType.CHUNK.getStorageSize() : this.chunkData.storage.count(id);
+            this.blockCount += state == AIR ? -blocks : blocks;
+        }
+    }
+
     @Override
     public boolean isEmpty() {
         return this.blockCount == 0;
@@ -26,6 +26,8 @@ import com.github.retrooper.packetevents.protocol.world.chunk.storage.LegacyFlex
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Arrays;
+
 public class DataPalette {
 
     // this is the amount of bits required to store the biggest state id number
@@ -92,6 +94,46 @@ public class DataPalette {
         out.writeLongs(data);
     }
 
+    /**
+     * Skip over a palette encoded like {@link #read(NetStreamInput, PaletteType)} reads it, without decoding it.
+     *
+     * @return The offset of the first byte after the palette
+     */
+    public static int skip(byte[] data, int offset, PaletteType paletteType) {
+        int bitsPerEntry = data[offset++];
+        // The global palette has no entries to skip
+        if (bitsPerEntry <= paletteType.getMaxBitsPerEntry()) {
+            if (bitsPerEntry == 0) {
+                // Singleton palette, there is no storage after the data length
+                return skipVarInts(data, offset, 2);
+            }
+            int paletteLength = readVarInt(data, offset);
+            offset = skipVarInts(data, offset, paletteLength + 1);
+        }
+        int length = readVarInt(data, offset);
+        return skipVarInts(data, offset, 1) + length * 8;
+    }
+
+    private static int readVarInt(byte[] data, int offset) {
+        int value = 0;
+        int size = 0;
+        byte b;
+        while (((b = data[offset++]) & 0x80) == 0x80) {
+            value |= (b & 0x7F) << (size++ * 7);
+            if (size > 5) {
+                throw new IllegalStateException("VarInt too long (length must be <= 5)");
+            }
+        }
+        return value | ((b & 0x7F) << (size * 7));
+    }
+
+    private static int skipVarInts(byte[] data, int offset, int count) {
+        for (int i = 0; i < count; i++) {
+            while ((data[offset++] & 0x80) == 0x80) ;
+        }
+        return offset;
+    }
+
     public static DataPalette readLegacy(NetStreamInput in) {
         int bitsPerEntry = in.readByte() & 0xff;
         Palette palette = readPalette(PaletteType.CHUNK, bitsPerEntry, in);
@@ -137,6 +179,167 @@ public class DataPalette {
         }
     }
 
+    /**
+     * Decode the states of all blocks (or biomes) in one pass, ordered like {@link #index(int, int, int)}.
+     *
+     * @param states Filled with the states, must hold at least {@link PaletteType#getStorageSize()} of them
+     */
+    public void getAll(int[] states) {
+        int size = this.paletteType.getStorageSize();
+        if (this.storage == null) {
+            Arrays.fill(states, 0, size, this.palette.idToState(0));
+            return;
+        }
+        this.storage.getAll(states);
+        if (this.palette instanceof GlobalPalette) {
+            return;
+        }
+        int[] idToState = new int[1 << this.storage.getBitsPerEntry()];
+        for (int id = 0; id < idToState.length; id++) {
+            idToState[id] = this.palette.idToState(id);
+        }
+        for (int i = 0; i < size; i++) {
+            states[i] = idToState[states[i]];
+        }
+    }
+
+    /**
+     * Replace the states of all blocks (or biomes) at once, ordered like {@link #index(int, int, int)}.
+     * The palette is rebuilt from the states, so it won't keep any states which are no longer used.
+     *
+     * @param states The states, at least {@link PaletteType#getStorageSize()} of them
+     */
+    public void setAll(int[] states) {
+        int size = this.paletteType.getStorageSize();
+        boolean legacy = this.storage instanceof LegacyFlexibleStorage;
+        // Give every state an id in the order they first appear in
+        int[] ids = new int[size];
+        StateIds stateIds = new StateIds(size);
+        int lastState = -1;
+        int lastId = -1;
+        for (int i = 0; i < size; i++) {
+            int state = states[i];
+            if (state != lastState) {
+                lastState = state;
+                lastId = stateIds.idOf(state);
+            }
+            ids[i] = lastId;
+        }
+        int[] distinct = stateIds.states;
+        int distinctCount = stateIds.count;
+
+        // Versions before 1.18 have no singleton palette
+        if (distinctCount == 1 && !legacy) {
+            this.palette = new SingletonPalette(distinct[0]);
+            this.storage = null;
+            return;
+        }
+        int bitsPerEntry = sanitizeBitsPerEntry(32 - Integer.numberOfLeadingZeros(distinctCount - 1));
+        if (bitsPerEntry > this.paletteType.getMaxBitsPerEntry()) {
+            // Keep the size of the global palette the server sent us
+            if (this.palette instanceof GlobalPalette && this.storage != null) {
+                bitsPerEntry = this.storage.getBitsPerEntry();
+            }
+            this.palette = new GlobalPalette();
+            this.storage = createStorage(bitsPerEntry, legacy);
+            this.storage.setAll(states);
+            return;
+        }
+        this.palette = createPalette(bitsPerEntry, this.paletteType);
+        for (int i = 0; i < distinctCount; i++) {
+            this.palette.stateToId(distinct[i]);
+        }
+        this.storage = createStorage(bitsPerEntry, legacy);
+        this.storage.setAll(ids);
+    }
+
+    /**
+     * @return How many blocks (or biomes) have the state
+     */
+    public int count(int state) {
+        if (this.storage == null) {
+            return this.palette.idToState(0) == state ? this.paletteType.getStorageSize() : 0;
+        }
+        if (this.palette instanceof GlobalPalette) {
+            return this.storage.count(state);
+        }
+        int count = 0;
+        // Palettes sent by the server may hold a state more than once
+        for (int id = 0; id < this.palette.size(); id++) {
+            if (this.palette.idToState(id) == state) {
+                count += this.storage.count(id);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Change every block (or biome) with one state to another state.
+     *
+     * @return How many blocks (or biomes) were changed
+     */
+    public int replaceAll(int from, int to) {
+        if (from == to) {
+            return count(from);
+        }
+        if (this.storage == null) {
+            if (this.palette.idToState(0) != from) {
+                return 0;
+            }
+            this.palette = new SingletonPalette(to);
+            return this.paletteType.getStorageSize();
+        }
+        if (this.palette instanceof GlobalPalette) {
+            return this.storage.replaceAll(from, to);
+        }
+        int replaced = 0;
+        for (int id = 0; id < this.palette.size(); id++) {
+            if (this.palette.idToState(id) != from) {
+                continue;
+            }
+            int toId = this.palette.stateToId(to);
+            if (toId == -1) {
+                // The palette is full, the ids change when it grows
+                resize();
+                return replaced + replaceAll(from, to);
+            }
+            replaced += this.storage.replaceAll(id, toId);
+        }
+        return replaced;
+    }
+
+    /**
+     * Change the state of a palette entry, which changes all blocks (or biomes) using it
+     * without touching the storage.
+     *
+     * @throws IllegalStateException If this is a global palette, which has no entries
+     */
+    public void setPaletteState(int id, int state) {
+        if (this.palette instanceof SingletonPalette) {
+            if (id != 0) {
+                throw new IndexOutOfBoundsException("Palette entry " + id + " out of bounds for length 1");
+            }
+            this.palette = new SingletonPalette(state);
+            return;
+        }
+        if (this.palette instanceof GlobalPalette) {
+            throw new IllegalStateException("The global palette has no entries");
+        }
+        if (id < 0 || id >= this.palette.size()) {
+            throw new IndexOutOfBoundsException("Palette entry " + id + " out of bounds for length " + this.palette.size());
+        }
+        if (this.palette instanceof ListPalette) {
+            ((ListPalette) this.palette).setState(id, state);
+        } else {
+            ((MapPalette) this.palette).setState(id, state);
+        }
+    }
+
+    private BaseStorage createStorage(int bitsPerEntry, boolean legacy) {
+        int size = this.paletteType.getStorageSize();
+        return legacy ? new LegacyFlexibleStorage(bitsPerEntry, size) : new BitStorage(bitsPerEntry, size);
+    }
+
     private static Palette readPalette(PaletteType paletteType, int bitsPerEntry, NetStreamInput in) {
         if (bitsPerEntry > paletteType.getMaxBitsPerEntry()) {
             return new GlobalPalette();
@@ -189,4 +392,55 @@ public class DataPalette {
     private static int index(int x, int y, int z) {
         return y << 8 | z << 4 | x;
     }
+
+    /**
+     * Hands out ids to states in the order they are first seen in, without boxing them.
+     */
+    private static final class StateIds {
+        private final int[] states;
+        private int count;
+        // Keys are offset by one, zero marks a free slot
+        private int[] keys = new int[64];
+        private int[] ids = new int[64];
+
+        private StateIds(int maxStates) {
+            this.states = new int[maxStates];
+        }
+
+        private int idOf(int state) {
+            int slot = find(this.keys, state);
+            if (this.keys[slot] != 0) {
+                return this.ids[slot];
+            }
+            int id = this.count++;
+            this.states[id] = state;
+            this.keys[slot] = state + 1;
+            this.ids[slot] = id;
+            if (this.count * 2 > this.keys.length) {
+                grow();
+            }
+            return id;
+        }
+
+        private void grow() {
+            int[] keys = new int[this.keys.length * 2];
+            int[] ids = new int[keys.length];
+            for (int id = 0; id < this.count; id++) {
+                int slot = find(keys, this.states[id]);
+                keys[slot] = this.states[id] + 1;
+                ids[slot] = id;
+            }
+            this.keys = keys;
+            this.ids = ids;
+        }
+
+        private static int find(int[] keys, int state) {
+            int mask = keys.length - 1;
+            int slot = (state * 0x9E3779B9) >>> Integer.numberOfLeadingZeros(mask);
+            while (keys[slot] != 0 && keys[slot] != state + 1) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
 }
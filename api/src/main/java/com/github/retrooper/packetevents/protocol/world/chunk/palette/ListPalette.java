@@ -82,4 +82,8 @@ public class ListPalette implements Palette {
             return 0;
         }
     }
+
+    void setState(int id, int state) {
+        this.data[id] = state;
+    }
 }
\ No newline at end of file
@@ -86,4 +86,21 @@ public class MapPalette implements Palette {
             return 0;
         }
     }
+
+    void setState(int id, int state) {
+        int old = this.idToState[id];
+        this.idToState[id] = state;
+        Integer oldId = this.stateToId.get(old);
+        if (oldId != null && oldId == id) {
+            this.stateToId.remove(old);
+            // Another entry may still hold the old state
+            for (int i = 0; i < this.nextId; i++) {
+                if (this.idToState[i] == old) {
+                    this.stateToId.put(old, i);
+                    break;
+                }
+            }
+        }
+        this.stateToId.putIfAbsent(state, id);
+    }
 }
@@ -28,4 +28,55 @@ public abstract class BaseStorage {
     public abstract int get(int index);
 
     public abstract void set(int index, int value);
+
+    /**
+     * Read all values into the array, which must hold at least {@link #getSize()} values.
+     */
+    public void getAll(int[] values) {
+        int size = getSize();
+        for (int i = 0; i < size; i++) {
+            values[i] = get(i);
+        }
+    }
+
+    /**
+     * Replace all values with the first {@link #getSize()} values of the array.
+     */
+    public void setAll(int[] values) {
+        int size = getSize();
+        for (int i = 0; i < size; i++) {
+            set(i, values[i]);
+        }
+    }
+
+    /**
+     * @return How many entries hold the value
+     */
+    public int count(int value) {
+        int count = 0;
+        int size = getSize();
+        for (int i = 0; i < size; i++) {
+            if (get(i) == value) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Change every entry holding one value to another value.
+     *
+     * @return How many entries were changed
+     */
+    public int replaceAll(int from, int to) {
+        int replaced = 0;
+        int size = getSize();
+        for (int i = 0; i < size; i++) {
+            if (get(i) == from) {
+                set(i, to);
+                replaced++;
+            }
+        }
+        return replaced;
+    }
 }
@@ -130,6 +130,73 @@ public class BitStorage extends BaseStorage {
         this.data[cellIndex] = this.data[cellIndex] & ~(this.maxValue << bitIndex) | ((long) value & this.maxValue) << bitIndex;
     }
 
+    // The bulk operations walk the cells one by one, values never span two of them
+
+    @Override
+    public void getAll(int[] values) {
+        int index = 0;
+        for (long cell : this.data) {
+            for (int i = 0; i < this.valuesPerLong && index < this.size; i++) {
+                values[index++] = (int) (cell & this.maxValue);
+                cell >>>= this.bitsPerEntry;
+            }
+        }
+    }
+
+    @Override
+    public void setAll(int[] values) {
+        int cellBits = this.valuesPerLong * this.bitsPerEntry;
+        int index = 0;
+        for (int cellIndex = 0; cellIndex < this.data.length; cellIndex++) {
+            long cell = 0L;
+            for (int bitIndex = 0; bitIndex < cellBits && index < this.size; bitIndex += this.bitsPerEntry) {
+                int value = values[index++];
+                if (value < 0 || value > this.maxValue) {
+                    throw new IllegalStateException("Illegal value: " + value + " < 0 || " + value + " > " + this.maxValue);
+                }
+                cell |= (long) value << bitIndex;
+            }
+            this.data[cellIndex] = cell;
+        }
+    }
+
+    @Override
+    public int count(int value) {
+        int count = 0;
+        int index = 0;
+        for (long cell : this.data) {
+            for (int i = 0; i < this.valuesPerLong && index < this.size; i++, index++) {
+                if ((cell & this.maxValue) == value) {
+                    count++;
+                }
+                cell >>>= this.bitsPerEntry;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int replaceAll(int from, int to) {
+        if (to < 0 || to > this.maxValue) {
+            throw new IllegalStateException("Illegal value: " + to + " < 0 || " + to + " > " + this.maxValue);
+        }
+        int cellBits = this.valuesPerLong * this.bitsPerEntry;
+        int replaced = 0;
+        int index = 0;
+        for (int cellIndex = 0; cellIndex < this.data.length; cellIndex++) {
+            long cell = this.data[cellIndex];
+            long updated = cell;
+            for (int bitIndex = 0; bitIndex < cellBits && index < this.size; bitIndex += this.bitsPerEntry, index++) {
+                if ((cell >>> bitIndex & this.maxValue) == from) {
+                    updated = updated & ~(this.maxValue << bitIndex) | (long) to << bitIndex;
+                    replaced++;
+                }
+            }
+            this.data[cellIndex] = updated;
+        }
+        return replaced;
+    }
+
     private int cellIndex(int index) {
         return (int) (index * this.divideMultiply + this.divideAdd >> 32 >> this.divideShift);
     }
@@ -0,0 +1,153 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.protocol.world.states;
+
+import com.github.retrooper.packetevents.protocol.world.states.type.StateValue;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The properties of all states of one block type in one mappings version.
+ * <p>
+ * Every state is encoded into a single int, each property taking up a mixed radix digit (the index of its value).
+ * Changing a property is then just arithmetic on that int, followed by an array lookup for the interned state.
+ */
+final class BlockStateLayout {
+    private final StateValue[] properties;
+    // Possible values of each property, null if some states don't have the property
+    private final Object[][] values;
+    private final int[] strides;
+    // Interned states by their encoding, null where no state exists
+    private final WrappedBlockState[] states;
+    private WrappedBlockState defaultState;
+
+    private BlockStateLayout(StateValue[] properties, Object[][] values, int[] strides, int size) {
+        this.properties = properties;
+        this.values = values;
+        this.strides = strides;
+        this.states = new WrappedBlockState[size];
+    }
+
+    /**
+     * Create the layout of these states, which must all be of the same type, and intern them into it.
+     * If multiple states encode the same, the last one is the one changes resolve to.
+     */
+    static BlockStateLayout create(Collection<WrappedBlockState> states) {
+        EnumSet<StateValue> propertySet = EnumSet.noneOf(StateValue.class);
+        for (WrappedBlockState state : states) {
+            propertySet.addAll(state.data.keySet());
+        }
+        StateValue[] properties = propertySet.toArray(new StateValue[0]);
+        Object[][] values = new Object[properties.length][];
+        int[] strides = new int[properties.length];
+        long size = 1;
+        for (int i = 0; i < properties.length; i++) {
+            List<Object> propertyValues = new ArrayList<>();
+            for (WrappedBlockState state : states) {
+                Object value = state.data.get(properties[i]);
+                if (!propertyValues.contains(value)) {
+                    propertyValues.add(value);
+                }
+            }
+            values[i] = propertyValues.toArray();
+            strides[i] = (int) size;
+            size *= values[i].length;
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Too many block states for a single type: " + size);
+            }
+        }
+
+        BlockStateLayout layout = new BlockStateLayout(properties, values, strides, (int) size);
+        for (WrappedBlockState state : states) {
+            int encoded = layout.encode(state.data);
+            state.layout = layout;
+            state.encoded = encoded;
+            layout.states[encoded] = state;
+        }
+        return layout;
+    }
+
+    /**
+     * @return The encoding of the state with these properties, or -1 if there is no such state
+     */
+    int encode(Map<StateValue, Object> data) {
+        int encoded = 0;
+        int known = 0;
+        for (int i = 0; i < properties.length; i++) {
+            Object value = data.get(properties[i]);
+            int index = indexOf(values[i], value);
+            if (index == -1) {
+                return -1;
+            }
+            if (value != null) {
+                known++;
+            }
+            encoded += index * strides[i];
+        }
+        // Properties this type doesn't have
+        return known == data.size() ? encoded : -1;
+    }
+
+    /**
+     * @return The state after changing this property of the encoded state, or null if there is no such state
+     */
+    @Nullable
+    WrappedBlockState with(int encoded, StateValue property, Object value) {
+        for (int i = 0; i < properties.length; i++) {
+            if (properties[i] == property) {
+                int index = value == null ? -1 : indexOf(values[i], value);
+                if (index == -1) {
+                    return null;
+                }
+                int current = (encoded / strides[i]) % values[i].length;
+                return states[encoded + (index - current) * strides[i]];
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    WrappedBlockState getState(int encoded) {
+        return encoded < 0 ? null : states[encoded];
+    }
+
+    @Nullable
+    WrappedBlockState getDefaultState() {
+        return defaultState;
+    }
+
+    void setDefaultState(WrappedBlockState defaultState) {
+        this.defaultState = defaultState;
+    }
+
+    private static int indexOf(Object[] values, Object value) {
+        for (int i = 0; i < values.length; i++) {
+            if (Objects.equals(values[i], value)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -10,6 +10,7 @@ import com.github.retrooper.packetevents.protocol.world.states.type.StateTypes;
 import com.github.retrooper.packetevents.protocol.world.states.type.StateValue;
 import com.github.retrooper.packetevents.util.mappings.MappingHelper;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 
@@ -26,15 +27,29 @@ import java.util.*;
  */
 public class WrappedBlockState {
     private static final WrappedBlockState AIR = new WrappedBlockState(StateTypes.AIR, new EnumMap<>(StateValue.class), 0, (byte) 0);
-    private static final Map<Byte, Map<String, WrappedBlockState>> BY_STRING = new HashMap<>();
-    private static final Map<Byte, Map<Integer, WrappedBlockState>> BY_ID = new HashMap<>();
-    private static final Map<Byte, Map<WrappedBlockState, String>> INTO_STRING = new HashMap<>();
-    private static final Map<Byte, Map<WrappedBlockState, Integer>> INTO_ID = new HashMap<>();
-    private static final Map<Byte, Map<StateType, WrappedBlockState>> DEFAULT_STATES = new HashMap<>();
+    // Mappings index by client version ordinal
+    private static final byte[] MAPPINGS_INDICES = new byte[ClientVersion.values().length];
+    private static final int MAPPINGS_COUNT;
+    // All of these are indexed by mappings index, states by their global id
+    private static final WrappedBlockState[][] BY_ID;
+    private static final String[][] INTO_STRING;
+    private static final List<Map<String, WrappedBlockState>> BY_STRING;
+    private static final List<Map<StateType, BlockStateLayout>> LAYOUTS;
 
     private static final Map<String, String> STRING_UPDATER = new HashMap<>();
 
     static {
+        int maxMappingsIndex = 0;
+        for (ClientVersion version : ClientVersion.values()) {
+            MAPPINGS_INDICES[version.ordinal()] = findMappingsIndex(version);
+            maxMappingsIndex = Math.max(maxMappingsIndex, MAPPINGS_INDICES[version.ordinal()]);
+        }
+        MAPPINGS_COUNT = maxMappingsIndex + 1;
+        BY_ID = new WrappedBlockState[MAPPINGS_COUNT][];
+        INTO_STRING = new String[MAPPINGS_COUNT][];
+        BY_STRING = new ArrayList<>(Collections.nCopies(MAPPINGS_COUNT, null));
+        LAYOUTS = new ArrayList<>(Collections.nCopies(MAPPINGS_COUNT, null));
+
         STRING_UPDATER.put("grass_path", "dirt_path"); // 1.16 -> 1.17
 
         loadLegacy();
@@ -43,9 +58,13 @@ public class WrappedBlockState {
 
     int globalID;
     StateType type;
+    // Shared with the interned state and other copies of it, so never modified unless hasClonedData is set
     Map<StateValue, Object> data = new HashMap<>(0);
     boolean hasClonedData = false;
     byte mappingsIndex;
+    // The states of this type and this state's encoding in it, -1 if not known
+    BlockStateLayout layout;
+    int encoded = -1;
 
     @Deprecated
     public WrappedBlockState(StateType type, String[] data, int globalID, byte mappingsIndex) {
@@ -90,11 +109,18 @@ public class WrappedBlockState {
         return getByGlobalId(version, globalID, true);
     }
 
+    /**
+     * Get the state with this global ID.
+     * Without cloning, the interned state is returned, which must not be modified.
+     */
     @NotNull
     public static WrappedBlockState getByGlobalId(ClientVersion version, int globalID, boolean clone) {
         if (globalID == 0) return AIR; // Hardcode for performance
-        byte mappingsIndex = getMappingsIndex(version);
-        final WrappedBlockState state = BY_ID.get(mappingsIndex).getOrDefault(globalID, AIR);
+        WrappedBlockState[] states = BY_ID[getMappingsIndex(version)];
+        WrappedBlockState state = globalID > 0 && globalID < states.length ? states[globalID] : null;
+        if (state == null) {
+            state = AIR;
+        }
         return clone ? state.clone() : state;
     }
 
@@ -129,7 +155,8 @@ public class WrappedBlockState {
     public static WrappedBlockState getDefaultState(ClientVersion version, StateType type, boolean clone) {
         if (type == StateTypes.AIR) return AIR;
         byte mappingsIndex = getMappingsIndex(version);
-        WrappedBlockState state = DEFAULT_STATES.get(mappingsIndex).get(type);
+        BlockStateLayout layout = LAYOUTS.get(mappingsIndex).get(type);
+        WrappedBlockState state = layout == null ? null : layout.getDefaultState();
         if (state == null) {
             PacketEvents.getAPI().getLogger().config("Default state for " + type.getName() + " is null. Returning AIR");
             return AIR;
@@ -138,6 +165,10 @@ public class WrappedBlockState {
     }
 
     private static byte getMappingsIndex(ClientVersion version) {
+        return MAPPINGS_INDICES[version.ordinal()];
+    }
+
+    private static byte findMappingsIndex(ClientVersion version) {
         if (version.isOlderThan(ClientVersion.V_1_13)) {
             return 0;
         } else if (version.isOlderThanOrEquals(ClientVersion.V_1_13_1)) {
@@ -172,10 +203,9 @@ public class WrappedBlockState {
     }
 
     private static void loadLegacy() {
-        Map<Integer, WrappedBlockState> stateByIdMap = new HashMap<>();
-        Map<WrappedBlockState, Integer> stateToIdMap = new HashMap<>();
+        List<WrappedBlockState> states = new ArrayList<>();
+        List<String> stateStrings = new ArrayList<>();
         Map<String, WrappedBlockState> stateByStringMap = new HashMap<>();
-        Map<WrappedBlockState, String> stateToStringMap = new HashMap<>();
         Map<StateType, WrappedBlockState> stateTypeToBlockStateMap = new HashMap<>();
 
         final NBTCompound compound = MappingHelper.decompress("mappings/block/legacy_block_mappings");
@@ -236,9 +266,8 @@ public class WrappedBlockState {
 
                 WrappedBlockState state = new WrappedBlockState(type, dataMap, combinedID, (byte) 0);
 
-                stateByIdMap.put(combinedID, state);
-                stateToStringMap.put(state, fullString);
-                stateToIdMap.put(state, combinedID);
+                states.add(state);
+                stateStrings.add(fullString);
 
                 // We want the first with this ID, to prevent invalid blocks that work with vanilla, but may
                 // cause other things handling data to have issues, such as air with a byte value of 1
@@ -250,21 +279,16 @@ public class WrappedBlockState {
             }
         }
 
-        BY_ID.put((byte) 0, stateByIdMap);
-        INTO_ID.put((byte) 0, stateToIdMap);
-        BY_STRING.put((byte) 0, stateByStringMap);
-        INTO_STRING.put((byte) 0, stateToStringMap);
-        DEFAULT_STATES.put((byte) 0, stateTypeToBlockStateMap);
+        register((byte) 0, states, stateStrings, stateByStringMap, stateTypeToBlockStateMap);
     }
 
     private static void loadModern() {
         final NBTCompound compound = MappingHelper.decompress("mappings/block/modern_block_mappings");
 
         for (Map.Entry<String, NBT> versionEntry : compound.getTags().entrySet()) {
-            Map<Integer, WrappedBlockState> stateByIdMap = new HashMap<>();
-            Map<WrappedBlockState, Integer> stateToIdMap = new HashMap<>();
+            List<WrappedBlockState> states = new ArrayList<>();
+            List<String> stateStrings = new ArrayList<>();
             Map<String, WrappedBlockState> stateByStringMap = new HashMap<>();
-            Map<WrappedBlockState, String> stateToStringMap = new HashMap<>();
             Map<StateType, WrappedBlockState> stateTypeToBlockStateMap = new HashMap<>();
 
             if (versionEntry.getKey().equals("version")) continue;
@@ -344,26 +368,70 @@ public class WrappedBlockState {
                     }
 
                     stateByStringMap.put(fullString, state);
-                    stateByIdMap.put(id, state);
-                    stateToStringMap.put(state, fullString);
-                    stateToIdMap.put(state, id);
+                    states.add(state);
+                    stateStrings.add(fullString);
 
                     id++;
                     index++;
                 }
             }
 
-            BY_ID.put(mappingIndex, stateByIdMap);
-            INTO_ID.put(mappingIndex, stateToIdMap);
-            BY_STRING.put(mappingIndex, stateByStringMap);
-            INTO_STRING.put(mappingIndex, stateToStringMap);
-            DEFAULT_STATES.put(mappingIndex, stateTypeToBlockStateMap);
+            register(mappingIndex, states, stateStrings, stateByStringMap, stateTypeToBlockStateMap);
+        }
+    }
+
+    /**
+     * Build the lookup tables of a mappings version out of its states (and their strings, in the same order).
+     */
+    private static void register(byte mappingsIndex, List<WrappedBlockState> states, List<String> stateStrings,
+                                 Map<String, WrappedBlockState> stateByStringMap,
+                                 Map<StateType, WrappedBlockState> stateTypeToBlockStateMap) {
+        int maxId = 0;
+        for (WrappedBlockState state : states) {
+            maxId = Math.max(maxId, state.globalID);
+        }
+        WrappedBlockState[] stateById = new WrappedBlockState[maxId + 1];
+        String[] stringById = new String[maxId + 1];
+        Map<StateType, List<WrappedBlockState>> statesByType = new LinkedHashMap<>();
+        for (int i = 0; i < states.size(); i++) {
+            WrappedBlockState state = states.get(i);
+            stateById[state.globalID] = state;
+            stringById[state.globalID] = stateStrings.get(i);
+            statesByType.computeIfAbsent(state.type, type -> new ArrayList<>()).add(state);
+        }
+
+        Map<StateType, BlockStateLayout> layouts = new HashMap<>(statesByType.size());
+        for (Map.Entry<StateType, List<WrappedBlockState>> entry : statesByType.entrySet()) {
+            BlockStateLayout layout = BlockStateLayout.create(entry.getValue());
+            layout.setDefaultState(stateTypeToBlockStateMap.get(entry.getKey()));
+            layouts.put(entry.getKey(), layout);
         }
+
+        BY_ID[mappingsIndex] = stateById;
+        INTO_STRING[mappingsIndex] = stringById;
+        BY_STRING.set(mappingsIndex, stateByStringMap);
+        LAYOUTS.set(mappingsIndex, layouts);
     }
 
     @Override
     public WrappedBlockState clone() {
-        return new WrappedBlockState(type, new HashMap<>(data), globalID, mappingsIndex);
+        // The data is only modified after copying it, so it can be shared
+        WrappedBlockState clone = new WrappedBlockState(type, hasClonedData ? new HashMap<>(data) : data, globalID, mappingsIndex);
+        clone.hasClonedData = hasClonedData;
+        clone.layout = layout;
+        clone.encoded = encoded;
+        return clone;
+    }
+
+    /**
+     * Get the state with this property changed, leaving this state as it is.
+     * The returned state is interned, so it must not be modified, clone it first if needed.
+     *
+     * @return The changed state, or this state if there is no such state
+     */
+    public WrappedBlockState with(StateValue property, Object value) {
+        WrappedBlockState state = getNeighbour(property, value);
+        return state != null ? state : this;
     }
 
     @Override
@@ -371,6 +439,9 @@ public class WrappedBlockState {
         if (this == o) return true;
         if (!(o instanceof WrappedBlockState)) return false;
         WrappedBlockState that = (WrappedBlockState) o;
+        if (layout != null && layout == that.layout && !hasClonedData && !that.hasClonedData) {
+            return encoded == that.encoded;
+        }
         // Don't check the global ID, it is determined by the other data types
         return type == that.type && data.equals(that.data);
     }
@@ -391,9 +462,7 @@ public class WrappedBlockState {
     }
 
     public void setAge(int age) {
-        checkIfCloneNeeded();
-        data.put(StateValue.AGE, age);
-        checkIsStillValid();
+        set(StateValue.AGE, age);
     }
 
     public boolean isAttached() {
@@ -401,9 +470,7 @@ public class WrappedBlockState {
     }
 
     public void setAttached(boolean attached) {
-        checkIfCloneNeeded();
-        data.put(StateValue.ATTACHED, attached);
-        checkIsStillValid();
+        set(StateValue.ATTACHED, attached);
     }
 
     public Attachment getAttachment() {
@@ -411,9 +478,7 @@ public class WrappedBlockState {
     }
 
     public void setAttachment(Attachment attachment) {
-        checkIfCloneNeeded();
-        data.put(StateValue.ATTACHMENT, attachment);
-        checkIsStillValid();
+        set(StateValue.ATTACHMENT, attachment);
     }
 
     public Axis getAxis() {
@@ -421,9 +486,7 @@ public class WrappedBlockState {
     }
 
     public void setAxis(Axis axis) {
-        checkIfCloneNeeded();
-        data.put(StateValue.AXIS, axis);
-        checkIsStillValid();
+        set(StateValue.AXIS, axis);
     }
 
     public boolean isBerries() {
@@ -431,9 +494,7 @@ public class WrappedBlockState {
     }
 
     public void setBerries(boolean berries) {
-        checkIfCloneNeeded();
-        data.put(StateValue.BERRIES, berries);
-        checkIsStillValid();
+        set(StateValue.BERRIES, berries);
     }
 
     public int getBites() {
@@ -441,9 +502,7 @@ public class WrappedBlockState {
     }
 
     public void setBites(int bites) {
-        checkIfCloneNeeded();
-        data.put(StateValue.BITES, bites);
-        checkIsStillValid();
+        set(StateValue.BITES, bites);
     }
 
     public boolean isBottom() {
@@ -451,9 +510,7 @@ public class WrappedBlockState {
     }
 
     public void setBottom(boolean bottom) {
-        checkIfCloneNeeded();
-        data.put(StateValue.BOTTOM, bottom);
-        checkIsStillValid();
+        set(StateValue.BOTTOM, bottom);
     }
 
     public int getCandles() {
@@ -461,9 +518,7 @@ public class WrappedBlockState {
     }
 
     public void setCandles(int candles) {
-        checkIfCloneNeeded();
-        data.put(StateValue.CANDLES, candles);
-        checkIsStillValid();
+        set(StateValue.CANDLES, candles);
     }
 
     public int getCharges() {
@@ -471,9 +526,7 @@ public class WrappedBlockState {
     }
 
     public void setCharges(int charges) {
-        checkIfCloneNeeded();
-        data.put(StateValue.CHARGES, charges);
-        checkIsStillValid();
+        set(StateValue.CHARGES, charges);
     }
 
     public boolean isConditional() {
@@ -481,9 +534,7 @@ public class WrappedBlockState {
     }
 
     public void setConditional(boolean conditional) {
-        checkIfCloneNeeded();
-        data.put(StateValue.CONDITIONAL, conditional);
-        checkIsStillValid();
+        set(StateValue.CONDITIONAL, conditional);
     }
 
     public int getDelay() {
@@ -491,9 +542,7 @@ public class WrappedBlockState {
     }
 
     public void setDelay(int delay) {
-        checkIfCloneNeeded();
-        data.put(StateValue.DELAY, delay);
-        checkIsStillValid();
+        set(StateValue.DELAY, delay);
     }
 
     public boolean isDisarmed() {
@@ -501,9 +550,7 @@ public class WrappedBlockState {
     }
 
     public void setDisarmed(boolean disarmed) {
-        checkIfCloneNeeded();
-        data.put(StateValue.DISARMED, disarmed);
-        checkIsStillValid();
+        set(StateValue.DISARMED, disarmed);
     }
 
     public int getDistance() {
@@ -511,9 +558,7 @@ public class WrappedBlockState {
     }
 
     public void setDistance(int distance) {
-        checkIfCloneNeeded();
-        data.put(StateValue.DISTANCE, distance);
-        checkIsStillValid();
+        set(StateValue.DISTANCE, distance);
     }
 
     public boolean isDown() {
@@ -521,9 +566,7 @@ public class WrappedBlockState {
     }
 
     public void setDown(boolean down) {
-        checkIfCloneNeeded();
-        data.put(StateValue.DOWN, down);
-        checkIsStillValid();
+        set(StateValue.DOWN, down);
     }
 
     public boolean isDrag() {
@@ -531,9 +574,7 @@ public class WrappedBlockState {
     }
 
     public void setDrag(boolean drag) {
-        checkIfCloneNeeded();
-        data.put(StateValue.DRAG, drag);
-        checkIsStillValid();
+        set(StateValue.DRAG, drag);
     }
 
     public boolean isDusted() {
@@ -541,9 +582,7 @@ public class WrappedBlockState {
     }
 
     public void setDusted(boolean dusted) {
-        checkIfCloneNeeded();
-        data.put(StateValue.DUSTED, dusted);
-        checkIsStillValid();
+        set(StateValue.DUSTED, dusted);
     }
 
     public int getEggs() {
@@ -551,9 +590,7 @@ public class WrappedBlockState {
     }
 
     public void setEggs(int eggs) {
-        checkIfCloneNeeded();
-        data.put(StateValue.EGGS, eggs);
-        checkIsStillValid();
+        set(StateValue.EGGS, eggs);
     }
 
     public boolean isEnabled() {
@@ -561,9 +598,7 @@ public class WrappedBlockState {
     }
 
     public void setEnabled(boolean enabled) {
-        checkIfCloneNeeded();
-        data.put(StateValue.ENABLED, enabled);
-        checkIsStillValid();
+        set(StateValue.ENABLED, enabled);
     }
 
     public boolean isExtended() {
@@ -571,9 +606,7 @@ public class WrappedBlockState {
     }
 
     public void setExtended(boolean extended) {
-        checkIfCloneNeeded();
-        data.put(StateValue.EXTENDED, extended);
-        checkIsStillValid();
+        set(StateValue.EXTENDED, extended);
     }
 
     public boolean isEye() {
@@ -581,9 +614,7 @@ public class WrappedBlockState {
     }
 
     public void setEye(boolean eye) {
-        checkIfCloneNeeded();
-        data.put(StateValue.EYE, eye);
-        checkIsStillValid();
+        set(StateValue.EYE, eye);
     }
 
     public Face getFace() {
@@ -591,9 +622,7 @@ public class WrappedBlockState {
     }
 
     public void setFace(Face face) {
-        checkIfCloneNeeded();
-        data.put(StateValue.FACE, face);
-        checkIsStillValid();
+        set(StateValue.FACE, face);
     }
 
     public BlockFace getFacing() {
@@ -601,9 +630,7 @@ public class WrappedBlockState {
     }
 
     public void setFacing(BlockFace facing) {
-        checkIfCloneNeeded();
-        data.put(StateValue.FACING, facing);
-        checkIsStillValid();
+        set(StateValue.FACING, facing);
     }
 
     public int getFlowerAmount() {
@@ -611,9 +638,7 @@ public class WrappedBlockState {
     }
 
     public void setFlowerAmount(int flowerAmount) {
-        checkIfCloneNeeded();
-        data.put(StateValue.FLOWER_AMOUNT, flowerAmount);
-        checkIsStillValid();
+        set(StateValue.FLOWER_AMOUNT, flowerAmount);
     }
 
     public Half getHalf() {
@@ -621,9 +646,7 @@ public class WrappedBlockState {
     }
 
     public void setHalf(Half half) {
-        checkIfCloneNeeded();
-        data.put(StateValue.HALF, half);
-        checkIsStillValid();
+        set(StateValue.HALF, half);
     }
 
     public boolean isHanging() {
@@ -631,9 +654,7 @@ public class WrappedBlockState {
     }
 
     public void setHanging(boolean hanging) {
-        checkIfCloneNeeded();
-        data.put(StateValue.HANGING, hanging);
-        checkIsStillValid();
+        set(StateValue.HANGING, hanging);
     }
 
     public boolean isHasBook() {
@@ -641,9 +662,7 @@ public class WrappedBlockState {
     }
 
     public void setHasBook(boolean hasBook) {
-        checkIfCloneNeeded();
-        data.put(StateValue.HAS_BOOK, hasBook);
-        checkIsStillValid();
+        set(StateValue.HAS_BOOK, hasBook);
     }
 
     public boolean isHasBottle0() {
@@ -651,9 +670,7 @@ public class WrappedBlockState {
     }
 
     public void setHasBottle0(boolean hasBottle0) {
-        checkIfCloneNeeded();
-        data.put(StateValue.HAS_BOTTLE_0, hasBottle0);
-        checkIsStillValid();
+        set(StateValue.HAS_BOTTLE_0, hasBottle0);
     }
 
     public boolean isHasBottle1() {
@@ -661,9 +678,7 @@ public class WrappedBlockState {
     }
 
     public void setHasBottle1(boolean hasBottle1) {
-        checkIfCloneNeeded();
-        data.put(StateValue.HAS_BOTTLE_1, hasBottle1);
-        checkIsStillValid();
+        set(StateValue.HAS_BOTTLE_1, hasBottle1);
     }
 
     public boolean isHasBottle2() {
@@ -671,9 +686,7 @@ public class WrappedBlockState {
     }
 
     public void setHasBottle2(boolean hasBottle2) {
-        checkIfCloneNeeded();
-        data.put(StateValue.HAS_BOTTLE_2, hasBottle2);
-        checkIsStillValid();
+        set(StateValue.HAS_BOTTLE_2, hasBottle2);
     }
 
     public boolean isHasRecord() {
@@ -681,9 +694,7 @@ public class WrappedBlockState {
     }
 
     public void setHasRecord(boolean hasRecord) {
-        checkIfCloneNeeded();
-        data.put(StateValue.HAS_RECORD, hasRecord);
-        checkIsStillValid();
+        set(StateValue.HAS_RECORD, hasRecord);
     }
 
     public int getHatch() {
@@ -691,9 +702,7 @@ public class WrappedBlockState {
     }
 
     public void setHatch(int hatch) {
-        checkIfCloneNeeded();
-        data.put(StateValue.HATCH, hatch);
-        checkIsStillValid();
+        set(StateValue.HATCH, hatch);
     }
 
     public Hinge getHinge() {
@@ -701,9 +710,7 @@ public class WrappedBlockState {
     }
 
     public void setHinge(Hinge hinge) {
-        checkIfCloneNeeded();
-        data.put(StateValue.HINGE, hinge);
-        checkIsStillValid();
+        set(StateValue.HINGE, hinge);
     }
 
     public int getHoneyLevel() {
@@ -711,9 +718,7 @@ public class WrappedBlockState {
     }
 
     public void setHoneyLevel(int honeyLevel) {
-        checkIfCloneNeeded();
-        data.put(StateValue.HONEY_LEVEL, honeyLevel);
-        checkIsStillValid();
+        set(StateValue.HONEY_LEVEL, honeyLevel);
     }
 
     public boolean isInWall() {
@@ -721,9 +726,7 @@ public class WrappedBlockState {
     }
 
     public void setInWall(boolean inWall) {
-        checkIfCloneNeeded();
-        data.put(StateValue.IN_WALL, inWall);
-        checkIsStillValid();
+        set(StateValue.IN_WALL, inWall);
     }
 
     public Instrument getInstrument() {
@@ -731,9 +734,7 @@ public class WrappedBlockState {
     }
 
     public void setInstrument(Instrument instrument) {
-        checkIfCloneNeeded();
-        data.put(StateValue.INSTRUMENT, instrument);
-        checkIsStillValid();
+        set(StateValue.INSTRUMENT, instrument);
     }
 
     public boolean isInverted() {
@@ -741,9 +742,7 @@ public class WrappedBlockState {
     }
 
     public void setInverted(boolean inverted) {
-        checkIfCloneNeeded();
-        data.put(StateValue.INVERTED, inverted);
-        checkIsStillValid();
+        set(StateValue.INVERTED, inverted);
     }
 
     public int getLayers() {
@@ -751,9 +750,7 @@ public class WrappedBlockState {
     }
 
     public void setLayers(int layers) {
-        checkIfCloneNeeded();
-        data.put(StateValue.LAYERS, layers);
-        checkIsStillValid();
+        set(StateValue.LAYERS, layers);
     }
 
     public Leaves getLeaves() {
@@ -761,9 +758,7 @@ public class WrappedBlockState {
     }
 
     public void setLeaves(Leaves leaves) {
-        checkIfCloneNeeded();
-        data.put(StateValue.LEAVES, leaves);
-        checkIsStillValid();
+        set(StateValue.LEAVES, leaves);
     }
 
     public int getLevel() {
@@ -771,9 +766,7 @@ public class WrappedBlockState {
     }
 
     public void setLevel(int level) {
-        checkIfCloneNeeded();
-        data.put(StateValue.LEVEL, level);
-        checkIsStillValid();
+        set(StateValue.LEVEL, level);
     }
 
     public boolean isLit() {
@@ -781,9 +774,7 @@ public class WrappedBlockState {
     }
 
     public void setLit(boolean lit) {
-        checkIfCloneNeeded();
-        data.put(StateValue.LIT, lit);
-        checkIsStillValid();
+        set(StateValue.LIT, lit);
     }
 
     public boolean isLocked() {
@@ -791,9 +782,7 @@ public class WrappedBlockState {
     }
 
     public void setLocked(boolean locked) {
-        checkIfCloneNeeded();
-        data.put(StateValue.LOCKED, locked);
-        checkIsStillValid();
+        set(StateValue.LOCKED, locked);
     }
 
     public Mode getMode() {
@@ -801,9 +790,7 @@ public class WrappedBlockState {
     }
 
     public void setMode(Mode mode) {
-        checkIfCloneNeeded();
-        data.put(StateValue.MODE, mode);
-        checkIsStillValid();
+        set(StateValue.MODE, mode);
     }
 
     public int getMoisture() {
@@ -811,9 +798,7 @@ public class WrappedBlockState {
     }
 
     public void setMoisture(int moisture) {
-        checkIfCloneNeeded();
-        data.put(StateValue.MOISTURE, moisture);
-        checkIsStillValid();
+        set(StateValue.MOISTURE, moisture);
     }
 
     public North getNorth() {
@@ -821,9 +806,7 @@ public class WrappedBlockState {
     }
 
     public void setNorth(North north) {
-        checkIfCloneNeeded();
-        data.put(StateValue.NORTH, north);
-        checkIsStillValid();
+        set(StateValue.NORTH, north);
     }
 
     public int getNote() {
@@ -831,9 +814,7 @@ public class WrappedBlockState {
     }
 
     public void setNote(int note) {
-        checkIfCloneNeeded();
-        data.put(StateValue.NOTE, note);
-        checkIsStillValid();
+        set(StateValue.NOTE, note);
     }
 
     public boolean isOccupied() {
@@ -841,9 +822,7 @@ public class WrappedBlockState {
     }
 
     public void setOccupied(boolean occupied) {
-        checkIfCloneNeeded();
-        data.put(StateValue.OCCUPIED, occupied);
-        checkIsStillValid();
+        set(StateValue.OCCUPIED, occupied);
     }
 
     public boolean isShrieking() {
@@ -851,9 +830,7 @@ public class WrappedBlockState {
     }
 
     public void setShrieking(boolean shrieking) {
-        checkIfCloneNeeded();
-        data.put(StateValue.SHRIEKING, shrieking);
-        checkIsStillValid();
+        set(StateValue.SHRIEKING, shrieking);
     }
 
     public boolean isCanSummon() {
@@ -861,9 +838,7 @@ public class WrappedBlockState {
     }
 
     public void setCanSummon(boolean canSummon) {
-        checkIfCloneNeeded();
-        data.put(StateValue.CAN_SUMMON, canSummon);
-        checkIsStillValid();
+        set(StateValue.CAN_SUMMON, canSummon);
     }
 
     public boolean isOpen() {
@@ -871,9 +846,7 @@ public class WrappedBlockState {
     }
 
     public void setOpen(boolean open) {
-        checkIfCloneNeeded();
-        data.put(StateValue.OPEN, open);
-        checkIsStillValid();
+        set(StateValue.OPEN, open);
     }
 
     public Orientation getOrientation() {
@@ -881,9 +854,7 @@ public class WrappedBlockState {
     }
 
     public void setOrientation(Orientation orientation) {
-        checkIfCloneNeeded();
-        data.put(StateValue.ORIENTATION, orientation);
-        checkIsStillValid();
+        set(StateValue.ORIENTATION, orientation);
     }
 
     public Part getPart() {
@@ -891,9 +862,7 @@ public class WrappedBlockState {
     }
 
     public void setPart(Part part) {
-        checkIfCloneNeeded();
-        data.put(StateValue.PART, part);
-        checkIsStillValid();
+        set(StateValue.PART, part);
     }
 
     public boolean isPersistent() {
@@ -901,9 +870,7 @@ public class WrappedBlockState {
     }
 
     public void setPersistent(boolean persistent) {
-        checkIfCloneNeeded();
-        data.put(StateValue.PERSISTENT, persistent);
-        checkIsStillValid();
+        set(StateValue.PERSISTENT, persistent);
     }
 
     public int getPickles() {
@@ -911,9 +878,7 @@ public class WrappedBlockState {
     }
 
     public void setPickles(int pickles) {
-        checkIfCloneNeeded();
-        data.put(StateValue.PICKLES, pickles);
-        checkIsStillValid();
+        set(StateValue.PICKLES, pickles);
     }
 
     public int getPower() {
@@ -921,9 +886,7 @@ public class WrappedBlockState {
     }
 
     public void setPower(int power) {
-        checkIfCloneNeeded();
-        data.put(StateValue.POWER, power);
-        checkIsStillValid();
+        set(StateValue.POWER, power);
     }
 
     public boolean isPowered() {
@@ -931,9 +894,7 @@ public class WrappedBlockState {
     }
 
     public void setPowered(boolean powered) {
-        checkIfCloneNeeded();
-        data.put(StateValue.POWERED, powered);
-        checkIsStillValid();
+        set(StateValue.POWERED, powered);
     }
 
     public int getRotation() {
@@ -941,9 +902,7 @@ public class WrappedBlockState {
     }
 
     public void setRotation(int rotation) {
-        checkIfCloneNeeded();
-        data.put(StateValue.ROTATION, rotation);
-        checkIsStillValid();
+        set(StateValue.ROTATION, rotation);
     }
 
     public SculkSensorPhase getSculkSensorPhase() {
@@ -951,9 +910,7 @@ public class WrappedBlockState {
     }
 
     public void setSculkSensorPhase(SculkSensorPhase sculkSensorPhase) {
-        checkIfCloneNeeded();
-        data.put(StateValue.SCULK_SENSOR_PHASE, sculkSensorPhase);
-        checkIsStillValid();
+        set(StateValue.SCULK_SENSOR_PHASE, sculkSensorPhase);
     }
 
     public Shape getShape() {
@@ -961,9 +918,7 @@ public class WrappedBlockState {
     }
 
     public void setShape(Shape shape) {
-        checkIfCloneNeeded();
-        data.put(StateValue.SHAPE, shape);
-        checkIsStillValid();
+        set(StateValue.SHAPE, shape);
     }
 
     public boolean isShort() {
@@ -971,9 +926,7 @@ public class WrappedBlockState {
     }
 
     public void setShort(boolean short_) {
-        checkIfCloneNeeded();
-        data.put(StateValue.SHORT, short_);
-        checkIsStillValid();
+        set(StateValue.SHORT, short_);
     }
 
     public boolean isSignalFire() {
@@ -981,9 +934,7 @@ public class WrappedBlockState {
     }
 
     public void setSignalFire(boolean signalFire) {
-        checkIfCloneNeeded();
-        data.put(StateValue.SIGNAL_FIRE, signalFire);
-        checkIsStillValid();
+        set(StateValue.SIGNAL_FIRE, signalFire);
     }
 
     public boolean isSlotZeroOccupied() {
@@ -991,9 +942,7 @@ public class WrappedBlockState {
     }
 
     public void setSlotZeroOccupied(boolean slotZeroOccupied) {
-        checkIfCloneNeeded();
-        data.put(StateValue.SLOT_0_OCCUPIED, slotZeroOccupied);
-        checkIsStillValid();
+        set(StateValue.SLOT_0_OCCUPIED, slotZeroOccupied);
     }
 
     public boolean isSlotOneOccupied() {
@@ -1001,9 +950,7 @@ public class WrappedBlockState {
     }
 
     public void setSlotOneOccupied(boolean slotOneOccupied) {
-        checkIfCloneNeeded();
-        data.put(StateValue.SLOT_1_OCCUPIED, slotOneOccupied);
-        checkIsStillValid();
+        set(StateValue.SLOT_1_OCCUPIED, slotOneOccupied);
     }
 
     public boolean isSlotTwoOccupied() {
@@ -1011,9 +958,7 @@ public class WrappedBlockState {
     }
 
     public void setSlotTwoOccupied(boolean slotTwoOccupied) {
-        checkIfCloneNeeded();
-        data.put(StateValue.SLOT_2_OCCUPIED, slotTwoOccupied);
-        checkIsStillValid();
+        set(StateValue.SLOT_2_OCCUPIED, slotTwoOccupied);
     }
 
     public boolean isSlotThreeOccupied() {
@@ -1021,9 +966,7 @@ public class WrappedBlockState {
     }
 
     public void setSlotThreeOccupied(boolean slotThreeOccupied) {
-        checkIfCloneNeeded();
-        data.put(StateValue.SLOT_3_OCCUPIED, slotThreeOccupied);
-        checkIsStillValid();
+        set(StateValue.SLOT_3_OCCUPIED, slotThreeOccupied);
     }
 
     public boolean isSlotFourOccupied() {
@@ -1031,9 +974,7 @@ public class WrappedBlockState {
     }
 
     public void setSlotFourOccupied(boolean slotFourOccupied) {
-        checkIfCloneNeeded();
-        data.put(StateValue.SLOT_4_OCCUPIED, slotFourOccupied);
-        checkIsStillValid();
+        set(StateValue.SLOT_4_OCCUPIED, slotFourOccupied);
     }
 
     public boolean isSlotFiveOccupied() {
@@ -1041,9 +982,7 @@ public class WrappedBlockState {
     }
 
     public void setSlotFiveOccupied(boolean slotFiveOccupied) {
-        checkIfCloneNeeded();
-        data.put(StateValue.SLOT_5_OCCUPIED, slotFiveOccupied);
-        checkIsStillValid();
+        set(StateValue.SLOT_5_OCCUPIED, slotFiveOccupied);
     }
 
     public boolean isSnowy() {
@@ -1051,9 +990,7 @@ public class WrappedBlockState {
     }
 
     public void setSnowy(boolean snowy) {
-        checkIfCloneNeeded();
-        data.put(StateValue.SNOWY, snowy);
-        checkIsStillValid();
+        set(StateValue.SNOWY, snowy);
     }
 
     public int getStage() {
@@ -1061,9 +998,7 @@ public class WrappedBlockState {
     }
 
     public void setStage(int stage) {
-        checkIfCloneNeeded();
-        data.put(StateValue.STAGE, stage);
-        checkIsStillValid();
+        set(StateValue.STAGE, stage);
     }
 
     public South getSouth() {
@@ -1071,9 +1006,7 @@ public class WrappedBlockState {
     }
 
     public void setSouth(South south) {
-        checkIfCloneNeeded();
-        data.put(StateValue.SOUTH, south);
-        checkIsStillValid();
+        set(StateValue.SOUTH, south);
     }
 
     public Thickness getThickness() {
@@ -1081,9 +1014,7 @@ public class WrappedBlockState {
     }
 
     public void setThickness(Thickness thickness) {
-        checkIfCloneNeeded();
-        data.put(StateValue.THICKNESS, thickness);
-        checkIsStillValid();
+        set(StateValue.THICKNESS, thickness);
     }
 
     public Tilt getTilt() {
@@ -1091,9 +1022,7 @@ public class WrappedBlockState {
     }
 
     public void setTilt(Tilt tilt) {
-        checkIfCloneNeeded();
-        data.put(StateValue.TILT, tilt);
-        checkIsStillValid();
+        set(StateValue.TILT, tilt);
     }
 
     public boolean isTriggered() {
@@ -1101,9 +1030,7 @@ public class WrappedBlockState {
     }
 
     public void setTriggered(boolean triggered) {
-        checkIfCloneNeeded();
-        data.put(StateValue.TRIGGERED, triggered);
-        checkIsStillValid();
+        set(StateValue.TRIGGERED, triggered);
     }
 
     public Type getTypeData() {
@@ -1111,9 +1038,7 @@ public class WrappedBlockState {
     }
 
     public void setTypeData(Type type) {
-        checkIfCloneNeeded();
-        data.put(StateValue.TYPE, type);
-        checkIsStillValid();
+        set(StateValue.TYPE, type);
     }
 
     public boolean isUnstable() {
@@ -1121,9 +1046,7 @@ public class WrappedBlockState {
     }
 
     public void setUnstable(boolean unstable) {
-        checkIfCloneNeeded();
-        data.put(StateValue.UNSTABLE, unstable);
-        checkIsStillValid();
+        set(StateValue.UNSTABLE, unstable);
     }
 
     public boolean isUp() {
@@ -1131,9 +1054,7 @@ public class WrappedBlockState {
     }
 
     public void setUp(boolean up) {
-        checkIfCloneNeeded();
-        data.put(StateValue.UP, up);
-        checkIsStillValid();
+        set(StateValue.UP, up);
     }
 
     public VerticalDirection getVerticalDirection() {
@@ -1141,9 +1062,7 @@ public class WrappedBlockState {
     }
 
     public void setVerticalDirection(VerticalDirection verticalDirection) {
-        checkIfCloneNeeded();
-        data.put(StateValue.VERTICAL_DIRECTION, verticalDirection);
-        checkIsStillValid();
+        set(StateValue.VERTICAL_DIRECTION, verticalDirection);
     }
 
     public boolean isWaterlogged() {
@@ -1151,9 +1070,7 @@ public class WrappedBlockState {
     }
 
     public void setWaterlogged(boolean waterlogged) {
-        checkIfCloneNeeded();
-        data.put(StateValue.WATERLOGGED, waterlogged);
-        checkIsStillValid();
+        set(StateValue.WATERLOGGED, waterlogged);
     }
 
     public East getEast() {
@@ -1161,9 +1078,7 @@ public class WrappedBlockState {
     }
 
     public void setEast(East west) {
-        checkIfCloneNeeded();
-        data.put(StateValue.EAST, west);
-        checkIsStillValid();
+        set(StateValue.EAST, west);
     }
 
     public West getWest() {
@@ -1171,9 +1086,7 @@ public class WrappedBlockState {
     }
 
     public void setWest(West west) {
-        checkIfCloneNeeded();
-        data.put(StateValue.WEST, west);
-        checkIsStillValid();
+        set(StateValue.WEST, west);
     }
 
     public Bloom getBloom() {
@@ -1181,9 +1094,7 @@ public class WrappedBlockState {
     }
 
     public void setBloom(Bloom bloom) {
-        checkIfCloneNeeded();
-        data.put(StateValue.BLOOM, bloom);
-        checkIsStillValid();
+        set(StateValue.BLOOM, bloom);
     }
 
     public boolean isCracked() {
@@ -1191,9 +1102,7 @@ public class WrappedBlockState {
     }
 
     public void setCracked(boolean cracked) {
-        checkIfCloneNeeded();
-        data.put(StateValue.CRACKED, cracked);
-        checkIsStillValid();
+        set(StateValue.CRACKED, cracked);
     }
 
     public boolean isCrafting() {
@@ -1201,9 +1110,7 @@ public class WrappedBlockState {
     }
 
     public void setCrafting(boolean crafting) {
-        checkIfCloneNeeded();
-        data.put(StateValue.CRAFTING, crafting);
-        checkIsStillValid();
+        set(StateValue.CRAFTING, crafting);
     }
 
     public TrialSpawnerState getTrialSpawnerState() {
@@ -1211,39 +1118,21 @@ public class WrappedBlockState {
     }
 
     public void setTrialSpawnerState(TrialSpawnerState trialSpawnerState) {
-        checkIfCloneNeeded();
-        data.put(StateValue.TRIAL_SPAWNER_STATE, trialSpawnerState);
-        checkIsStillValid();
+        set(StateValue.TRIAL_SPAWNER_STATE, trialSpawnerState);
     }
 
     // End all block data types
 
     /**
-     * We can't modify all blocks of a type when modifying a single block.
-     * Cloning on every wrapped block state is too expensive.
-     */
-    private void checkIfCloneNeeded() {
-        if (!hasClonedData) {
-            data = new HashMap<>(data);
-            hasClonedData = true;
-        }
-    }
-
-    /**
-     * This checks if the block state is still valid after modifying it
-     * If it isn't, then this block will be reverted to the previous state using the global id
-     * This is because I believe it's better to revert illegal modification than to simply set to air for doing so
-     * As multi-version makes block data still annoying
+     * Change a property by moving over to the interned state which has it.
+     * This is just arithmetic on the encoded properties, nothing is copied.
+     * <p>
+     * Illegal modifications are ignored, as it's better to keep the previous state than to turn the block into air,
+     * multi-version makes block data annoying enough as it is.
      */
-    private void checkIsStillValid() {
-        int oldGlobalID = globalID;
-        globalID = getGlobalIdNoCache();
-        if (globalID == -1) { // -1 maps to no block as negative ID are impossible
-            WrappedBlockState blockState = BY_ID.get(mappingsIndex).getOrDefault(oldGlobalID, AIR).clone();
-            this.type = blockState.type;
-            this.globalID = blockState.globalID;
-            this.data = new HashMap<>(blockState.data);
-
+    private void set(StateValue property, Object value) {
+        WrappedBlockState state = getNeighbour(property, value);
+        if (state == null) {
             // Stack tracing is expensive
             if (PacketEvents.getAPI().getSettings().isDebugEnabled()) {
                 PacketEvents.getAPI().getLogManager().warn("Attempt to modify an unknown property for this game version and block!");
@@ -1251,9 +1140,42 @@ public class WrappedBlockState {
                 for (Map.Entry<StateValue, Object> entry : data.entrySet()) {
                     PacketEvents.getAPI().getLogManager().warn(entry.getKey() + ": " + entry.getValue());
                 }
+                PacketEvents.getAPI().getLogManager().warn(property + ": " + value);
                 new IllegalStateException("An invalid modification was made to a block!").printStackTrace();
             }
+            return;
+        }
+        this.type = state.type;
+        this.globalID = state.globalID;
+        if (hasClonedData) {
+            // Keep the map handed out by getInternalData in sync
+            this.data.clear();
+            this.data.putAll(state.data);
+        } else {
+            this.data = state.data;
+        }
+        this.layout = state.layout;
+        this.encoded = state.encoded;
+    }
+
+    @Nullable
+    private WrappedBlockState getNeighbour(StateValue property, Object value) {
+        BlockStateLayout layout = getLayout();
+        if (layout == null) {
+            return null;
         }
+        // The data might have been modified directly
+        int encoded = hasClonedData || this.encoded == -1 ? layout.encode(data) : this.encoded;
+        return encoded == -1 ? null : layout.with(encoded, property, value);
+    }
+
+    @Nullable
+    private BlockStateLayout getLayout() {
+        if (layout == null) {
+            Map<StateType, BlockStateLayout> layouts = LAYOUTS.get(mappingsIndex);
+            layout = layouts == null ? null : layouts.get(type);
+        }
+        return layout;
     }
 
     /**
@@ -1262,9 +1184,16 @@ public class WrappedBlockState {
      * <p>
      * Unless you know what you are doing exactly, don't touch this method!
      * It can result in invalid block types when modified directly
+     * <p>
+     * The returned map stays the data of this state, it reflects later changes made through the setters
      */
     @Deprecated
     public Map<StateValue, Object> getInternalData() {
+        // The map is shared with other states until now
+        if (!hasClonedData) {
+            data = new HashMap<>(data);
+            hasClonedData = true;
+        }
         return data;
     }
 
@@ -1279,16 +1208,14 @@ public class WrappedBlockState {
         return globalID;
     }
 
-    /**
-     * Internal method for determining if the block state is still valid
-     */
-    private int getGlobalIdNoCache() {
-        return INTO_ID.get(mappingsIndex).getOrDefault(this, -1);
-    }
-
     @Override
     public String toString() {
-        return INTO_STRING.get(mappingsIndex).get(this);
+        WrappedBlockState state = this;
+        if (hasClonedData || encoded == -1) {
+            BlockStateLayout layout = getLayout();
+            state = layout == null ? null : layout.getState(layout.encode(data));
+        }
+        return state == null ? null : INTO_STRING[mappingsIndex][state.globalID];
     }
 
     public static void ensureLoad() {}
@@ -40,6 +40,11 @@ public class PacketEventsSettings {
     private boolean fullStackTraceEnabled = false;
     private boolean kickOnPacketExceptionEnabled = true;
     private boolean ignoreFailures = false;
+    private boolean flushConsolidation = false;
+    private int flushConsolidationMaxPackets = 64;
+    private int flushConsolidationMaxBytes = 64 * 1024;
+    private boolean lazyNBT = false;
+    private int componentCacheSize = 0;
     private Function<String, InputStream> resourceProvider = path -> PacketEventsSettings.class
             .getClassLoader()
             .getResourceAsStream(path);
@@ -149,6 +154,68 @@ public class PacketEventsSettings {
         return this;
     }
 
+    /**
+     * This decides if PacketEvents should hold back flushes of a connection until a batch of packets has been written,
+     * so the packets sent to a player in one go leave in one syscall instead of one each.
+     * Takes effect for connections made after changing it.
+     *
+     * @param flushConsolidation Value
+     * @return Settings instance.
+     */
+    public PacketEventsSettings flushConsolidation(boolean flushConsolidation) {
+        this.flushConsolidation = flushConsolidation;
+        return this;
+    }
+
+    /**
+     * How much the flush consolidation may hold back before flushing anyway.
+     *
+     * @param maxPackets Flush after this many packets were flushed in the meantime
+     * @param maxBytes   Flush once this many bytes are waiting, 0 for no limit
+     * @return Settings instance.
+     */
+    public PacketEventsSettings flushConsolidationLimits(int maxPackets, int maxBytes) {
+        if (maxPackets < 1 || maxBytes < 0) {
+            throw new IllegalArgumentException("Invalid flush consolidation limits: " + maxPackets + " packets, "
+                    + maxBytes + " bytes");
+        }
+        this.flushConsolidationMaxPackets = maxPackets;
+        this.flushConsolidationMaxBytes = maxBytes;
+        return this;
+    }
+
+    /**
+     * This decides if compounds read with {@link com.github.retrooper.packetevents.wrapper.PacketWrapper#readNBT()},
+     * like the NBT of items and block entities, are only parsed once accessed.
+     * Compounds which are never accessed are written back by copying their bytes.
+     *
+     * @param lazyNBT Value
+     * @return Settings instance.
+     * @see com.github.retrooper.packetevents.protocol.nbt.LazyNBTCompound
+     */
+    public PacketEventsSettings lazyNBT(boolean lazyNBT) {
+        this.lazyNBT = lazyNBT;
+        return this;
+    }
+
+    /**
+     * How many recently converted chat components PacketEvents should remember,
+     * so a component sent again, like a repeated action bar or scoreboard title, is only serialized once.
+     * Each format, like JSON or NBT, has its own cache of this size.
+     * Disabled by default, something like 512 suits servers sending the same components to many players.
+     *
+     * @param componentCacheSize Value, 0 to disable the caches
+     * @return Settings instance.
+     * @see com.github.retrooper.packetevents.util.adventure.ComponentCache
+     */
+    public PacketEventsSettings componentCacheSize(int componentCacheSize) {
+        if (componentCacheSize < 0) {
+            throw new IllegalArgumentException("Invalid component cache size: " + componentCacheSize);
+        }
+        this.componentCacheSize = componentCacheSize;
+        return this;
+    }
+
     /**
      * Some projects may want to implement a CDN with resources like asset mappings
      * By default, all resources are retrieved from the ClassLoader
@@ -232,6 +299,45 @@ public class PacketEventsSettings {
         return kickOnPacketExceptionEnabled;
     }
 
+    /**
+     * Should packetevents consolidate the flushes of connections?
+     *
+     * @return Getter for {@link #flushConsolidation}
+     */
+    public boolean isFlushConsolidationEnabled() {
+        return flushConsolidation;
+    }
+
+    /**
+     * @return Getter for {@link #flushConsolidationMaxPackets}
+     */
+    public int getFlushConsolidationMaxPackets() {
+        return flushConsolidationMaxPackets;
+    }
+
+    /**
+     * @return Getter for {@link #flushConsolidationMaxBytes}
+     */
+    public int getFlushConsolidationMaxBytes() {
+        return flushConsolidationMaxBytes;
+    }
+
+    /**
+     * Should packetevents parse compounds only once they are accessed?
+     *
+     * @return Getter for {@link #lazyNBT}
+     */
+    public boolean isLazyNBTEnabled() {
+        return lazyNBT;
+    }
+
+    /**
+     * @return Getter for {@link #componentCacheSize}
+     */
+    public int getComponentCacheSize() {
+        return componentCacheSize;
+    }
+
     /**
      * As described above, this method retrieves the function that acquires the InputStream
      * of a desired resource by its path.
@@ -23,8 +23,13 @@ import com.github.retrooper.packetevents.event.PacketReceiveEvent;
 import com.github.retrooper.packetevents.event.PacketSendEvent;
 import com.github.retrooper.packetevents.event.UserDisconnectEvent;
 import com.github.retrooper.packetevents.manager.protocol.ProtocolManager;
+import com.github.retrooper.packetevents.manager.server.ServerVersion;
 import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
 import com.github.retrooper.packetevents.netty.buffer.UnpooledByteBufAllocationHelper;
+import com.github.retrooper.packetevents.netty.channel.ChannelHelper;
+import com.github.retrooper.packetevents.protocol.ConnectionState;
+import com.github.retrooper.packetevents.protocol.PacketSide;
+import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
 import com.github.retrooper.packetevents.protocol.player.User;
 import org.jetbrains.annotations.Nullable;
 
@@ -38,13 +43,12 @@ public class PacketEventsImplHelper {
                                                               Object buffer, 
                                                              boolean autoProtocolTranslation) throws Exception {
         if (!ByteBufHelper.isReadable(buffer)) return null;
+        //Nobody is listening to this packet, pass on the buffer untouched
+        if (!isListenedTo(PacketSide.SERVER, user, buffer, autoProtocolTranslation)) return null;
 
         int preProcessIndex = ByteBufHelper.readerIndex(buffer);
         PacketSendEvent packetSendEvent = EventCreationUtil.createSendEvent(channel, user, player, buffer, autoProtocolTranslation);
-        int processIndex = ByteBufHelper.readerIndex(buffer);
-        PacketEvents.getAPI().getEventManager().callEvent(packetSendEvent, () -> {
-            ByteBufHelper.readerIndex(buffer, processIndex);
-        });
+        PacketEvents.getAPI().getEventManager().callEvent(packetSendEvent);
         if (!packetSendEvent.isCancelled()) {
             //Did they ever use a wrapper?
             if (packetSendEvent.getLastUsedWrapper() != null) {
@@ -67,6 +71,7 @@ public class PacketEventsImplHelper {
                 task.run();
             }
         }
+        packetSendEvent.releaseAcquiredWrappers();
 
         return packetSendEvent;
     }
@@ -75,24 +80,41 @@ public class PacketEventsImplHelper {
                                                              Object player,
                                                              Object buffer,
                                                              boolean autoProtocolTranslation) throws Exception {
+        return handleServerBoundPacket(channel, user, player, buffer, autoProtocolTranslation, false);
+    }
+
+    /**
+     * @param pooled Whether a re-encoded packet is written into a buffer from the allocator of the channel
+     *               instead of an unpooled one, the caller has to release it once passed on
+     * @return The buffer to pass on, which is the given one unless the packet was re-encoded
+     */
+    public static Object handleServerBoundPacket(Object channel, User user,
+                                                             Object player,
+                                                             Object buffer,
+                                                             boolean autoProtocolTranslation,
+                                                             boolean pooled) throws Exception {
         if (!ByteBufHelper.isReadable(buffer)) return null;
+        //Nobody is listening to this packet, pass on the buffer untouched
+        if (!isListenedTo(PacketSide.CLIENT, user, buffer, autoProtocolTranslation)) return buffer;
 
         int preProcessIndex = ByteBufHelper.readerIndex(buffer);
         PacketReceiveEvent packetReceiveEvent = EventCreationUtil.createReceiveEvent(channel, user, player, buffer, autoProtocolTranslation);
-        int processIndex = ByteBufHelper.readerIndex(buffer);
-        Object finalBuffer = buffer;
-        PacketEvents.getAPI().getEventManager().callEvent(packetReceiveEvent, () -> {
-            ByteBufHelper.readerIndex(finalBuffer, processIndex);
-        });
+        PacketEvents.getAPI().getEventManager().callEvent(packetReceiveEvent);
         if (!packetReceiveEvent.isCancelled()) {
             //Did they ever use a wrapper?
             if (packetReceiveEvent.getLastUsedWrapper() != null) {
                 //Rewrite the buffer
                 ByteBufHelper.clear(buffer);
-                buffer = UnpooledByteBufAllocationHelper.buffer();
-                packetReceiveEvent.getLastUsedWrapper().setBuffer(buffer);
-                packetReceiveEvent.getLastUsedWrapper().writeVarInt(packetReceiveEvent.getPacketId());
-                packetReceiveEvent.getLastUsedWrapper().write();
+                Object output = pooled ? ChannelHelper.pooledByteBuf(channel) : UnpooledByteBufAllocationHelper.buffer();
+                try {
+                    packetReceiveEvent.getLastUsedWrapper().setBuffer(output);
+                    packetReceiveEvent.getLastUsedWrapper().writeVarInt(packetReceiveEvent.getPacketId());
+                    packetReceiveEvent.getLastUsedWrapper().write();
+                } catch (Exception e) {
+                    ByteBufHelper.release(output);
+                    throw e;
+                }
+                buffer = output;
             } else {
                 //If no wrappers were used, just pass on the original buffer.
                 //Correct the reader index, basically what the next handler is expecting.
@@ -107,9 +129,40 @@ public class PacketEventsImplHelper {
                 task.run();
             }
         }
+        packetReceiveEvent.releaseAcquiredWrappers();
         return buffer;
     }
 
+    /**
+     * Peek at the packet ID and check if any listener subscribed to the packet type behind it.
+     * This resolves the packet type the same way {@link com.github.retrooper.packetevents.event.ProtocolPacketEvent} does,
+     * but doesn't move the reader index of the buffer.
+     * Packets we fail to identify are reported as listened to, so the event creation can report the issue.
+     */
+    private static boolean isListenedTo(PacketSide side, User user, Object buffer, boolean autoProtocolTranslation) {
+        ServerVersion serverVersion;
+        if (autoProtocolTranslation || user.getClientVersion() == null) {
+            serverVersion = PacketEvents.getAPI().getServerManager().getVersion();
+        } else {
+            // Has to round the client version exactly like the event does, or both could resolve different packet types
+            @SuppressWarnings("deprecation")
+            ServerVersion clientServerVersion = user.getClientVersion().toServerVersion();
+            serverVersion = clientServerVersion;
+        }
+        ConnectionState state = side == PacketSide.CLIENT ? user.getDecoderState() : user.getEncoderState();
+        int readerIndex = ByteBufHelper.readerIndex(buffer);
+        int packetId;
+        try {
+            packetId = ByteBufHelper.readVarInt(buffer);
+        } catch (Exception e) {
+            return true;
+        } finally {
+            ByteBufHelper.readerIndex(buffer, readerIndex);
+        }
+        PacketTypeCommon packetType = user.getPacketType(side, state, serverVersion.toClientVersion(), packetId);
+        return packetType == null || PacketEvents.getAPI().getEventManager().hasListeners(packetType);
+    }
+
     public static void handleDisconnection(Object channel, @Nullable UUID uuid) {
         synchronized (channel) {
             User user = PacketEvents.getAPI().getProtocolManager().getUser(channel);
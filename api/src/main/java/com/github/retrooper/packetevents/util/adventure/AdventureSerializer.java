@@ -25,12 +25,14 @@ import com.google.gson.JsonElement;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
 import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import org.jetbrains.annotations.Nullable;
 
 public class AdventureSerializer {
 
     private static GsonComponentSerializer GSON;
     private static LegacyComponentSerializer LEGACY;
     private static AdventureNBTSerializer NBT;
+    private static ComponentCaches CACHES;
 
     public static GsonComponentSerializer getGsonSerializer() {
         if (GSON == null) {
@@ -68,8 +70,35 @@ public class AdventureSerializer {
         return NBT;
     }
 
+    /**
+     * The caches are created again whenever the size in the settings changes, dropping what they held.
+     *
+     * @return The caches of recently converted components, or null if disabled in the settings
+     */
+    public static @Nullable ComponentCaches getCaches() {
+        int size = PacketEvents.getAPI().getSettings().getComponentCacheSize();
+        if (size <= 0) {
+            return null;
+        }
+        ComponentCaches caches = CACHES;
+        if (caches == null || caches.size != size) {
+            caches = new ComponentCaches(size);
+            CACHES = caches;
+        }
+        return caches;
+    }
+
     public static String asVanilla(Component component) {
-        return getLegacySerializer().serialize(component);
+        ComponentCaches caches = getCaches();
+        if (caches == null) {
+            return getLegacySerializer().serialize(component);
+        }
+        String legacy = caches.legacyEncoded.get(component);
+        if (legacy == null) {
+            legacy = getLegacySerializer().serialize(component);
+            caches.legacyEncoded.put(component, legacy);
+        }
+        return legacy;
     }
 
     public static Component fromLegacyFormat(String legacyMessage) {
@@ -77,11 +106,20 @@ public class AdventureSerializer {
     }
 
     public static String toLegacyFormat(Component component) {
-        return getLegacySerializer().serializeOrNull(component);
+        return component == null ? null : asVanilla(component);
     }
 
     public static Component parseComponent(String json) {
-        return getGsonSerializer().deserializeOrNull(json);
+        ComponentCaches caches = getCaches();
+        if (caches == null || json == null) {
+            return getGsonSerializer().deserializeOrNull(json);
+        }
+        Component component = caches.jsonDecoded.get(json);
+        if (component == null) {
+            component = getGsonSerializer().deserialize(json);
+            caches.jsonDecoded.put(json, component);
+        }
+        return component;
     }
 
     public static Component parseJsonTree(JsonElement json) {
@@ -89,7 +127,16 @@ public class AdventureSerializer {
     }
 
     public static String toJson(Component component) {
-        return getGsonSerializer().serializeOrNull(component);
+        ComponentCaches caches = getCaches();
+        if (caches == null || component == null) {
+            return getGsonSerializer().serializeOrNull(component);
+        }
+        String json = caches.jsonEncoded.get(component);
+        if (json == null) {
+            json = getGsonSerializer().serialize(component);
+            caches.jsonEncoded.put(component, json);
+        }
+        return json;
     }
 
     public static JsonElement toJsonTree(Component component) {
@@ -104,4 +151,24 @@ public class AdventureSerializer {
         return getNBTSerializer().serialize(component);
     }
 
+    /**
+     * Recently converted components, by format.
+     */
+    public static final class ComponentCaches {
+        public final ComponentCache<Component, byte[]> nbtEncoded;
+        public final ComponentCache<ComponentCache.Bytes, Component> nbtDecoded;
+        public final ComponentCache<Component, String> jsonEncoded;
+        public final ComponentCache<String, Component> jsonDecoded;
+        public final ComponentCache<Component, String> legacyEncoded;
+        private final int size;
+
+        private ComponentCaches(int size) {
+            this.size = size;
+            this.nbtEncoded = new ComponentCache<>(size);
+            this.nbtDecoded = new ComponentCache<>(size);
+            this.jsonEncoded = new ComponentCache<>(size);
+            this.jsonDecoded = new ComponentCache<>(size);
+            this.legacyEncoded = new ComponentCache<>(size);
+        }
+    }
 }
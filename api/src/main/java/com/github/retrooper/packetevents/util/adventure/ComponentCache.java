@@ -0,0 +1,190 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.util.adventure;
+
+import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * A fixed number of recently converted components, or of what they were converted from.
+ * Components are immutable, so the same chat message, title or name only needs to be converted once.
+ * <p>
+ * Every key has a single slot, a new key taking the slot of another one replaces it.
+ * Keys are looked up by identity first, which skips hashing them when the same instance is sent again,
+ * and by equality after that. Safe to use from many threads without locking,
+ * at worst a conversion is done again.
+ *
+ * @param <K> What is converted
+ * @param <V> What it is converted to
+ */
+public final class ComponentCache<K, V> {
+    private final Entry<K, V>[] byEquality;
+    private final Entry<K, V>[] byIdentity;
+    private final int mask;
+
+    /**
+     * @param size How many keys to hold at most, rounded up to a power of two
+     */
+    public ComponentCache(int size) {
+        int capacity = Integer.highestOneBit(Math.max(1, size - 1)) << 1;
+        this.byEquality = newEntries(capacity);
+        this.byIdentity = newEntries(capacity);
+        this.mask = capacity - 1;
+    }
+
+    public @Nullable V get(K key) {
+        int identitySlot = System.identityHashCode(key) & mask;
+        Entry<K, V> entry = byIdentity[identitySlot];
+        if (entry != null && entry.key == key) {
+            return entry.value;
+        }
+        entry = getEntry(key);
+        if (entry != null) {
+            byIdentity[identitySlot] = new Entry<>(key, entry.hash, entry.value);
+            return entry.value;
+        }
+        return null;
+    }
+
+    /**
+     * Look the key up by equality only, without remembering it by identity.
+     * Meant for keys which are only used for a single lookup, like a view from {@link Bytes#read(Object, int)}.
+     */
+    public @Nullable V getEqual(K key) {
+        Entry<K, V> entry = getEntry(key);
+        return entry != null ? entry.value : null;
+    }
+
+    private @Nullable Entry<K, V> getEntry(K key) {
+        int hash = key.hashCode();
+        Entry<K, V> entry = byEquality[spread(hash) & mask];
+        return entry != null && entry.hash == hash && entry.key.equals(key) ? entry : null;
+    }
+
+    public void put(K key, V value) {
+        int hash = key.hashCode();
+        Entry<K, V> entry = new Entry<>(key, hash, value);
+        byEquality[spread(hash) & mask] = entry;
+        byIdentity[System.identityHashCode(key) & mask] = entry;
+    }
+
+    public void clear() {
+        Arrays.fill(byEquality, null);
+        Arrays.fill(byIdentity, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Entry<K, V>[] newEntries(int capacity) {
+        // Only ever holds entries of this cache's types
+        return (Entry<K, V>[]) new Entry<?, ?>[capacity];
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    // Immutable, so other threads never see one half-built
+    private static final class Entry<K, V> {
+        private final K key;
+        private final int hash;
+        private final V value;
+
+        private Entry(K key, int hash, V value) {
+            this.key = key;
+            this.hash = hash;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Encoded bytes as a key, compared by content.
+     * Either holds the bytes on its own, or is a view of the bytes last read by this thread,
+     * to look them up without allocating anything.
+     */
+    public static final class Bytes {
+        // Reading a few hundred bytes at once is a lot faster than reading them one by one from the buffer
+        private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[256]);
+
+        private final byte[] bytes;
+        private final int length;
+        private final int hash;
+        private final boolean view;
+
+        public Bytes(byte[] bytes) {
+            this(bytes, bytes.length, Arrays.hashCode(bytes), false);
+        }
+
+        private Bytes(byte[] bytes, int length, int hash, boolean view) {
+            this.bytes = bytes;
+            this.length = length;
+            this.hash = hash;
+            this.view = view;
+        }
+
+        /**
+         * Read the next bytes of the buffer as a key, which is only valid until this thread reads another one.
+         * Use {@link #copy()} to keep it.
+         */
+        public static Bytes read(Object buffer, int length) {
+            byte[] scratch = SCRATCH.get();
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+                SCRATCH.set(scratch);
+            }
+            ByteBufHelper.readBytes(buffer, scratch, 0, length);
+            // Same as Arrays#hashCode, so views and copies of the same bytes are equal
+            int hash = 1;
+            for (int i = 0; i < length; i++) {
+                hash = 31 * hash + scratch[i];
+            }
+            return new Bytes(scratch, length, hash, true);
+        }
+
+        /**
+         * @return A key holding these bytes on its own, this key itself if it isn't a view
+         */
+        public Bytes copy() {
+            return view ? new Bytes(Arrays.copyOf(bytes, length), length, hash, false) : this;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Bytes)) {
+                return false;
+            }
+            Bytes other = (Bytes) obj;
+            if (other.hash != hash || other.length != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (bytes[i] != other.bytes[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
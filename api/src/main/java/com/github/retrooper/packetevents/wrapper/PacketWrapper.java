@@ -22,9 +22,10 @@ import com.github.retrooper.packetevents.PacketEvents;
 import com.github.retrooper.packetevents.event.PacketReceiveEvent;
 import com.github.retrooper.packetevents.event.PacketSendEvent;
 import com.github.retrooper.packetevents.event.ProtocolPacketEvent;
+import com.github.retrooper.packetevents.manager.protocol.FrozenPacket;
 import com.github.retrooper.packetevents.manager.server.ServerVersion;
 import com.github.retrooper.packetevents.manager.server.VersionComparison;
-import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
+import com.github.retrooper.packetevents.netty.buffer.ByteBufOperator;
 import com.github.retrooper.packetevents.netty.channel.ChannelHelper;
 import com.github.retrooper.packetevents.protocol.PacketSide;
 import com.github.retrooper.packetevents.protocol.chat.ChatType;
@@ -67,6 +68,7 @@ import com.github.retrooper.packetevents.util.KnownPack;
 import com.github.retrooper.packetevents.util.StringUtil;
 import com.github.retrooper.packetevents.util.Vector3i;
 import com.github.retrooper.packetevents.util.adventure.AdventureSerializer;
+import com.github.retrooper.packetevents.util.adventure.ComponentCache;
 import com.github.retrooper.packetevents.util.crypto.MinecraftEncryptionUtil;
 import com.github.retrooper.packetevents.util.crypto.SaltSignature;
 import com.github.retrooper.packetevents.util.crypto.SignatureData;
@@ -105,6 +107,8 @@ public class PacketWrapper<T extends PacketWrapper<T>> {
     // For sending chunk data packets, which need this data
     @Nullable
     protected User user;
+    // Resolved on first use, saves going through the API for every read and write
+    private ByteBufOperator byteBufOperator;
 
     private static final int MODERN_MESSAGE_LENGTH = 262144;
     private static final int LEGACY_MESSAGE_LENGTH = 32767;
@@ -193,7 +197,7 @@ public class PacketWrapper<T extends PacketWrapper<T>> {
     public final void prepareForSend(Object channel, boolean outgoing, boolean proxy) {
         // Null means the packet was manually created and wasn't sent by the server itself
         // A reference count of 0 means that the packet was freed (it was already sent)
-        if (buffer == null || ByteBufHelper.refCnt(buffer) == 0) {
+        if (buffer == null || byteBufOperator().refCnt(buffer) == 0) {
             buffer = ChannelHelper.pooledByteBuf(channel);
         }
 
@@ -220,6 +224,18 @@ public class PacketWrapper<T extends PacketWrapper<T>> {
         prepareForSend(channel, outgoing, PacketEvents.getAPI().getInjector().isProxy());
     }
 
+    /**
+     * Freeze this packet to send it many times with the same content, encoding it only once per client version.
+     * The wrapper must not be changed afterwards.
+     * The encodings are kept on the heap, so the frozen packet can simply be dropped once it isn't sent anymore,
+     * {@link FrozenPacket#release()} only frees them early.
+     *
+     * @return The frozen packet
+     */
+    public FrozenPacket freeze() {
+        return new FrozenPacket(this);
+    }
+
     public void read() {
     }
 
@@ -235,6 +251,37 @@ public class PacketWrapper<T extends PacketWrapper<T>> {
     //TODO public void transform(int protocolVersion) {}
     //Current idea change server version, but still think more
 
+    /**
+     * Whether this wrapper may be pooled and read more than one packet, see {@link PacketWrapperPool}.
+     * Many wrappers only assign some of their fields when reading, depending on the version for example,
+     * so a reused one could keep values of the previous packet.
+     * Wrappers opt in by returning true here once {@link #reuse(ProtocolPacketEvent)} resets all of their state.
+     */
+    @ApiStatus.Internal
+    protected boolean isReusable() {
+        return false;
+    }
+
+    /**
+     * Point this pooled wrapper at the packet of another event and read it,
+     * the same way constructing the wrapper from the event does.
+     * Wrappers which take more than that from the event in their constructor,
+     * or which don't assign all of their fields in {@link #read()}, have to reset them here too.
+     *
+     * @see #isReusable()
+     * @see PacketWrapperPool
+     */
+    @ApiStatus.Internal
+    protected void reuse(ProtocolPacketEvent<?> event) {
+        this.clientVersion = event.getUser().getClientVersion();
+        this.serverVersion = event.getServerVersion();
+        this.user = event.getUser();
+        this.buffer = event.getByteBuf();
+        this.packetTypeData.setPacketType(event.getPacketType());
+        this.packetTypeData.setNativePacketId(event.getPacketId());
+        readEvent(event);
+    }
+
     public final void readEvent(ProtocolPacketEvent<?> event) {
         PacketWrapper<?> last = event.getLastUsedWrapper();
         if (last != null) {
@@ -307,25 +354,34 @@ public class PacketWrapper<T extends PacketWrapper<T>> {
         return serverVersion.isNewerThanOrEquals(ServerVersion.V_1_13) ? MODERN_MESSAGE_LENGTH : LEGACY_MESSAGE_LENGTH;
     }
 
+    private ByteBufOperator byteBufOperator() {
+        ByteBufOperator operator = this.byteBufOperator;
+        if (operator == null) {
+            operator = PacketEvents.getAPI().getNettyManager().getByteBufOperator();
+            this.byteBufOperator = operator;
+        }
+        return operator;
+    }
+
     @Deprecated
     public void resetByteBuf() {
-        ByteBufHelper.clear(buffer);
+        byteBufOperator().clear(buffer);
     }
 
     public void resetBuffer() {
-        ByteBufHelper.clear(buffer);
+        byteBufOperator().clear(buffer);
     }
 
     public byte readByte() {
-        return ByteBufHelper.readByte(buffer);
+        return byteBufOperator().readByte(buffer);
     }
 
     public void writeByte(int value) {
-        ByteBufHelper.writeByte(buffer, value);
+        byteBufOperator().writeByte(buffer, value);
     }
 
     public short readUnsignedByte() {
-        return ByteBufHelper.readUnsignedByte(buffer);
+        return byteBufOperator().readUnsignedByte(buffer);
     }
 
     public boolean readBoolean() {
@@ -337,37 +393,19 @@ public class PacketWrapper<T extends PacketWrapper<T>> {
     }
 
     public int readInt() {
-        return ByteBufHelper.readInt(buffer);
+        return byteBufOperator().readInt(buffer);
     }
 
     public void writeInt(int value) {
-        ByteBufHelper.writeInt(buffer, value);
+        byteBufOperator().writeInt(buffer, value);
     }
 
     public int readVarInt() {
-        int value = 0;
-        int length = 0;
-        byte currentByte;
-        do {
-            currentByte = readByte();
-            value |= (currentByte & 0x7F) << (length * 7);
-            length++;
-            if (length > 5) {
-                throw new RuntimeException("VarInt is too large. Must be smaller than 5 bytes.");
-            }
-        } while ((currentByte & 0x80) == 0x80);
-        return value;
+        return byteBufOperator().readVarInt(buffer);
     }
 
     public void writeVarInt(int value) {
-        while (true) {
-            if ((value & ~0x7F) == 0) {
-                writeByte(value);
-                break;
-            }
-            writeByte((value & 0x7F) | 0x80);
-            value >>>= 7;
-        }
+        byteBufOperator().writeVarInt(buffer, value);
     }
 
     public <K, V> Map<K, V> readMap(Reader<K> keyFunction, Reader<V> valueFunction) {
@@ -555,7 +593,8 @@ public class PacketWrapper<T extends PacketWrapper<T>> {
     }
 
     public NBTCompound readNBT() {
-        return (NBTCompound) this.readNBTRaw();
+        return (NBTCompound) NBTCodec.readNBTFromBuffer(buffer, serverVersion,
+                PacketEvents.getAPI().getSettings().isLazyNBTEnabled());
     }
 
     public NBT readNBTRaw() {
@@ -582,8 +621,8 @@ public class PacketWrapper<T extends PacketWrapper<T>> {
         } else if (j < 0) {
             throw new RuntimeException("The received encoded string buffer length is less than zero! Weird string!");
         } else {
-            String s = ByteBufHelper.toString(buffer, ByteBufHelper.readerIndex(buffer), j, StandardCharsets.UTF_8);
-            ByteBufHelper.readerIndex(buffer, ByteBufHelper.readerIndex(buffer) + j);
+            String s = byteBufOperator().toString(buffer, byteBufOperator().readerIndex(buffer), j, StandardCharsets.UTF_8);
+            byteBufOperator().readerIndex(buffer, byteBufOperator().readerIndex(buffer) + j);
             if (s.length() > maxLen) {
                 throw new RuntimeException("The received string length is longer than maximum allowed (" + j + " > " + maxLen + ")");
             } else {
@@ -615,7 +654,7 @@ public class PacketWrapper<T extends PacketWrapper<T>> {
             throw new IllegalStateException("String too big (was " + bytes.length + " bytes encoded, max " + maxLen + ")");
         } else {
             writeVarInt(bytes.length);
-            ByteBufHelper.writeBytes(buffer, bytes);
+            byteBufOperator().writeBytes(buffer, bytes);
         }
     }
 
@@ -631,7 +670,24 @@ public class PacketWrapper<T extends PacketWrapper<T>> {
     }
 
     public Component readComponentAsNBT() {
-        return AdventureSerializer.fromNbt(readNBTRaw());
+        AdventureSerializer.ComponentCaches caches = AdventureSerializer.getCaches();
+        if (caches == null) {
+            return AdventureSerializer.fromNbt(readNBTRaw());
+        }
+        // Look the encoded component up before parsing it, it's only copied to be kept as a key
+        int start = byteBufOperator().readerIndex(buffer);
+        NBTCodec.skipNBTInBuffer(buffer, serverVersion);
+        int length = byteBufOperator().readerIndex(buffer) - start;
+        byteBufOperator().readerIndex(buffer, start);
+        ComponentCache.Bytes key = ComponentCache.Bytes.read(buffer, length);
+        Component component = caches.nbtDecoded.getEqual(key);
+        if (component == null) {
+            key = key.copy();
+            byteBufOperator().readerIndex(buffer, start);
+            component = AdventureSerializer.fromNbt(readNBTRaw());
+            caches.nbtDecoded.put(key, component);
+        }
+        return component;
     }
 
     public Component readComponentAsJSON() {
@@ -648,7 +704,21 @@ public class PacketWrapper<T extends PacketWrapper<T>> {
     }
 
     public void writeComponentAsNBT(Component component) {
+        AdventureSerializer.ComponentCaches caches = AdventureSerializer.getCaches();
+        if (caches == null) {
+            writeNBTRaw(AdventureSerializer.toNbt(component));
+            return;
+        }
+        byte[] encoded = caches.nbtEncoded.get(component);
+        if (encoded != null) {
+            byteBufOperator().writeBytes(buffer, encoded);
+            return;
+        }
+        int start = byteBufOperator().writerIndex(buffer);
         writeNBTRaw(AdventureSerializer.toNbt(component));
+        encoded = new byte[byteBufOperator().writerIndex(buffer) - start];
+        byteBufOperator().getBytes(buffer, start, encoded);
+        caches.nbtEncoded.put(component, encoded);
     }
 
     public void writeComponentAsJSON(Component component) {
@@ -681,15 +751,15 @@ public class PacketWrapper<T extends PacketWrapper<T>> {
     }
 
     public int readUnsignedShort() {
-        return ByteBufHelper.readUnsignedShort(buffer);
+        return byteBufOperator().readUnsignedShort(buffer);
     }
 
     public short readShort() {
-        return ByteBufHelper.readShort(buffer);
+        return byteBufOperator().readShort(buffer);
     }
 
     public void writeShort(int value) {
-        ByteBufHelper.writeShort(buffer, value);
+        byteBufOperator().writeShort(buffer, value);
     }
 
     public int readVarShort() {
@@ -715,11 +785,11 @@ public class PacketWrapper<T extends PacketWrapper<T>> {
     }
 
     public long readLong() {
-        return ByteBufHelper.readLong(buffer);
+        return byteBufOperator().readLong(buffer);
     }
 
     public void writeLong(long value) {
-        ByteBufHelper.writeLong(buffer, value);
+        byteBufOperator().writeLong(buffer, value);
     }
 
     public long readVarLong() {
@@ -742,33 +812,33 @@ public class PacketWrapper<T extends PacketWrapper<T>> {
     }
 
     public float readFloat() {
-        return ByteBufHelper.readFloat(buffer);
+        return byteBufOperator().readFloat(buffer);
     }
 
     public void writeFloat(float value) {
-        ByteBufHelper.writeFloat(buffer, value);
+        byteBufOperator().writeFloat(buffer, value);
     }
 
     public double readDouble() {
-        return ByteBufHelper.readDouble(buffer);
+        return byteBufOperator().readDouble(buffer);
     }
 
     public void writeDouble(double value) {
-        ByteBufHelper.writeDouble(buffer, value);
+        byteBufOperator().writeDouble(buffer, value);
     }
 
     public byte[] readRemainingBytes() {
-        return readBytes(ByteBufHelper.readableBytes(buffer));
+        return readBytes(byteBufOperator().readableBytes(buffer));
     }
 
     public byte[] readBytes(int size) {
         byte[] bytes = new byte[size];
-        ByteBufHelper.readBytes(buffer, bytes);
+        byteBufOperator().readBytes(buffer, bytes);
         return bytes;
     }
 
     public void writeBytes(byte[] array) {
-        ByteBufHelper.writeBytes(buffer, array);
+        byteBufOperator().writeBytes(buffer, array);
     }
 
     public byte[] readByteArray(int maxLength) {
@@ -780,7 +850,7 @@ public class PacketWrapper<T extends PacketWrapper<T>> {
     }
 
     public byte[] readByteArray() {
-        return readByteArray(ByteBufHelper.readableBytes(buffer));
+        return readByteArray(byteBufOperator().readableBytes(buffer));
     }
 
     public void writeByteArray(byte[] array) {
@@ -789,7 +859,7 @@ public class PacketWrapper<T extends PacketWrapper<T>> {
     }
 
     public int[] readVarIntArray() {
-        int readableBytes = ByteBufHelper.readableBytes(buffer);
+        int readableBytes = byteBufOperator().readableBytes(buffer);
         int size = readVarInt();
         if (size > readableBytes) {
             throw new IllegalStateException("VarIntArray with size " + size + " is bigger than allowed " + readableBytes);
@@ -820,12 +890,12 @@ public class PacketWrapper<T extends PacketWrapper<T>> {
 
     public byte[] readByteArrayOfSize(int size) {
         byte[] array = new byte[size];
-        ByteBufHelper.readBytes(buffer, array);
+        byteBufOperator().readBytes(buffer, array);
         return array;
     }
 
     public void writeByteArrayOfSize(byte[] array) {
-        ByteBufHelper.writeBytes(buffer, array);
+        byteBufOperator().writeBytes(buffer, array);
     }
 
     public int[] readVarIntArrayOfSize(int size) {
@@ -843,7 +913,7 @@ public class PacketWrapper<T extends PacketWrapper<T>> {
     }
 
     public long[] readLongArray() {
-        int readableBytes = ByteBufHelper.readableBytes(buffer) / 8;
+        int readableBytes = byteBufOperator().readableBytes(buffer) / 8;
         int size = readVarInt();
         if (size > readableBytes) {
             throw new IllegalStateException("LongArray with size " + size + " is bigger than allowed " + readableBytes);
@@ -1293,7 +1363,7 @@ public class PacketWrapper<T extends PacketWrapper<T>> {
     public <T extends Enum<T>> EnumSet<T> readEnumSet(Class<T> enumClazz) {
         T[] values = enumClazz.getEnumConstants();
         byte[] bytes = new byte[-Math.floorDiv(-values.length, 8)];
-        ByteBufHelper.readBytes(getBuffer(), bytes);
+        byteBufOperator().readBytes(getBuffer(), bytes);
         BitSet bitSet = BitSet.valueOf(bytes);
         EnumSet<T> set = EnumSet.noneOf(enumClazz);
         for (int i = 0; i < values.length; i++) {
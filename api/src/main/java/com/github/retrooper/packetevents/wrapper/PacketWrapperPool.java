@@ -0,0 +1,111 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.wrapper;
+
+import com.github.retrooper.packetevents.event.PacketReceiveEvent;
+import com.github.retrooper.packetevents.event.PacketSendEvent;
+import com.github.retrooper.packetevents.event.ProtocolPacketEvent;
+import org.jetbrains.annotations.ApiStatus;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Wrappers which are reused instead of created for every packet, pooled per thread (so per event loop).
+ * Only wrappers which reset all of their state when reused are pooled, see {@link PacketWrapper#isReusable()}.
+ *
+ * @see ProtocolPacketEvent#acquireWrapper(Class)
+ */
+@ApiStatus.Internal
+public final class PacketWrapperPool {
+    // Events are processed one after another on an event loop, more than a few are only needed for nested events
+    private static final int MAX_POOLED_PER_TYPE = 8;
+
+    private static final ThreadLocal<Map<Class<?>, ArrayDeque<PacketWrapper<?>>>> POOLS =
+            ThreadLocal.withInitial(HashMap::new);
+    private static final ClassValue<Constructor<?>> RECEIVE_CONSTRUCTORS = new EventConstructors(PacketReceiveEvent.class);
+    private static final ClassValue<Constructor<?>> SEND_CONSTRUCTORS = new EventConstructors(PacketSendEvent.class);
+
+    private PacketWrapperPool() {
+    }
+
+    /**
+     * Take a wrapper out of the pool of the current thread and read the packet of the event with it.
+     * A new wrapper is constructed from the event if there is none to reuse.
+     */
+    public static <W extends PacketWrapper<?>> W acquire(ProtocolPacketEvent<?> event, Class<W> wrapperClass) {
+        ArrayDeque<PacketWrapper<?>> pool = POOLS.get().get(wrapperClass);
+        PacketWrapper<?> wrapper = pool != null ? pool.poll() : null;
+        if (wrapper != null) {
+            wrapper.reuse(event);
+            return wrapperClass.cast(wrapper);
+        }
+        Constructor<?> constructor = (event instanceof PacketReceiveEvent ? RECEIVE_CONSTRUCTORS : SEND_CONSTRUCTORS)
+                .get(wrapperClass);
+        try {
+            return wrapperClass.cast(constructor.newInstance(event));
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Failed to read " + event.getPacketType() + " with "
+                    + wrapperClass.getName(), cause);
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new IllegalStateException("Failed to create " + wrapperClass.getName(), e);
+        }
+    }
+
+    /**
+     * Return a wrapper to the pool of the current thread, it may not be used anymore after this.
+     * Wrappers which aren't reusable are left to be collected.
+     */
+    public static void release(PacketWrapper<?> wrapper) {
+        // Don't keep the buffer of the packet alive
+        wrapper.buffer = null;
+        if (!wrapper.isReusable()) {
+            return;
+        }
+        ArrayDeque<PacketWrapper<?>> pool = POOLS.get().computeIfAbsent(wrapper.getClass(), type -> new ArrayDeque<>());
+        if (pool.size() < MAX_POOLED_PER_TYPE) {
+            pool.push(wrapper);
+        }
+    }
+
+    private static final class EventConstructors extends ClassValue<Constructor<?>> {
+        private final Class<?> eventClass;
+
+        private EventConstructors(Class<?> eventClass) {
+            this.eventClass = eventClass;
+        }
+
+        @Override
+        protected Constructor<?> computeValue(Class<?> type) {
+            try {
+                return type.getConstructor(eventClass);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalArgumentException(type.getName() + " can't be created from a "
+                        + eventClass.getSimpleName(), e);
+            }
+        }
+    }
+}
@@ -19,6 +19,7 @@
 package com.github.retrooper.packetevents.wrapper.play.client;
 
 import com.github.retrooper.packetevents.event.PacketReceiveEvent;
+import com.github.retrooper.packetevents.event.ProtocolPacketEvent;
 import com.github.retrooper.packetevents.manager.server.ServerVersion;
 import com.github.retrooper.packetevents.protocol.packettype.PacketType;
 import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
@@ -29,15 +30,20 @@ import com.github.retrooper.packetevents.wrapper.PacketWrapper;
 public class WrapperPlayClientPlayerFlying extends PacketWrapper<WrapperPlayClientPlayerFlying> {
     private boolean positionChanged;
     private boolean rotationChanged;
+    // Only created once requested, until then the primitive fields hold what we read
     private Location location;
+    private double x;
+    private double y;
+    private double z;
+    private float yaw;
+    private float pitch;
     private boolean onGround;
+    // The location this wrapper read itself, reused when the wrapper is pooled
+    private Location readLocation;
 
     public WrapperPlayClientPlayerFlying(PacketReceiveEvent event) {
         super(event, false);
-        positionChanged = event.getPacketType() == PacketType.Play.Client.PLAYER_POSITION ||
-                event.getPacketType() == PacketType.Play.Client.PLAYER_POSITION_AND_ROTATION;
-        rotationChanged = event.getPacketType() == PacketType.Play.Client.PLAYER_ROTATION ||
-                event.getPacketType() == PacketType.Play.Client.PLAYER_POSITION_AND_ROTATION;
+        readChangedFields(event);
         readEvent(event);
     }
 
@@ -58,43 +64,65 @@ public class WrapperPlayClientPlayerFlying extends PacketWrapper<WrapperPlayClie
                 || type == PacketType.Play.Client.PLAYER_POSITION_AND_ROTATION;
     }
 
+    // Every field is assigned by reading, apart from the changed fields which reuse() sets
+    @Override
+    protected boolean isReusable() {
+        return true;
+    }
+
+    @Override
+    protected void reuse(ProtocolPacketEvent<?> event) {
+        readChangedFields(event);
+        super.reuse(event);
+    }
+
+    private void readChangedFields(ProtocolPacketEvent<?> event) {
+        positionChanged = event.getPacketType() == PacketType.Play.Client.PLAYER_POSITION ||
+                event.getPacketType() == PacketType.Play.Client.PLAYER_POSITION_AND_ROTATION;
+        rotationChanged = event.getPacketType() == PacketType.Play.Client.PLAYER_ROTATION ||
+                event.getPacketType() == PacketType.Play.Client.PLAYER_POSITION_AND_ROTATION;
+    }
+
     @Override
     public void read() {
-        Vector3d position = new Vector3d();
-        float yaw = 0.0f;
-        float pitch = 0.0f;
         if (positionChanged) {
-            double x = readDouble();
-            double y = readDouble();
+            x = readDouble();
+            y = readDouble();
             if (serverVersion == ServerVersion.V_1_7_10) {
                 //Can be ignored, cause stance = (y + 1.62)
                 double stance = readDouble();
             }
-            double z = readDouble();
-            position = new Vector3d(x, y, z);
+            z = readDouble();
+        } else {
+            x = 0.0;
+            y = 0.0;
+            z = 0.0;
         }
         if (rotationChanged) {
             yaw = readFloat();
             pitch = readFloat();
+        } else {
+            yaw = 0.0f;
+            pitch = 0.0f;
         }
-        location = new Location(position, yaw, pitch);
+        location = null;
         onGround = readBoolean();
     }
 
     @Override
     public void write() {
         if (positionChanged) {
-            writeDouble(location.getPosition().getX());
+            writeDouble(getX());
             if (serverVersion == ServerVersion.V_1_7_10) {
                 //Can be ignored, cause stance = (y + 1.62)
-                writeDouble(location.getPosition().getY() + 1.62);
+                writeDouble(getY() + 1.62);
             }
-            writeDouble(location.getPosition().getY());
-            writeDouble(location.getPosition().getZ());
+            writeDouble(getY());
+            writeDouble(getZ());
         }
         if (rotationChanged) {
-            writeFloat(location.getYaw());
-            writeFloat(location.getPitch());
+            writeFloat(getYaw());
+            writeFloat(getPitch());
         }
         writeBoolean(onGround);
     }
@@ -104,10 +132,26 @@ public class WrapperPlayClientPlayerFlying extends PacketWrapper<WrapperPlayClie
         positionChanged = wrapper.positionChanged;
         rotationChanged = wrapper.rotationChanged;
         location = wrapper.location;
+        x = wrapper.x;
+        y = wrapper.y;
+        z = wrapper.z;
+        yaw = wrapper.yaw;
+        pitch = wrapper.pitch;
         onGround = wrapper.onGround;
     }
 
     public Location getLocation() {
+        if (location == null) {
+            if (readLocation == null) {
+                readLocation = new Location(x, y, z, yaw, pitch);
+            } else {
+                // Only reached by pooled wrappers, which read more than one packet
+                readLocation.setPosition(new Vector3d(x, y, z));
+                readLocation.setYaw(yaw);
+                readLocation.setPitch(pitch);
+            }
+            location = readLocation;
+        }
         return location;
     }
 
@@ -115,6 +159,30 @@ public class WrapperPlayClientPlayerFlying extends PacketWrapper<WrapperPlayClie
         this.location = location;
     }
 
+    /*
+     * The getters below don't create the location, prefer them if you only need a few of its values.
+     */
+
+    public double getX() {
+        return location != null ? location.getX() : x;
+    }
+
+    public double getY() {
+        return location != null ? location.getY() : y;
+    }
+
+    public double getZ() {
+        return location != null ? location.getZ() : z;
+    }
+
+    public float getYaw() {
+        return location != null ? location.getYaw() : yaw;
+    }
+
+    public float getPitch() {
+        return location != null ? location.getPitch() : pitch;
+    }
+
     public boolean hasPositionChanged() {
         return positionChanged;
     }
@@ -43,18 +43,10 @@ public class WrapperPlayClientPlayerPositionAndRotation extends WrapperPlayClien
         getLocation().setPosition(position);
     }
 
-    public float getYaw() {
-        return getLocation().getYaw();
-    }
-
     public void setYaw(float yaw) {
         getLocation().setYaw(yaw);
     }
 
-    public float getPitch() {
-        return getLocation().getPitch();
-    }
-
     public void setPitch(float pitch) {
         getLocation().setPitch(pitch);
     }
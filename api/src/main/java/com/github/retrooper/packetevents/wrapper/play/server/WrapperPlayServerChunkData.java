@@ -22,6 +22,7 @@ import com.github.retrooper.packetevents.event.PacketSendEvent;
 import com.github.retrooper.packetevents.manager.server.ServerVersion;
 import com.github.retrooper.packetevents.protocol.nbt.NBTCompound;
 import com.github.retrooper.packetevents.protocol.packettype.PacketType;
+import com.github.retrooper.packetevents.protocol.stream.ByteBufferNetStreamInput;
 import com.github.retrooper.packetevents.protocol.stream.NetStreamInput;
 import com.github.retrooper.packetevents.protocol.stream.NetStreamOutput;
 import com.github.retrooper.packetevents.protocol.world.chunk.BaseChunk;
@@ -36,7 +37,6 @@ import com.github.retrooper.packetevents.protocol.world.chunk.reader.ChunkReader
 import com.github.retrooper.packetevents.protocol.world.chunk.reader.impl.*;
 import com.github.retrooper.packetevents.wrapper.PacketWrapper;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.util.Arrays;
 import java.util.BitSet;
@@ -178,8 +178,13 @@ public class WrapperPlayServerChunkData extends PacketWrapper<WrapperPlayServerC
         boolean checkForSky = serverVersion.isNewerThanOrEquals(ServerVersion.V_1_16) || serverVersion.isOlderThanOrEquals(ServerVersion.V_1_8_8) || user.getDimension().getId() == 0;
 
         // 1.7/1.8 don't use this NetStreamInput
-        NetStreamInput dataIn = serverVersion.isNewerThanOrEquals(ServerVersion.V_1_9) ? new NetStreamInput(new ByteArrayInputStream(data)) : null;
-        BaseChunk[] chunks = getChunkReader().read(user.getDimension(), chunkMask, secondaryChunkMask, fullChunk, hasBlocklight, checkForSky, chunkSize, data, dataIn);
+        NetStreamInput dataIn = null;
+        BaseChunk[] chunks = null;
+        // 1.18+ sections are only decoded once they are accessed through the column
+        if (serverVersion.isOlderThan(ServerVersion.V_1_18)) {
+            dataIn = serverVersion.isNewerThanOrEquals(ServerVersion.V_1_9) ? new ByteBufferNetStreamInput(data) : null;
+            chunks = getChunkReader().read(user.getDimension(), chunkMask, secondaryChunkMask, fullChunk, hasBlocklight, checkForSky, chunkSize, data, dataIn);
+        }
 
         if (hasBiomeData && serverVersion.isOlderThan(ServerVersion.V_1_15)) {
             if (serverVersion.isNewerThanOrEquals(ServerVersion.V_1_13)) { // Uses ints
@@ -236,7 +241,9 @@ public class WrapperPlayServerChunkData extends PacketWrapper<WrapperPlayServerC
             }
         }
 
-        if (hasBiomeData) {
+        if (chunks == null) {
+            column = new Column(chunkX, chunkZ, fullChunk, data, chunkSize, tileEntities, heightMaps);
+        } else if (hasBiomeData) {
             if (hasHeightMaps) {
                 if (bytesInsteadOfInts) {
                     column = new Column(chunkX, chunkZ, true, chunks, tileEntities, heightMaps, biomeDataBytes);
@@ -323,14 +330,22 @@ public class WrapperPlayServerChunkData extends PacketWrapper<WrapperPlayServerC
         NetStreamOutput dataOut = new NetStreamOutput(dataBytes);
 
         BitSet chunkMask = new BitSet();
-        BaseChunk[] chunks = column.getChunks();
-
-        if (serverVersion.isNewerThanOrEquals(ServerVersion.V_1_9)) {
+        // Sections which haven't been decoded are copied as they were received
+        byte[] rawChunkData = v1_18 ? column.getRawChunkData() : null;
+        BaseChunk[] chunks = v1_18 ? null : column.getChunks();
+
+        if (v1_18) {
+            if (rawChunkData == null) {
+                for (int index = 0; index < column.getChunkCount(); index++) {
+                    if (!column.writeRawChunk(index, dataBytes)) {
+                        Chunk_v1_18.write(dataOut, (Chunk_v1_18) column.getChunk(index));
+                    }
+                }
+            }
+        } else if (v1_9) {
             for (int index = 0; index < chunks.length; index++) {
                 BaseChunk chunk = chunks[index];
-                if (v1_18) {
-                    Chunk_v1_18.write(dataOut, (Chunk_v1_18) chunk);
-                } else if (v1_9 && chunk != null) {
+                if (chunk != null) {
                     chunkMask.set(index);
                     Chunk_v1_9.write(dataOut, (Chunk_v1_9) chunk);
                 }
@@ -406,7 +421,7 @@ public class WrapperPlayServerChunkData extends PacketWrapper<WrapperPlayServerC
             hasWrittenBiomeData = true;
         }
 
-        byte[] data = dataBytes.toByteArray();
+        byte[] data = rawChunkData != null ? rawChunkData : dataBytes.toByteArray();
         writeByteArray(data);
 
         if (column.hasBiomeData() && !hasWrittenBiomeData) {
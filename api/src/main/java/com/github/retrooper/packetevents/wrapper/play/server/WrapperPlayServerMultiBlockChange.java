@@ -33,6 +33,9 @@ public class WrapperPlayServerMultiBlockChange extends PacketWrapper<WrapperPlay
     //Suppress light
     private Boolean trustEdges;
     private EncodedBlock[] blockData;
+    // What we read, each record is blockId << 16 | localX << 12 | localZ << 8 | localY.
+    // Only one of blockData and records is set, records are turned into blocks once they are requested
+    private long[] records;
 
     public WrapperPlayServerMultiBlockChange(PacketSendEvent event) {
         super(event);
@@ -59,25 +62,23 @@ public class WrapperPlayServerMultiBlockChange extends PacketWrapper<WrapperPlay
                 trustEdges = readBoolean();
             }
 
-            blockData = new EncodedBlock[readVarInt()];
-            for (int i = 0; i < blockData.length; i++) {
-                blockData[i] = new EncodedBlock(chunkPosition, readVarLong());
+            records = new long[readVarInt()];
+            for (int i = 0; i < records.length; i++) {
+                long data = readVarLong();
+                records[i] = (data >>> 12) << 16 | (data & 0xF00L) << 4 | (data & 0xF0L) << 4 | (data & 0xFL);
             }
+            blockData = null;
         } else { // Copied from MCProtocolLib
             int chunkX = readInt();
             int chunkZ = readInt();
             chunkPosition = new Vector3i(chunkX, 0, chunkZ);
-            int len = readVarInt();
-            blockData = new EncodedBlock[len];
-            for (int i = 0; i < len; i++) {
-                short pos = readShort();
-                //chunkX << 4 = chunkX * 16
-                int x = (chunkX << 4) + (pos >> 12 & 15);
-                int y = pos & 255;
-                int z = (chunkZ << 4) + (pos >> 8 & 15);
-                int blockId = readVarInt();
-                this.blockData[i] = new EncodedBlock(blockId, x, y, z);
+            records = new long[readVarInt()];
+            for (int i = 0; i < records.length; i++) {
+                // Same layout as our records, with the whole y coordinate as the chunk y is 0
+                int pos = readShort() & 0xFFFF;
+                records[i] = (long) readVarInt() << 16 | pos;
             }
+            blockData = null;
         }
     }
 
@@ -93,13 +94,28 @@ public class WrapperPlayServerMultiBlockChange extends PacketWrapper<WrapperPlay
                 writeBoolean(Boolean.TRUE.equals(trustEdges));
             }
 
-            writeVarInt(blockData.length);
-            for (EncodedBlock blockDatum : blockData) {
-                writeVarLong(blockDatum.toLong());
+            if (records != null) {
+                writeVarInt(records.length);
+                for (long record : records) {
+                    writeVarLong(record >>> 16 << 12 | (record & 0xF000L) >>> 4 | (record & 0xF00L) >>> 4 | (record & 0xFL));
+                }
+            } else {
+                writeVarInt(blockData.length);
+                for (EncodedBlock blockDatum : blockData) {
+                    writeVarLong(blockDatum.toLong());
+                }
             }
         } else { // Copied from MCProtocolLib
             writeInt(chunkPosition.getX());
             writeInt(chunkPosition.getZ());
+            if (records != null) {
+                writeVarInt(records.length);
+                for (long record : records) {
+                    writeShort((short) record);
+                    writeVarInt((int) (record >>> 16));
+                }
+                return;
+            }
             writeVarInt(this.blockData.length);
             for (EncodedBlock record : blockData) {
                 int x = record.getX() & 0xF;
@@ -116,6 +132,7 @@ public class WrapperPlayServerMultiBlockChange extends PacketWrapper<WrapperPlay
         chunkPosition = wrapper.chunkPosition;
         trustEdges = wrapper.trustEdges;
         blockData = wrapper.blockData;
+        records = wrapper.records;
     }
 
     public Vector3i getChunkPosition() {
@@ -135,11 +152,63 @@ public class WrapperPlayServerMultiBlockChange extends PacketWrapper<WrapperPlay
     }
 
     public EncodedBlock[] getBlocks() {
+        if (blockData == null && records != null) {
+            EncodedBlock[] blocks = new EncodedBlock[records.length];
+            for (int i = 0; i < blocks.length; i++) {
+                blocks[i] = new EncodedBlock(getBlockId(i), getBlockX(i), getBlockY(i), getBlockZ(i));
+            }
+            // The blocks are mutable, so they are what we write from now on
+            blockData = blocks;
+            records = null;
+        }
         return blockData;
     }
 
     public void setBlocks(EncodedBlock[] blocks) {
         this.blockData = blocks;
+        this.records = null;
+    }
+
+    /*
+     * The accessors below read the blocks without creating an EncodedBlock for each of them,
+     * as long as nobody called getBlocks().
+     */
+
+    public int getBlockCount() {
+        return records != null ? records.length : blockData.length;
+    }
+
+    public int getBlockId(int index) {
+        return records != null ? (int) (records[index] >>> 16) : blockData[index].getBlockId();
+    }
+
+    public void setBlockId(int index, int blockId) {
+        if (records != null) {
+            records[index] = (long) blockId << 16 | (records[index] & 0xFFFFL);
+        } else {
+            blockData[index].setBlockId(blockId);
+        }
+    }
+
+    /**
+     * @return Global X position of the block at the index
+     */
+    public int getBlockX(int index) {
+        return records != null ? (chunkPosition.getX() << 4) + (int) (records[index] >>> 12 & 0xF) : blockData[index].getX();
+    }
+
+    /**
+     * @return Global Y position of the block at the index
+     */
+    public int getBlockY(int index) {
+        return records != null ? (chunkPosition.getY() << 4) + (int) (records[index] & 0xFF) : blockData[index].getY();
+    }
+
+    /**
+     * @return Global Z position of the block at the index
+     */
+    public int getBlockZ(int index) {
+        return records != null ? (chunkPosition.getZ() << 4) + (int) (records[index] >>> 8 & 0xF) : blockData[index].getZ();
     }
 
     public static class EncodedBlock {
@@ -0,0 +1,207 @@
+package com.github.retrooper.packetevents.test;
+
+import com.github.retrooper.packetevents.protocol.nbt.NBTCompound;
+import com.github.retrooper.packetevents.protocol.stream.ByteBufferNetStreamInput;
+import com.github.retrooper.packetevents.protocol.stream.NetStreamInput;
+import com.github.retrooper.packetevents.protocol.stream.NetStreamOutput;
+import com.github.retrooper.packetevents.protocol.world.chunk.BaseChunk;
+import com.github.retrooper.packetevents.protocol.world.chunk.ChunkSectionTransformer;
+import com.github.retrooper.packetevents.protocol.world.chunk.Column;
+import com.github.retrooper.packetevents.protocol.world.chunk.impl.v_1_18.Chunk_v1_18;
+import com.github.retrooper.packetevents.protocol.world.chunk.palette.DataPalette;
+import com.github.retrooper.packetevents.protocol.world.chunk.palette.GlobalPalette;
+import com.github.retrooper.packetevents.protocol.world.chunk.palette.PaletteType;
+import com.github.retrooper.packetevents.protocol.world.chunk.palette.SingletonPalette;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Palette edits on encoded sections have to write what decoding, editing and encoding the sections writes
+public class ChunkSectionTransformTest {
+
+    private static final int STONE = 1;
+    private static final int ORE = 5;
+
+    @Test
+    @DisplayName("Test single value palette written in place")
+    public void testSingleValueInPlace() {
+        assertTransformMatches(new Chunk_v1_18[]{singleValue(ORE)}, state -> state == ORE ? STONE : state, true);
+    }
+
+    @Test
+    @DisplayName("Test single value palette growing")
+    public void testSingleValueGrowing() {
+        assertTransformMatches(new Chunk_v1_18[]{singleValue(ORE), singleValue(STONE)},
+                state -> state == ORE ? 70000 : state, true);
+    }
+
+    @Test
+    @DisplayName("Test indirect palette written in place")
+    public void testIndirectInPlace() {
+        assertTransformMatches(new Chunk_v1_18[]{indirect(), indirect()}, state -> state == ORE ? STONE : state, true);
+    }
+
+    @Test
+    @DisplayName("Test indirect palette growing and shrinking")
+    public void testIndirectResized() {
+        // One section grows, the next one shrinks back, everything after them has to move
+        Chunk_v1_18[] sections = {indirect(), singleValue(300), indirect(), direct()};
+        assertTransformMatches(sections, state -> state == ORE ? 300 : state == 300 ? ORE : state, true);
+    }
+
+    @Test
+    @DisplayName("Test direct palette copied as it is")
+    public void testDirect() {
+        Chunk_v1_18[] sections = {direct(), indirect(), direct()};
+        assertInstanceOf(GlobalPalette.class, sections[0].getChunkData().palette);
+        assertTransformMatches(sections, state -> state == ORE ? 20000 : state, true);
+    }
+
+    @Test
+    @DisplayName("Test block count change decoding the section")
+    public void testAirDecodes() {
+        assertTransformMatches(new Chunk_v1_18[]{indirect(), singleValue(ORE)}, state -> state == ORE ? 0 : state, false);
+    }
+
+    @Test
+    @DisplayName("Test section decoded by several threads at once")
+    public void testConcurrentDecode() throws Exception {
+        byte[] data = write(new Chunk_v1_18[]{indirect(), direct()});
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int i = 0; i < 200; i++) {
+                Column column = new Column(0, 0, true, data, 2, null, new NBTCompound());
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<BaseChunk>> chunks = new ArrayList<>();
+                for (int j = 0; j < 4; j++) {
+                    chunks.add(executor.submit(() -> {
+                        start.await();
+                        return column.getChunk(1);
+                    }));
+                }
+                start.countDown();
+                for (Future<BaseChunk> chunk : chunks) {
+                    assertSame(column.getChunk(1), chunk.get());
+                }
+                assertNull(column.getRawChunkData());
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                assertTrue(column.writeRawChunk(0, out));
+                assertFalse(column.writeRawChunk(1, out));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void assertTransformMatches(Chunk_v1_18[] sections, IntUnaryOperator change, boolean staysEncoded) {
+        byte[] data = write(sections);
+
+        // The existing path, decoding every section
+        Chunk_v1_18[] decoded = read(data, sections.length);
+        for (Chunk_v1_18 section : decoded) {
+            if (section.getChunkData().palette instanceof GlobalPalette) {
+                continue;
+            }
+            for (int id = 0; id < section.getChunkData().palette.size(); id++) {
+                int state = section.getChunkData().palette.idToState(id);
+                if (change.applyAsInt(state) != state) {
+                    section.setPaletteState(id, change.applyAsInt(state));
+                }
+            }
+        }
+        byte[] expected = write(decoded);
+
+        Column column = new Column(0, 0, true, data.clone(), sections.length, null, new NBTCompound());
+        column.transformSections(transformer(change));
+        byte[] raw = column.getRawChunkData();
+        if (staysEncoded) {
+            assertNotNull(raw, "Palette edits shouldn't decode the sections");
+            assertArrayEquals(expected, raw);
+        } else {
+            assertNull(raw, "Changing the block count should decode the section");
+            Chunk_v1_18[] chunks = new Chunk_v1_18[sections.length];
+            BaseChunk[] columnChunks = column.getChunks();
+            for (int i = 0; i < chunks.length; i++) {
+                chunks[i] = (Chunk_v1_18) columnChunks[i];
+            }
+            assertArrayEquals(expected, write(chunks));
+        }
+    }
+
+    private static ChunkSectionTransformer transformer(IntUnaryOperator change) {
+        return section -> {
+            for (int id = 0; id < section.getPaletteSize(); id++) {
+                int state = section.getPaletteState(id);
+                if (change.applyAsInt(state) != state) {
+                    section.setPaletteState(id, change.applyAsInt(state));
+                }
+            }
+        };
+    }
+
+    private static Chunk_v1_18 singleValue(int state) {
+        return new Chunk_v1_18(state == 0 ? 0 : 4096, new DataPalette(new SingletonPalette(state), null, PaletteType.CHUNK),
+                DataPalette.createForBiome());
+    }
+
+    // A few states in layers, with some air
+    private static Chunk_v1_18 indirect() {
+        Chunk_v1_18 chunk = new Chunk_v1_18();
+        int[] layers = {STONE, STONE, ORE, 0, 9, STONE, 200, ORE};
+        for (int y = 0; y < 16; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    chunk.set(x, y, z, layers[(x + y + z) % layers.length]);
+                }
+            }
+        }
+        return chunk;
+    }
+
+    // Too many states for a palette
+    private static Chunk_v1_18 direct() {
+        Chunk_v1_18 chunk = new Chunk_v1_18();
+        for (int y = 0; y < 16; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    chunk.set(x, y, z, x == 0 ? ORE : 1 + ((y << 8 | z << 4 | x) % 400));
+                }
+            }
+        }
+        return chunk;
+    }
+
+    private static byte[] write(Chunk_v1_18[] sections) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        NetStreamOutput dataOut = new NetStreamOutput(out);
+        for (Chunk_v1_18 section : sections) {
+            Chunk_v1_18.write(dataOut, section);
+        }
+        return out.toByteArray();
+    }
+
+    private static Chunk_v1_18[] read(byte[] data, int count) {
+        NetStreamInput in = new ByteBufferNetStreamInput(data);
+        Chunk_v1_18[] sections = new Chunk_v1_18[count];
+        for (int i = 0; i < count; i++) {
+            sections[i] = Chunk_v1_18.read(in);
+        }
+        return sections;
+    }
+}
@@ -0,0 +1,236 @@
+package com.github.retrooper.packetevents.test;
+
+import com.github.retrooper.packetevents.netty.buffer.ByteBufInputStream;
+import com.github.retrooper.packetevents.netty.buffer.ByteBufOutputStream;
+import com.github.retrooper.packetevents.protocol.nbt.LazyNBTCompound;
+import com.github.retrooper.packetevents.protocol.nbt.NBT;
+import com.github.retrooper.packetevents.protocol.nbt.NBTByte;
+import com.github.retrooper.packetevents.protocol.nbt.NBTByteArray;
+import com.github.retrooper.packetevents.protocol.nbt.NBTCompound;
+import com.github.retrooper.packetevents.protocol.nbt.NBTDouble;
+import com.github.retrooper.packetevents.protocol.nbt.NBTFloat;
+import com.github.retrooper.packetevents.protocol.nbt.NBTInt;
+import com.github.retrooper.packetevents.protocol.nbt.NBTIntArray;
+import com.github.retrooper.packetevents.protocol.nbt.NBTLimiter;
+import com.github.retrooper.packetevents.protocol.nbt.NBTList;
+import com.github.retrooper.packetevents.protocol.nbt.NBTLong;
+import com.github.retrooper.packetevents.protocol.nbt.NBTLongArray;
+import com.github.retrooper.packetevents.protocol.nbt.NBTShort;
+import com.github.retrooper.packetevents.protocol.nbt.NBTString;
+import com.github.retrooper.packetevents.protocol.nbt.NBTType;
+import com.github.retrooper.packetevents.protocol.nbt.codec.NBTBufferCodec;
+import com.github.retrooper.packetevents.protocol.nbt.serializer.DefaultNBTSerializer;
+import com.github.retrooper.packetevents.test.base.BaseDummyAPITest;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The buffer codec has to write and read exactly what the stream serializer does, lazily read compounds included
+public class NBTCodecTest extends BaseDummyAPITest {
+
+    @Test
+    @DisplayName("Test named compound identical to the stream serializer")
+    public void testNamed() throws IOException {
+        assertRoundTrip(compound(), true);
+    }
+
+    @Test
+    @DisplayName("Test nameless compound identical to the stream serializer")
+    public void testNameless() throws IOException {
+        assertRoundTrip(compound(), false);
+    }
+
+    @Test
+    @DisplayName("Test strings identical to the stream serializer")
+    public void testStrings() throws IOException {
+        String[] strings = {"", "plain ascii", "null \0 char", "umlaut \u00e4\u00f6\u00fc", "\u20ac euro",
+                "emoji \ud83d\ude00 pair", "lone \ud800 surrogate", repeat('a', 0xFFFF), repeat('\u00e4', 0x7FFF)};
+        for (String string : strings) {
+            NBTCompound compound = new NBTCompound();
+            compound.setTag(string, new NBTString(string));
+            assertRoundTrip(compound, true);
+            assertRoundTrip(new NBTString(string), false);
+        }
+    }
+
+    @Test
+    @DisplayName("Test too long ascii string")
+    public void testTooLongAscii() {
+        assertTooLong(repeat('a', 0x10000));
+    }
+
+    @Test
+    @DisplayName("Test too long non ascii string")
+    public void testTooLongNonAscii() {
+        assertTooLong(repeat('\u00e4', 0x8000));
+    }
+
+    @Test
+    @DisplayName("Test lazy compound accounted like reading it")
+    public void testLazyLimiter() throws IOException {
+        for (boolean named : new boolean[]{true, false}) {
+            ByteBuf buffer = Unpooled.buffer();
+            try {
+                NBTBufferCodec.write(buffer, compound(), named);
+                CountingLimiter eager = new CountingLimiter(buffer);
+                NBTBufferCodec.read(buffer.duplicate(), eager, named);
+                CountingLimiter lazy = new CountingLimiter(buffer);
+                NBT tag = NBTBufferCodec.readLazy(buffer.duplicate(), lazy, named);
+                assertInstanceOf(LazyNBTCompound.class, tag);
+                assertEquals(eager.counted, lazy.counted);
+
+                assertThrows(IllegalArgumentException.class, () -> NBTBufferCodec.readLazy(buffer.duplicate(),
+                        new NBTLimiter(buffer, eager.counted - 1), named));
+            } finally {
+                buffer.release();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test lazy compound payload not exposed")
+    public void testLazyPayloadCopy() throws IOException {
+        LazyNBTCompound compound = readLazy(compound());
+        byte[] payload = compound.getPayload();
+        assertNotNull(payload);
+        Arrays.fill(payload, (byte) 0);
+        assertEquals(compound(), compound);
+    }
+
+    @Test
+    @DisplayName("Test lazy compound parsed by several threads at once")
+    public void testLazyConcurrentParse() throws Exception {
+        NBTCompound expected = compound();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int i = 0; i < 200; i++) {
+                LazyNBTCompound compound = readLazy(expected);
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Integer>> sizes = new ArrayList<>();
+                for (int j = 0; j < 4; j++) {
+                    sizes.add(executor.submit(() -> {
+                        start.await();
+                        return compound.getTags().size();
+                    }));
+                }
+                start.countDown();
+                for (Future<Integer> size : sizes) {
+                    assertEquals(expected.size(), size.get());
+                }
+                assertTrue(compound.isParsed());
+                assertNull(compound.getPayload());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static LazyNBTCompound readLazy(NBTCompound compound) throws IOException {
+        ByteBuf buffer = Unpooled.buffer();
+        try {
+            NBTBufferCodec.write(buffer, compound, false);
+            return (LazyNBTCompound) NBTBufferCodec.readLazy(buffer, new NBTLimiter(buffer, 2097152), false);
+        } finally {
+            buffer.release();
+        }
+    }
+
+    private static void assertTooLong(String string) {
+        ByteBuf buffer = Unpooled.buffer();
+        try {
+            assertThrows(UTFDataFormatException.class,
+                    () -> NBTBufferCodec.write(buffer, new NBTString(string), false));
+        } finally {
+            buffer.release();
+        }
+    }
+
+    private static void assertRoundTrip(NBT tag, boolean named) throws IOException {
+        ByteBuf expected = Unpooled.buffer();
+        ByteBuf actual = Unpooled.buffer();
+        try {
+            DefaultNBTSerializer.INSTANCE.serializeTag(new ByteBufOutputStream(expected), tag, named);
+            NBTBufferCodec.write(actual, tag, named);
+            assertEquals(ByteBufUtil.hexDump(expected), ByteBufUtil.hexDump(actual));
+
+            NBT read = NBTBufferCodec.read(actual, new NBTLimiter(actual, 2097152), named);
+            NBT streamRead = DefaultNBTSerializer.INSTANCE.deserializeTag(
+                    new NBTLimiter(expected, 2097152), new ByteBufInputStream(expected), named);
+            assertEquals(tag, read);
+            assertEquals(streamRead, read);
+            assertEquals(0, actual.readableBytes());
+        } finally {
+            expected.release();
+            actual.release();
+        }
+    }
+
+    private static NBTCompound compound() {
+        NBTCompound nested = new NBTCompound();
+        nested.setTag("id", new NBTString("minecraft:diamond_sword"));
+        nested.setTag("Count", new NBTByte((byte) 1));
+
+        NBTList<NBTInt> ints = new NBTList<>(NBTType.INT);
+        for (int i = 0; i < 8; i++) {
+            ints.addTag(new NBTInt(i * 31));
+        }
+        NBTList<NBTCompound> compounds = new NBTList<>(NBTType.COMPOUND);
+        compounds.addTag(nested);
+        compounds.addTag(new NBTCompound());
+
+        NBTCompound compound = new NBTCompound();
+        compound.setTag("byte", new NBTByte((byte) -3));
+        compound.setTag("short", new NBTShort((short) 12345));
+        compound.setTag("int", new NBTInt(Integer.MIN_VALUE));
+        compound.setTag("long", new NBTLong(Long.MAX_VALUE));
+        compound.setTag("float", new NBTFloat(1.5F));
+        compound.setTag("double", new NBTDouble(-0.25D));
+        compound.setTag("bytes", new NBTByteArray(new byte[]{1, 2, 3, -1}));
+        compound.setTag("ints", new NBTIntArray(new int[]{7, -8, 9}));
+        compound.setTag("longs", new NBTLongArray(new long[]{1L << 40, -1L}));
+        compound.setTag("string", new NBTString("Sch\u00e4rfe \u2013 \ud83d\udde1"));
+        compound.setTag("intList", ints);
+        compound.setTag("compoundList", compounds);
+        compound.setTag("emptyList", new NBTList<>(NBTType.STRING));
+        compound.setTag("nested", nested);
+        return compound;
+    }
+
+    private static final class CountingLimiter extends NBTLimiter {
+        private int counted;
+
+        private CountingLimiter(Object buffer) {
+            super(buffer, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public void increment(int amount) {
+            counted += amount;
+        }
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+}
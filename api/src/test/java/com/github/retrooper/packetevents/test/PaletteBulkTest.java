@@ -0,0 +1,218 @@
+package com.github.retrooper.packetevents.test;
+
+import com.github.retrooper.packetevents.protocol.world.chunk.palette.DataPalette;
+import com.github.retrooper.packetevents.protocol.world.chunk.palette.GlobalPalette;
+import com.github.retrooper.packetevents.protocol.world.chunk.palette.ListPalette;
+import com.github.retrooper.packetevents.protocol.world.chunk.palette.PaletteType;
+import com.github.retrooper.packetevents.protocol.world.chunk.palette.SingletonPalette;
+import com.github.retrooper.packetevents.protocol.world.chunk.storage.BaseStorage;
+import com.github.retrooper.packetevents.protocol.world.chunk.storage.BitStorage;
+import com.github.retrooper.packetevents.protocol.world.chunk.storage.LegacyFlexibleStorage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// The bulk storage and palette operations have to leave the same data behind as doing the same block by block
+public class PaletteBulkTest {
+
+    // The amounts of states around each palette resize: singleton, list palette, map palette, global palette
+    private static final int[] CHUNK_STATE_COUNTS = {1, 2, 16, 17, 256, 257, 600};
+    private static final int[] BIOME_STATE_COUNTS = {1, 2, 8, 9, 40};
+
+    @Test
+    @DisplayName("Test aligned storage bulk operations")
+    public void testBitStorage() {
+        for (int size : new int[]{64, 4096}) {
+            for (int bitsPerEntry = 1; bitsPerEntry <= 31; bitsPerEntry++) {
+                assertStorageMatches(new BitStorage(bitsPerEntry, size), new BitStorage(bitsPerEntry, size), size);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test legacy storage bulk operations")
+    public void testLegacyStorage() {
+        for (int bitsPerEntry = 4; bitsPerEntry <= 15; bitsPerEntry++) {
+            assertStorageMatches(new LegacyFlexibleStorage(bitsPerEntry, 4096),
+                    new LegacyFlexibleStorage(bitsPerEntry, 4096), 4096);
+        }
+    }
+
+    @Test
+    @DisplayName("Test chunk palette bulk operations")
+    public void testChunkPalette() {
+        for (int stateCount : CHUNK_STATE_COUNTS) {
+            assertPaletteMatches(PaletteType.CHUNK, stateCount, false);
+            assertPaletteMatches(PaletteType.CHUNK, stateCount, true);
+        }
+    }
+
+    @Test
+    @DisplayName("Test biome palette bulk operations")
+    public void testBiomePalette() {
+        for (int stateCount : BIOME_STATE_COUNTS) {
+            assertPaletteMatches(PaletteType.BIOME, stateCount, false);
+        }
+    }
+
+    @Test
+    @DisplayName("Test palette states colliding in the id map")
+    public void testStateIdCollisions() {
+        // All of these land in the same slot of the initial table, and there are enough of them to grow it
+        int[] colliding = new int[40];
+        for (int state = 1, found = 0; found < colliding.length; state++) {
+            if ((state * 0x9E3779B9) >>> 26 == 0) {
+                colliding[found++] = state;
+            }
+        }
+        int[] states = new int[PaletteType.CHUNK.getStorageSize()];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = colliding[(i * 7) % colliding.length];
+        }
+        DataPalette palette = DataPalette.createForChunk();
+        palette.setAll(states);
+
+        assertEquals(colliding.length, palette.palette.size());
+        for (int id = 0; id < colliding.length; id++) {
+            // Ids are handed out in the order the states first appear in
+            assertEquals(colliding[(id * 7) % colliding.length], palette.palette.idToState(id));
+        }
+        assertStates(states, palette);
+    }
+
+    private static void assertStorageMatches(BaseStorage bulk, BaseStorage each, int size) {
+        int bitsPerEntry = bulk.getBitsPerEntry();
+        Random random = new Random(bitsPerEntry * 31L + size);
+        int[] values = new int[size];
+        for (int i = 0; i < size; i++) {
+            // Mostly a few values, so there is something to count and replace
+            values[i] = random.nextInt(4) != 0 ? random.nextInt((int) Math.min(4, 1L << bitsPerEntry))
+                    : random.nextInt() >>> (32 - bitsPerEntry);
+        }
+
+        bulk.setAll(values);
+        for (int i = 0; i < size; i++) {
+            each.set(i, values[i]);
+        }
+        assertArrayEquals(each.getData(), bulk.getData(), "setAll with " + bitsPerEntry + " bits");
+
+        int[] read = new int[size];
+        bulk.getAll(read);
+        for (int i = 0; i < size; i++) {
+            assertEquals(each.get(i), read[i], "getAll with " + bitsPerEntry + " bits");
+        }
+
+        int max = (int) ((1L << bitsPerEntry) - 1);
+        for (int value : new int[]{0, 1, max}) {
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (each.get(i) == value) {
+                    count++;
+                }
+            }
+            assertEquals(count, bulk.count(value), "count with " + bitsPerEntry + " bits");
+        }
+
+        int from = values[0];
+        int to = max;
+        int replaced = 0;
+        for (int i = 0; i < size; i++) {
+            if (each.get(i) == from) {
+                each.set(i, to);
+                replaced++;
+            }
+        }
+        assertEquals(replaced, bulk.replaceAll(from, to), "replaceAll with " + bitsPerEntry + " bits");
+        assertArrayEquals(each.getData(), bulk.getData(), "replaceAll with " + bitsPerEntry + " bits");
+    }
+
+    private static void assertPaletteMatches(PaletteType type, int stateCount, boolean legacy) {
+        String name = type + " palette with " + stateCount + " states" + (legacy ? ", legacy" : "");
+        int size = type.getStorageSize();
+        int[] states = new int[size];
+        for (int i = 0; i < size; i++) {
+            // Runs of the same state, like layers of a real section
+            states[i] = 1 + ((i / 3) % stateCount) * 37;
+        }
+
+        DataPalette bulk = create(type, legacy);
+        DataPalette each = create(type, legacy);
+        bulk.setAll(states);
+        for (int i = 0; i < size; i++) {
+            set(each, type, i, states[i]);
+        }
+        assertStates(states, bulk);
+        assertStates(states, each);
+        if (stateCount == 1 && !legacy) {
+            assertInstanceOf(SingletonPalette.class, bulk.palette, name);
+            assertNull(bulk.storage, name);
+        } else {
+            assertEquals(each.palette.getClass(), bulk.palette.getClass(), name);
+            assertEquals(each.storage.getBitsPerEntry(), bulk.storage.getBitsPerEntry(), name);
+        }
+
+        for (int state : new int[]{states[0], states[size - 1], -5}) {
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (states[i] == state) {
+                    count++;
+                }
+            }
+            assertEquals(count, bulk.count(state), name);
+            assertEquals(count, each.count(state), name);
+        }
+
+        // Replacing with a state which isn't in the palette yet, which has to grow a full one
+        int from = states[size - 1];
+        int to = 30000;
+        int replaced = 0;
+        for (int i = 0; i < size; i++) {
+            if (states[i] == from) {
+                states[i] = to;
+                set(each, type, i, to);
+                replaced++;
+            }
+        }
+        assertEquals(replaced, bulk.replaceAll(from, to), name);
+        assertStates(states, bulk);
+        assertStates(states, each);
+        assertEquals(0, bulk.count(from), name);
+        assertEquals(replaced, bulk.count(to), name);
+    }
+
+    private static DataPalette create(PaletteType type, boolean legacy) {
+        if (!legacy) {
+            return DataPalette.createEmpty(type);
+        }
+        return new DataPalette(new ListPalette(type.getMinBitsPerEntry()),
+                new LegacyFlexibleStorage(type.getMinBitsPerEntry(), type.getStorageSize()), type);
+    }
+
+    // Biome palettes are 4x4x4, but are indexed the same way as blocks
+    private static void set(DataPalette palette, PaletteType type, int index, int state) {
+        if (type == PaletteType.CHUNK) {
+            palette.set(index & 15, index >> 8, (index >> 4) & 15, state);
+        } else {
+            palette.set(index & 15, 0, index >> 4, state);
+        }
+    }
+
+    private static void assertStates(int[] states, DataPalette palette) {
+        int[] read = new int[states.length];
+        palette.getAll(read);
+        assertArrayEquals(states, read);
+        if (palette.storage != null) {
+            for (int i = 0; i < states.length; i++) {
+                int id = palette.storage.get(i);
+                int state = palette.palette instanceof GlobalPalette ? id : palette.palette.idToState(id);
+                assertEquals(states[i], state);
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.github.retrooper.packetevents.test;
+
+import com.github.retrooper.packetevents.protocol.nbt.NBTCompound;
+import com.github.retrooper.packetevents.protocol.nbt.NBTInt;
+import com.github.retrooper.packetevents.protocol.nbt.NBTString;
+import com.github.retrooper.packetevents.protocol.world.WorldNBTIndex;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class WorldNBTIndexTest {
+
+    @Test
+    @DisplayName("Test shared index unaffected by edits of the first user")
+    public void testEditsNotShared() {
+        List<NBTCompound> first = entries();
+        WorldNBTIndex index = WorldNBTIndex.of(first);
+        int hashCode = index.hashCode();
+
+        first.get(0).setTag("name", new NBTString("minecraft:edited"));
+        first.get(1).getCompoundTagOrNull("element").setTag("min_y", new NBTInt(0));
+
+        assertEquals(hashCode, index.hashCode());
+        assertEquals("minecraft:overworld", index.get(0).getStringTagValueOrNull("name"));
+        assertEquals(-64, index.get("minecraft:the_nether").getCompoundTagOrNull("element")
+                .getNumberTagOrNull("min_y").getAsInt());
+        assertSame(index, WorldNBTIndex.of(entries()));
+    }
+
+    private static List<NBTCompound> entries() {
+        List<NBTCompound> entries = new ArrayList<>();
+        String[] names = {"minecraft:overworld", "minecraft:the_nether", "minecraft:the_end"};
+        for (int id = 0; id < names.length; id++) {
+            NBTCompound element = new NBTCompound();
+            element.setTag("min_y", new NBTInt(-64));
+            NBTCompound entry = new NBTCompound();
+            entry.setTag("name", new NBTString(names[id]));
+            entry.setTag("id", new NBTInt(id));
+            entry.setTag("element", element);
+            entries.add(entry);
+        }
+        return entries;
+    }
+}
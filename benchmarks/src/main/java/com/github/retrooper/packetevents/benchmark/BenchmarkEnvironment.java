@@ -0,0 +1,156 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.benchmark;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.PacketEventsAPI;
+import com.github.retrooper.packetevents.event.ProtocolPacketEvent;
+import com.github.retrooper.packetevents.injector.ChannelInjector;
+import com.github.retrooper.packetevents.manager.server.ServerVersion;
+import com.github.retrooper.packetevents.protocol.ConnectionState;
+import com.github.retrooper.packetevents.protocol.PacketSide;
+import com.github.retrooper.packetevents.protocol.ProtocolVersion;
+import com.github.retrooper.packetevents.protocol.player.ClientVersion;
+import com.github.retrooper.packetevents.protocol.player.User;
+import com.github.retrooper.packetevents.protocol.player.UserProfile;
+import com.github.retrooper.packetevents.settings.PacketEventsSettings;
+import com.github.retrooper.packetevents.util.EventCreationUtil;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import io.github.retrooper.packetevents.impl.netty.BuildData;
+import io.github.retrooper.packetevents.impl.netty.factory.NettyPacketEventsBuilder;
+import io.github.retrooper.packetevents.impl.netty.manager.player.PlayerManagerAbstract;
+import io.github.retrooper.packetevents.impl.netty.manager.protocol.ProtocolManagerAbstract;
+import io.github.retrooper.packetevents.impl.netty.manager.server.ServerManagerAbstract;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+
+/**
+ * A play state connection of the latest version on top of an {@link EmbeddedChannel},
+ * backed by a headless packetevents instance which never touches a real server.
+ */
+public final class BenchmarkEnvironment {
+    private final EmbeddedChannel channel = new EmbeddedChannel();
+    private final User user;
+
+    public BenchmarkEnvironment() {
+        bootstrap();
+        this.user = new User(channel, ConnectionState.PLAY, getVersion(),
+                new UserProfile(UUID.randomUUID(), "Benchmark"));
+        // Overworld heights of 1.18 and above
+        user.setMinWorldHeight(-64);
+        user.setTotalWorldHeight(384);
+    }
+
+    public static ClientVersion getVersion() {
+        return ServerVersion.getLatest().toClientVersion();
+    }
+
+    private static synchronized void bootstrap() {
+        if (PacketEvents.getAPI() != null) {
+            return;
+        }
+        ChannelInjector injector = new ChannelInjector() {
+            @Override
+            public void inject() {
+            }
+
+            @Override
+            public void uninject() {
+            }
+
+            @Override
+            public void updateUser(Object channel, User user) {
+            }
+
+            @Override
+            public void setPlayer(Object channel, Object player) {
+            }
+
+            @Override
+            public boolean isProxy() {
+                return false;
+            }
+        };
+        ProtocolManagerAbstract protocolManager = new ProtocolManagerAbstract() {
+            @Override
+            public ProtocolVersion getPlatformVersion() {
+                return ProtocolVersion.UNKNOWN;
+            }
+        };
+        ServerManagerAbstract serverManager = new ServerManagerAbstract() {
+            @Override
+            public ServerVersion getVersion() {
+                return ServerVersion.getLatest();
+            }
+        };
+        PlayerManagerAbstract playerManager = new PlayerManagerAbstract() {
+            @Override
+            public int getPing(@NotNull Object player) {
+                return 0;
+            }
+
+            @Override
+            public Object getChannel(@NotNull Object player) {
+                return player;
+            }
+        };
+        PacketEventsSettings settings = new PacketEventsSettings().checkForUpdates(false).bStats(false);
+        PacketEventsAPI<BuildData> api = NettyPacketEventsBuilder.buildNoCache(new BuildData("benchmark"),
+                injector, protocolManager, serverManager, playerManager, settings);
+        PacketEvents.setAPI(api);
+        api.load();
+        api.init();
+    }
+
+    public EmbeddedChannel getChannel() {
+        return channel;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    /**
+     * Encode the wrapper the way it would be sent to (or received from) this connection, packet ID included.
+     *
+     * @param wrapper  Wrapper to encode
+     * @param outgoing Whether the packet is clientbound
+     * @return A new heap buffer holding the encoded packet
+     */
+    public ByteBuf encode(PacketWrapper<?> wrapper, boolean outgoing) {
+        ByteBuf buffer = Unpooled.buffer();
+        wrapper.buffer = buffer;
+        wrapper.prepareForSend(channel, outgoing, false);
+        return buffer;
+    }
+
+    /**
+     * Create the event packetevents would create for the encoded packet.
+     * The reader index of the buffer is left behind the packet ID.
+     */
+    public ProtocolPacketEvent<Object> createEvent(PacketSide side, ByteBuf buffer) throws Exception {
+        return side == PacketSide.SERVER
+                ? EventCreationUtil.createSendEvent(channel, user, null, buffer, false)
+                : EventCreationUtil.createReceiveEvent(channel, user, null, buffer, false);
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.benchmark;
+
+import com.github.retrooper.packetevents.event.PacketReceiveEvent;
+import com.github.retrooper.packetevents.event.PacketSendEvent;
+import com.github.retrooper.packetevents.event.ProtocolPacketEvent;
+import com.github.retrooper.packetevents.protocol.PacketSide;
+import com.github.retrooper.packetevents.protocol.entity.data.EntityData;
+import com.github.retrooper.packetevents.protocol.entity.data.EntityDataTypes;
+import com.github.retrooper.packetevents.protocol.nbt.NBTCompound;
+import com.github.retrooper.packetevents.protocol.nbt.NBTLongArray;
+import com.github.retrooper.packetevents.protocol.packettype.PacketType;
+import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
+import com.github.retrooper.packetevents.protocol.player.GameMode;
+import com.github.retrooper.packetevents.protocol.player.TextureProperty;
+import com.github.retrooper.packetevents.protocol.player.UserProfile;
+import com.github.retrooper.packetevents.protocol.stream.NetStreamOutput;
+import com.github.retrooper.packetevents.protocol.world.chunk.impl.v_1_18.Chunk_v1_18;
+import com.github.retrooper.packetevents.util.Vector3d;
+import com.github.retrooper.packetevents.util.Vector3i;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import com.github.retrooper.packetevents.wrapper.play.client.WrapperPlayClientPlayerPositionAndRotation;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerChunkData;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerEntityMetadata;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerMultiBlockChange;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerPlayerInfoUpdate;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * The packets measured by the wrapper benchmarks, each with a representative sample.
+ */
+public enum BenchmarkPacket {
+    CHUNK_DATA(PacketSide.SERVER, PacketType.Play.Server.CHUNK_DATA, WrapperPlayServerChunkData.class) {
+        @Override
+        ByteBuf encodeSample(BenchmarkEnvironment environment) {
+            // Chunk data can't be built from scratch on 1.18+ as the light data isn't exposed, encode it by hand
+            ByteBuf buffer = Unpooled.buffer();
+            PacketWrapper<?> wrapper = PacketWrapper.createUniversalPacketWrapper(buffer);
+            wrapper.writeVarInt(getPacketType().getId(BenchmarkEnvironment.getVersion()));
+            wrapper.writeInt(12);
+            wrapper.writeInt(-7);
+
+            NBTCompound heightMaps = new NBTCompound();
+            long[] heights = new long[37];
+            Arrays.fill(heights, 0x2010080402010080L);
+            heightMaps.setTag("MOTION_BLOCKING", new NBTLongArray(heights));
+            heightMaps.setTag("WORLD_SURFACE", new NBTLongArray(heights.clone()));
+            wrapper.writeNBT(heightMaps);
+
+            int sections = environment.getUser().getTotalWorldHeight() >> 4;
+            wrapper.writeByteArray(encodeSections(sections));
+            // No block entities
+            wrapper.writeVarInt(0);
+
+            // Full sky light (including the sections above and below the world), no block light
+            int lightSections = sections + 2;
+            long[] allSections = new long[]{(1L << lightSections) - 1};
+            wrapper.writeLongArray(allSections);
+            wrapper.writeLongArray(new long[0]);
+            wrapper.writeLongArray(new long[0]);
+            wrapper.writeLongArray(allSections);
+            wrapper.writeVarInt(lightSections);
+            byte[] light = new byte[2048];
+            Arrays.fill(light, (byte) 0xFF);
+            for (int i = 0; i < lightSections; i++) {
+                wrapper.writeByteArray(light);
+            }
+            wrapper.writeVarInt(0);
+            return buffer;
+        }
+
+        @Override
+        PacketWrapper<?> read(ProtocolPacketEvent<?> event) {
+            return new WrapperPlayServerChunkData((PacketSendEvent) event);
+        }
+    },
+    ENTITY_METADATA(PacketSide.SERVER, PacketType.Play.Server.ENTITY_METADATA,
+            WrapperPlayServerEntityMetadata.class) {
+        @Override
+        ByteBuf encodeSample(BenchmarkEnvironment environment) {
+            List<EntityData> metadata = new ArrayList<>();
+            metadata.add(new EntityData(0, EntityDataTypes.BYTE, (byte) 0x08));
+            metadata.add(new EntityData(1, EntityDataTypes.INT, 300));
+            metadata.add(new EntityData(2, EntityDataTypes.OPTIONAL_ADV_COMPONENT,
+                    Optional.of(Component.text("Benchmark", NamedTextColor.GOLD))));
+            metadata.add(new EntityData(3, EntityDataTypes.BOOLEAN, true));
+            metadata.add(new EntityData(4, EntityDataTypes.BOOLEAN, false));
+            metadata.add(new EntityData(5, EntityDataTypes.BOOLEAN, false));
+            metadata.add(new EntityData(8, EntityDataTypes.BYTE, (byte) 0));
+            metadata.add(new EntityData(9, EntityDataTypes.FLOAT, 20.0F));
+            metadata.add(new EntityData(10, EntityDataTypes.INT, 0));
+            metadata.add(new EntityData(11, EntityDataTypes.BOOLEAN, false));
+            metadata.add(new EntityData(12, EntityDataTypes.INT, 0));
+            return environment.encode(new WrapperPlayServerEntityMetadata(4096, metadata), true);
+        }
+
+        @Override
+        PacketWrapper<?> read(ProtocolPacketEvent<?> event) {
+            return new WrapperPlayServerEntityMetadata((PacketSendEvent) event);
+        }
+    },
+    MULTI_BLOCK_CHANGE(PacketSide.SERVER, PacketType.Play.Server.MULTI_BLOCK_CHANGE,
+            WrapperPlayServerMultiBlockChange.class) {
+        @Override
+        ByteBuf encodeSample(BenchmarkEnvironment environment) {
+            // A whole section replaced at once, like a world edit does
+            WrapperPlayServerMultiBlockChange.EncodedBlock[] blocks = new WrapperPlayServerMultiBlockChange.EncodedBlock[4096];
+            for (int i = 0; i < blocks.length; i++) {
+                blocks[i] = new WrapperPlayServerMultiBlockChange.EncodedBlock(1 + i % 400,
+                        48 + (i & 0xF), 64 + (i >> 8 & 0xF), -112 + (i >> 4 & 0xF));
+            }
+            return environment.encode(new WrapperPlayServerMultiBlockChange(new Vector3i(3, 4, -7), true, blocks), true);
+        }
+
+        @Override
+        PacketWrapper<?> read(ProtocolPacketEvent<?> event) {
+            return new WrapperPlayServerMultiBlockChange((PacketSendEvent) event);
+        }
+    },
+    PLAYER_POSITION_AND_ROTATION(PacketSide.CLIENT, PacketType.Play.Client.PLAYER_POSITION_AND_ROTATION,
+            WrapperPlayClientPlayerPositionAndRotation.class) {
+        @Override
+        ByteBuf encodeSample(BenchmarkEnvironment environment) {
+            return environment.encode(new WrapperPlayClientPlayerPositionAndRotation(
+                    new Vector3d(128.5, 64.0, -256.25), 90.0F, 12.5F, true), false);
+        }
+
+        @Override
+        PacketWrapper<?> read(ProtocolPacketEvent<?> event) {
+            return new WrapperPlayClientPlayerPositionAndRotation((PacketReceiveEvent) event);
+        }
+    },
+    PLAYER_INFO_UPDATE(PacketSide.SERVER, PacketType.Play.Server.PLAYER_INFO_UPDATE,
+            WrapperPlayServerPlayerInfoUpdate.class) {
+        @Override
+        ByteBuf encodeSample(BenchmarkEnvironment environment) {
+            // A player joining a server with a few others online
+            char[] texture = new char[600];
+            Arrays.fill(texture, 'e');
+            char[] signature = new char[684];
+            Arrays.fill(signature, 's');
+            List<WrapperPlayServerPlayerInfoUpdate.PlayerInfo> entries = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                UserProfile profile = new UserProfile(new UUID(i, i), "Player" + i, Collections.singletonList(
+                        new TextureProperty("textures", new String(texture), new String(signature))));
+                entries.add(new WrapperPlayServerPlayerInfoUpdate.PlayerInfo(profile, true, 20 + i, GameMode.SURVIVAL,
+                        Component.text("Player" + i, NamedTextColor.GRAY), null));
+            }
+            EnumSet<WrapperPlayServerPlayerInfoUpdate.Action> actions = EnumSet.of(
+                    WrapperPlayServerPlayerInfoUpdate.Action.ADD_PLAYER,
+                    WrapperPlayServerPlayerInfoUpdate.Action.UPDATE_GAME_MODE,
+                    WrapperPlayServerPlayerInfoUpdate.Action.UPDATE_LISTED,
+                    WrapperPlayServerPlayerInfoUpdate.Action.UPDATE_LATENCY,
+                    WrapperPlayServerPlayerInfoUpdate.Action.UPDATE_DISPLAY_NAME);
+            return environment.encode(new WrapperPlayServerPlayerInfoUpdate(actions, entries), true);
+        }
+
+        @Override
+        PacketWrapper<?> read(ProtocolPacketEvent<?> event) {
+            return new WrapperPlayServerPlayerInfoUpdate((PacketSendEvent) event);
+        }
+    };
+
+    private final PacketSide side;
+    private final PacketTypeCommon packetType;
+    private final Class<? extends PacketWrapper<?>> wrapperClass;
+
+    BenchmarkPacket(PacketSide side, PacketTypeCommon packetType, Class<? extends PacketWrapper<?>> wrapperClass) {
+        this.side = side;
+        this.packetType = packetType;
+        this.wrapperClass = wrapperClass;
+    }
+
+    public PacketSide getSide() {
+        return side;
+    }
+
+    public PacketTypeCommon getPacketType() {
+        return packetType;
+    }
+
+    public Class<? extends PacketWrapper<?>> getWrapperClass() {
+        return wrapperClass;
+    }
+
+    /**
+     * Encode the 1.18+ sections of a sample chunk, terrain in the lower half and air above.
+     */
+    static byte[] encodeSections(int sections) {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        NetStreamOutput dataOut = new NetStreamOutput(data);
+        for (int section = 0; section < sections; section++) {
+            Chunk_v1_18 chunk = new Chunk_v1_18();
+            if (section < sections / 2) {
+                for (int y = 0; y < 16; y++) {
+                    for (int z = 0; z < 16; z++) {
+                        for (int x = 0; x < 16; x++) {
+                            chunk.set(x, y, z, 1 + (x * 31 + z * 17 + y * 7 + section) % 12);
+                        }
+                    }
+                }
+            }
+            Chunk_v1_18.write(dataOut, chunk);
+        }
+        return data.toByteArray();
+    }
+
+    /**
+     * Encode the sample of this packet, packet ID included.
+     */
+    abstract ByteBuf encodeSample(BenchmarkEnvironment environment);
+
+    /**
+     * Read the packet of the event through its wrapper.
+     */
+    abstract PacketWrapper<?> read(ProtocolPacketEvent<?> event);
+}
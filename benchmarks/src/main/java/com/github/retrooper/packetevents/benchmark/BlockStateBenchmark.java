@@ -0,0 +1,98 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.benchmark;
+
+import com.github.retrooper.packetevents.protocol.player.ClientVersion;
+import com.github.retrooper.packetevents.protocol.world.BlockFace;
+import com.github.retrooper.packetevents.protocol.world.states.WrappedBlockState;
+import com.github.retrooper.packetevents.protocol.world.states.type.StateType;
+import com.github.retrooper.packetevents.protocol.world.states.type.StateTypes;
+import com.github.retrooper.packetevents.protocol.world.states.type.StateValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures block state lookups and property changes, as done by anticheats for every block they look at.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlockStateBenchmark {
+    @Param({"V_1_12_2", "V_1_20_5"})
+    public ClientVersion version;
+
+    private int[] globalIds;
+    private WrappedBlockState door;
+
+    @Setup
+    public void setup() {
+        new BenchmarkEnvironment();
+        door = WrappedBlockState.getDefaultState(version, StateTypes.OAK_DOOR, false);
+        // The states of a few hundred different blocks
+        List<StateType> types = new ArrayList<>(StateTypes.values());
+        globalIds = new int[256];
+        for (int i = 0; i < globalIds.length; i++) {
+            globalIds[i] = WrappedBlockState.getDefaultState(version, types.get(i * 3), false).getGlobalId();
+        }
+    }
+
+    @Benchmark
+    public void getByGlobalId(Blackhole blackhole) {
+        for (int globalId : globalIds) {
+            blackhole.consume(WrappedBlockState.getByGlobalId(version, globalId, false));
+        }
+    }
+
+    @Benchmark
+    public void getByGlobalIdCloned(Blackhole blackhole) {
+        for (int globalId : globalIds) {
+            blackhole.consume(WrappedBlockState.getByGlobalId(version, globalId));
+        }
+    }
+
+    @Benchmark
+    public WrappedBlockState with() {
+        return door.with(StateValue.OPEN, true).with(StateValue.FACING, BlockFace.EAST);
+    }
+
+    @Benchmark
+    public WrappedBlockState set() {
+        WrappedBlockState state = door.clone();
+        state.setOpen(true);
+        state.setFacing(BlockFace.EAST);
+        return state;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.benchmark;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.manager.protocol.ProtocolManager;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures sending one clientbound packet to many viewers,
+ * one channel after another compared to {@link ProtocolManager#broadcastPacket}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BroadcastBenchmark {
+    @Param({"ENTITY_METADATA", "PLAYER_INFO_UPDATE"})
+    public BenchmarkPacket packet;
+
+    @Param({"200"})
+    public int viewers;
+
+    private List<Object> channels;
+    private PacketWrapper<?> wrapper;
+
+    @Setup
+    public void setup() throws Exception {
+        BenchmarkEnvironment environment = new BenchmarkEnvironment();
+        channels = new ArrayList<>(viewers);
+        for (int i = 0; i < viewers; i++) {
+            channels.add(new EmbeddedChannel());
+        }
+        ByteBuf encoded = packet.encodeSample(environment);
+        wrapper = packet.read(environment.createEvent(packet.getSide(), encoded));
+        // Sent like a wrapper created by a plugin, encoded into a new buffer every time
+        wrapper.buffer = null;
+        encoded.release();
+        environment.getChannel().finishAndReleaseAll();
+    }
+
+    @TearDown
+    public void tearDown() {
+        for (Object channel : channels) {
+            ((EmbeddedChannel) channel).finishAndReleaseAll();
+        }
+    }
+
+    @Benchmark
+    public int sendEach() {
+        ProtocolManager protocolManager = PacketEvents.getAPI().getProtocolManager();
+        for (Object channel : channels) {
+            protocolManager.sendPacket(channel, wrapper);
+        }
+        return drain();
+    }
+
+    @Benchmark
+    public int broadcast() {
+        PacketEvents.getAPI().getProtocolManager().broadcastPacket(channels, wrapper);
+        return drain();
+    }
+
+    private int drain() {
+        int bytes = 0;
+        for (Object channel : channels) {
+            EmbeddedChannel embeddedChannel = (EmbeddedChannel) channel;
+            embeddedChannel.runPendingTasks();
+            ByteBuf buffer;
+            while ((buffer = embeddedChannel.readOutbound()) != null) {
+                bytes += buffer.readableBytes();
+                buffer.release();
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.benchmark;
+
+import com.github.retrooper.packetevents.protocol.nbt.NBTCompound;
+import com.github.retrooper.packetevents.protocol.stream.ByteBufferNetStreamInput;
+import com.github.retrooper.packetevents.protocol.stream.NetStreamInput;
+import com.github.retrooper.packetevents.protocol.stream.NetStreamOutput;
+import com.github.retrooper.packetevents.protocol.world.chunk.Column;
+import com.github.retrooper.packetevents.protocol.world.chunk.impl.v_1_18.Chunk_v1_18;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures decoding and encoding the sections of a full 1.18+ chunk, palettes and storage included,
+ * and going over all of their blocks one by one compared to the bulk operations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChunkSectionBenchmark {
+    private static final int SECTIONS = 24;
+
+    private byte[] data;
+    private Chunk_v1_18[] chunks;
+    private ByteArrayOutputStream out;
+    private final int[] states = new int[4096];
+    private final NBTCompound heightMaps = new NBTCompound();
+
+    @Setup
+    public void setup() {
+        data = BenchmarkPacket.encodeSections(SECTIONS);
+        chunks = decode();
+        out = new ByteArrayOutputStream(data.length);
+    }
+
+    @Benchmark
+    public Chunk_v1_18[] decode() {
+        NetStreamInput in = new ByteBufferNetStreamInput(data);
+        Chunk_v1_18[] chunks = new Chunk_v1_18[SECTIONS];
+        for (int i = 0; i < SECTIONS; i++) {
+            chunks[i] = Chunk_v1_18.read(in);
+        }
+        return chunks;
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream encode() {
+        out.reset();
+        NetStreamOutput dataOut = new NetStreamOutput(out);
+        for (Chunk_v1_18 chunk : chunks) {
+            Chunk_v1_18.write(dataOut, chunk);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public int readBlocksEach() {
+        int sum = 0;
+        for (Chunk_v1_18 chunk : chunks) {
+            for (int y = 0; y < 16; y++) {
+                for (int z = 0; z < 16; z++) {
+                    for (int x = 0; x < 16; x++) {
+                        sum += chunk.getBlockId(x, y, z);
+                    }
+                }
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int readBlocksBulk() {
+        int sum = 0;
+        for (Chunk_v1_18 chunk : chunks) {
+            chunk.getBlocks(states);
+            for (int state : states) {
+                sum += state;
+            }
+        }
+        return sum;
+    }
+
+    // Hides a block and shows it again, like an anti-xray plugin would hide ores
+
+    @Benchmark
+    public Chunk_v1_18[] replaceBlocksEach() {
+        for (Chunk_v1_18 chunk : chunks) {
+            replaceEach(chunk, 5, 13);
+            replaceEach(chunk, 13, 5);
+        }
+        return chunks;
+    }
+
+    @Benchmark
+    public Chunk_v1_18[] replaceBlocksBulk() {
+        for (Chunk_v1_18 chunk : chunks) {
+            chunk.replaceBlocks(5, 13);
+            chunk.replaceBlocks(13, 5);
+        }
+        return chunks;
+    }
+
+    // Hides a block in a received chunk and encodes it again
+
+    @Benchmark
+    public ByteArrayOutputStream hideBlocksDecoded() {
+        out.reset();
+        NetStreamOutput dataOut = new NetStreamOutput(out);
+        for (Chunk_v1_18 chunk : decode()) {
+            chunk.replaceBlocks(5, 13);
+            Chunk_v1_18.write(dataOut, chunk);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public byte[] hideBlocksPalette() {
+        // Palettes are written in place, like reading the packet, start from a fresh copy
+        Column column = new Column(0, 0, true, data.clone(), SECTIONS, null, heightMaps);
+        column.transformSections(section -> {
+            for (int id = 0; id < section.getPaletteSize(); id++) {
+                if (section.getPaletteState(id) == 5) {
+                    section.setPaletteState(id, 13);
+                }
+            }
+        });
+        return column.getRawChunkData();
+    }
+
+    private static void replaceEach(Chunk_v1_18 chunk, int from, int to) {
+        for (int y = 0; y < 16; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    if (chunk.getBlockId(x, y, z) == from) {
+                        chunk.set(x, y, z, to);
+                    }
+                }
+            }
+        }
+    }
+}
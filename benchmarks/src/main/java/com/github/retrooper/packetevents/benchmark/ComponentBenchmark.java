@@ -0,0 +1,150 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.benchmark;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.util.adventure.AdventureSerializer;
+import com.github.retrooper.packetevents.util.adventure.ComponentCache;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures writing and reading the same chat component again and again, like an action bar updated every tick,
+ * through the {@link ComponentCache}s compared to serializing it every time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComponentBenchmark {
+    @Param({"NBT", "JSON"})
+    public Format format;
+
+    private Component component;
+    private ByteBuf encoded;
+    private ByteBuf out;
+    private PacketWrapper<?> reader;
+    private PacketWrapper<?> writer;
+
+    @Setup
+    public void setup() {
+        new BenchmarkEnvironment();
+        // Disabled by default
+        PacketEvents.getAPI().getSettings().componentCacheSize(512);
+        component = Component.text("Mana ", NamedTextColor.AQUA)
+                .append(Component.text("87", NamedTextColor.GOLD, TextDecoration.BOLD))
+                .append(Component.text(" / 100", NamedTextColor.GRAY))
+                .append(Component.text(" | Zone: ", NamedTextColor.DARK_GRAY))
+                .append(Component.text("Whispering Woods", NamedTextColor.GREEN).decorate(TextDecoration.ITALIC));
+        encoded = Unpooled.buffer();
+        format.write(PacketWrapper.createUniversalPacketWrapper(encoded), component, false);
+        out = Unpooled.buffer(encoded.readableBytes());
+        reader = PacketWrapper.createUniversalPacketWrapper(encoded);
+        writer = PacketWrapper.createUniversalPacketWrapper(out);
+    }
+
+    @TearDown
+    public void tearDown() {
+        encoded.release();
+        out.release();
+    }
+
+    @Benchmark
+    public ByteBuf write() {
+        out.clear();
+        format.write(writer, component, true);
+        return out;
+    }
+
+    @Benchmark
+    public ByteBuf writeUncached() {
+        out.clear();
+        format.write(writer, component, false);
+        return out;
+    }
+
+    @Benchmark
+    public Component read() {
+        encoded.readerIndex(0);
+        return format.read(reader, true);
+    }
+
+    @Benchmark
+    public Component readUncached() {
+        encoded.readerIndex(0);
+        return format.read(reader, false);
+    }
+
+    public enum Format {
+        // As of 1.20.3
+        NBT {
+            @Override
+            void write(PacketWrapper<?> wrapper, Component component, boolean cached) {
+                if (cached) {
+                    wrapper.writeComponentAsNBT(component);
+                } else {
+                    wrapper.writeNBTRaw(AdventureSerializer.toNbt(component));
+                }
+            }
+
+            @Override
+            Component read(PacketWrapper<?> wrapper, boolean cached) {
+                return cached ? wrapper.readComponentAsNBT() : AdventureSerializer.fromNbt(wrapper.readNBTRaw());
+            }
+        },
+        JSON {
+            @Override
+            void write(PacketWrapper<?> wrapper, Component component, boolean cached) {
+                wrapper.writeString(cached ? AdventureSerializer.toJson(component)
+                        : AdventureSerializer.getGsonSerializer().serialize(component));
+            }
+
+            @Override
+            Component read(PacketWrapper<?> wrapper, boolean cached) {
+                String json = wrapper.readString();
+                return cached ? AdventureSerializer.parseComponent(json)
+                        : AdventureSerializer.getGsonSerializer().deserialize(json);
+            }
+        };
+
+        abstract void write(PacketWrapper<?> wrapper, Component component, boolean cached);
+
+        abstract Component read(PacketWrapper<?> wrapper, boolean cached);
+    }
+}
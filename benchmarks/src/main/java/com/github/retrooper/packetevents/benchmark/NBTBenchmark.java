@@ -0,0 +1,192 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.benchmark;
+
+import com.github.retrooper.packetevents.manager.server.ServerVersion;
+import com.github.retrooper.packetevents.netty.buffer.ByteBufInputStream;
+import com.github.retrooper.packetevents.netty.buffer.ByteBufOutputStream;
+import com.github.retrooper.packetevents.protocol.nbt.*;
+import com.github.retrooper.packetevents.protocol.nbt.codec.NBTCodec;
+import com.github.retrooper.packetevents.protocol.nbt.serializer.DefaultNBTSerializer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading and writing network NBT through {@link NBTCodec},
+ * compared to the stream based {@link DefaultNBTSerializer}, and passing it through unread with lazy compounds.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NBTBenchmark {
+    @Param({"ITEM", "REGISTRY"})
+    public Sample sample;
+
+    private NBT tag;
+    private ByteBuf encoded;
+    private ByteBuf out;
+
+    @Setup
+    public void setup() throws IOException {
+        new BenchmarkEnvironment();
+        tag = sample.create();
+        encoded = Unpooled.buffer();
+        DefaultNBTSerializer.INSTANCE.serializeTag(new ByteBufOutputStream(encoded), tag, false);
+        out = Unpooled.buffer(encoded.readableBytes());
+    }
+
+    @TearDown
+    public void tearDown() {
+        encoded.release();
+        out.release();
+    }
+
+    @Benchmark
+    public NBT readStream() throws IOException {
+        encoded.readerIndex(0);
+        return DefaultNBTSerializer.INSTANCE.deserializeTag(new NBTLimiter(encoded, 2097152),
+                new ByteBufInputStream(encoded), false);
+    }
+
+    @Benchmark
+    public NBT readBuffer() {
+        encoded.readerIndex(0);
+        return NBTCodec.readNBTFromBuffer(encoded, ServerVersion.V_1_20_2);
+    }
+
+    @Benchmark
+    public NBT readLazy() {
+        encoded.readerIndex(0);
+        return NBTCodec.readNBTFromBuffer(encoded, ServerVersion.V_1_20_2, true);
+    }
+
+    @Benchmark
+    public ByteBuf passThrough() {
+        encoded.readerIndex(0);
+        out.clear();
+        NBTCodec.writeNBTToBuffer(out, ServerVersion.V_1_20_2, NBTCodec.readNBTFromBuffer(encoded, ServerVersion.V_1_20_2));
+        return out;
+    }
+
+    // Read and written again by a listener which never looks at the NBT
+    @Benchmark
+    public ByteBuf passThroughLazy() {
+        encoded.readerIndex(0);
+        out.clear();
+        NBTCodec.writeNBTToBuffer(out, ServerVersion.V_1_20_2,
+                NBTCodec.readNBTFromBuffer(encoded, ServerVersion.V_1_20_2, true));
+        return out;
+    }
+
+    @Benchmark
+    public ByteBuf writeStream() throws IOException {
+        out.clear();
+        DefaultNBTSerializer.INSTANCE.serializeTag(new ByteBufOutputStream(out), tag, false);
+        return out;
+    }
+
+    @Benchmark
+    public ByteBuf writeBuffer() {
+        out.clear();
+        NBTCodec.writeNBTToBuffer(out, ServerVersion.V_1_20_2, tag);
+        return out;
+    }
+
+    public enum Sample {
+        // An enchanted, renamed sword as sent in inventories
+        ITEM {
+            @Override
+            NBT create() {
+                NBTCompound display = new NBTCompound();
+                display.setTag("Name", new NBTString("{\"text\":\"Excalibur\",\"italic\":false,\"color\":\"gold\"}"));
+                NBTList<NBTString> lore = NBTList.createStringList();
+                lore.addTag(new NBTString("{\"text\":\"Forged in the lake\",\"color\":\"gray\"}"));
+                lore.addTag(new NBTString("{\"text\":\"Level requirement: 30\",\"color\":\"dark_gray\"}"));
+                display.setTag("Lore", lore);
+                NBTList<NBTCompound> enchantments = NBTList.createCompoundList();
+                for (String id : new String[]{"minecraft:sharpness", "minecraft:unbreaking", "minecraft:looting"}) {
+                    NBTCompound enchantment = new NBTCompound();
+                    enchantment.setTag("id", new NBTString(id));
+                    enchantment.setTag("lvl", new NBTShort((short) 3));
+                    enchantments.addTag(enchantment);
+                }
+                NBTCompound item = new NBTCompound();
+                item.setTag("Damage", new NBTInt(12));
+                item.setTag("Unbreakable", new NBTByte(true));
+                item.setTag("display", display);
+                item.setTag("Enchantments", enchantments);
+                return item;
+            }
+        },
+        // Entries shaped like the biome registry of the join game packet
+        REGISTRY {
+            @Override
+            NBT create() {
+                NBTList<NBTCompound> entries = NBTList.createCompoundList();
+                for (int i = 0; i < 64; i++) {
+                    NBTCompound effects = new NBTCompound();
+                    effects.setTag("sky_color", new NBTInt(7907327 + i));
+                    effects.setTag("water_fog_color", new NBTInt(329011));
+                    effects.setTag("fog_color", new NBTInt(12638463));
+                    effects.setTag("water_color", new NBTInt(4159204));
+                    NBTCompound mood = new NBTCompound();
+                    mood.setTag("tick_delay", new NBTInt(6000));
+                    mood.setTag("offset", new NBTDouble(2.0));
+                    mood.setTag("sound", new NBTString("minecraft:ambient.cave"));
+                    mood.setTag("block_search_extent", new NBTInt(8));
+                    effects.setTag("mood_sound", mood);
+                    NBTCompound element = new NBTCompound();
+                    element.setTag("has_precipitation", new NBTByte(true));
+                    element.setTag("temperature", new NBTFloat(0.8F));
+                    element.setTag("downfall", new NBTFloat(0.4F));
+                    element.setTag("effects", effects);
+                    NBTCompound entry = new NBTCompound();
+                    entry.setTag("name", new NBTString("minecraft:biome_" + i));
+                    entry.setTag("id", new NBTInt(i));
+                    entry.setTag("element", element);
+                    entries.addTag(entry);
+                }
+                NBTCompound registry = new NBTCompound();
+                registry.setTag("type", new NBTString("minecraft:worldgen/biome"));
+                registry.setTag("value", entries);
+                return registry;
+            }
+        };
+
+        abstract NBT create();
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.benchmark;
+
+import com.github.retrooper.packetevents.protocol.ConnectionState;
+import com.github.retrooper.packetevents.protocol.PacketSide;
+import com.github.retrooper.packetevents.protocol.packettype.PacketType;
+import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
+import com.github.retrooper.packetevents.protocol.player.ClientVersion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares resolving serverbound play packet types through the dense ID tables
+ * with the boxed nested map lookup (and linear version scan) they replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PacketTypeBenchmark {
+    @Param({"V_1_8", "V_1_20_5"})
+    public ClientVersion version;
+
+    private int[] packetIds;
+    private ClientVersion[] reversedVersions;
+    private final Map<Byte, Map<Integer, PacketTypeCommon>> legacyMap = new HashMap<>();
+
+    @Setup
+    public void setup() {
+        PacketType.prepare();
+        PacketTypeCommon[] idTable = PacketType.getIdTable(PacketSide.CLIENT, ConnectionState.PLAY, version);
+        packetIds = new int[idTable.length];
+        for (int i = 0; i < packetIds.length; i++) {
+            packetIds[i] = i;
+        }
+
+        // Rebuild the previous layout, keyed by the same version index
+        ClientVersion[] versions = supportedVersions();
+        reversedVersions = new ClientVersion[versions.length];
+        for (int i = 0; i < versions.length; i++) {
+            reversedVersions[i] = versions[versions.length - 1 - i];
+            PacketTypeCommon[] table = PacketType.getIdTable(PacketSide.CLIENT, ConnectionState.PLAY, versions[i]);
+            Map<Integer, PacketTypeCommon> packetIdMap = legacyMap.computeIfAbsent((byte) i, k -> new HashMap<>());
+            for (int id = 0; id < table.length; id++) {
+                packetIdMap.put(id, table[id]);
+            }
+        }
+    }
+
+    @Benchmark
+    public void idTable(Blackhole blackhole) {
+        for (int packetId : packetIds) {
+            blackhole.consume(PacketType.Play.Client.getById(version, packetId));
+        }
+    }
+
+    @Benchmark
+    public void legacyMap(Blackhole blackhole) {
+        for (int packetId : packetIds) {
+            int index = legacyIndex(version);
+            blackhole.consume(legacyMap.get((byte) index).get(packetId));
+        }
+    }
+
+    private int legacyIndex(ClientVersion version) {
+        int index = reversedVersions.length - 1;
+        for (ClientVersion v : reversedVersions) {
+            if (version.isNewerThanOrEquals(v)) {
+                return index;
+            }
+            index--;
+        }
+        return 0;
+    }
+
+    private static ClientVersion[] supportedVersions() {
+        // Same versions as the serverbound play version mapper
+        return new ClientVersion[]{
+                ClientVersion.V_1_7_10, ClientVersion.V_1_8, ClientVersion.V_1_9, ClientVersion.V_1_12,
+                ClientVersion.V_1_12_1, ClientVersion.V_1_13, ClientVersion.V_1_14, ClientVersion.V_1_15_2,
+                ClientVersion.V_1_16, ClientVersion.V_1_16_2, ClientVersion.V_1_17, ClientVersion.V_1_19,
+                ClientVersion.V_1_19_1, ClientVersion.V_1_19_3, ClientVersion.V_1_19_4, ClientVersion.V_1_20_2,
+                ClientVersion.V_1_20_3, ClientVersion.V_1_20_5
+        };
+    }
+}
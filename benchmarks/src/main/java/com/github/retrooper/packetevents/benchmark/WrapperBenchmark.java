@@ -0,0 +1,143 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.benchmark;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.event.PacketListenerAbstract;
+import com.github.retrooper.packetevents.event.PacketListenerCommon;
+import com.github.retrooper.packetevents.event.PacketListenerPriority;
+import com.github.retrooper.packetevents.event.PacketReceiveEvent;
+import com.github.retrooper.packetevents.event.PacketSendEvent;
+import com.github.retrooper.packetevents.event.ProtocolPacketEvent;
+import com.github.retrooper.packetevents.protocol.PacketSide;
+import com.github.retrooper.packetevents.util.PacketEventsImplHelper;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading, writing and a full read and re-encode pass through {@link PacketEventsImplHelper}
+ * for a set of commonly sent packets.
+ * Run with {@code -prof gc} (the default of the jmh task) to see the allocations per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WrapperBenchmark {
+    @Param
+    public BenchmarkPacket packet;
+
+    private BenchmarkEnvironment environment;
+    private ByteBuf encoded;
+    private ByteBuf work;
+    private PacketWrapper<?> wrapper;
+    private PacketListenerCommon listener;
+
+    @Setup
+    public void setup() throws Exception {
+        environment = new BenchmarkEnvironment();
+        encoded = packet.encodeSample(environment);
+        work = Unpooled.buffer(encoded.capacity());
+        // The wrapper we write was read from the sample, as if a listener were to modify it
+        wrapper = packet.read(environment.createEvent(packet.getSide(), encoded.duplicate()));
+
+        listener = new PacketListenerAbstract(PacketListenerPriority.NORMAL, packet.getPacketType()) {
+            @Override
+            public void onPacketReceive(PacketReceiveEvent event) {
+                reEncode(event);
+            }
+
+            @Override
+            public void onPacketSend(PacketSendEvent event) {
+                reEncode(event);
+            }
+
+            private void reEncode(ProtocolPacketEvent<?> event) {
+                packet.read(event);
+                event.markForReEncode(true);
+            }
+        };
+        PacketEvents.getAPI().getEventManager().registerListener(listener);
+    }
+
+    @TearDown
+    public void tearDown() {
+        PacketEvents.getAPI().getEventManager().unregisterListener(listener);
+        encoded.release();
+        work.release();
+        environment.getChannel().finishAndReleaseAll();
+    }
+
+    @Benchmark
+    public PacketWrapper<?> read() throws Exception {
+        encoded.readerIndex(0);
+        return packet.read(environment.createEvent(packet.getSide(), encoded));
+    }
+
+    @Benchmark
+    public PacketWrapper<?> readPooled() throws Exception {
+        encoded.readerIndex(0);
+        ProtocolPacketEvent<?> event = environment.createEvent(packet.getSide(), encoded);
+        PacketWrapper<?> wrapper = event.acquireWrapper(packet.getWrapperClass());
+        event.releaseAcquiredWrappers();
+        return wrapper;
+    }
+
+    @Benchmark
+    public ByteBuf write() {
+        work.clear();
+        wrapper.buffer = work;
+        wrapper.prepareForSend(environment.getChannel(), packet.getSide() == PacketSide.SERVER, false);
+        return work;
+    }
+
+    @Benchmark
+    public Object roundTrip() throws Exception {
+        work.clear();
+        work.writeBytes(encoded, 0, encoded.writerIndex());
+        if (packet.getSide() == PacketSide.SERVER) {
+            return PacketEventsImplHelper.handleClientBoundPacket(environment.getChannel(), environment.getUser(),
+                    null, work, false);
+        }
+        Object result = PacketEventsImplHelper.handleServerBoundPacket(environment.getChannel(), environment.getUser(),
+                null, work, false);
+        if (result != work) {
+            // Re-encoded serverbound packets end up in a new buffer
+            ((ByteBuf) result).release();
+        }
+        return result;
+    }
+}
@@ -18,11 +18,8 @@
 
 package io.github.retrooper.packetevents.handlers;
 
-import com.github.retrooper.packetevents.PacketEvents;
-import com.github.retrooper.packetevents.event.PacketReceiveEvent;
-import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
 import com.github.retrooper.packetevents.protocol.player.User;
-import com.github.retrooper.packetevents.util.EventCreationUtil;
+import com.github.retrooper.packetevents.util.PacketEventsImplHelper;
 import io.github.retrooper.packetevents.injector.ServerConnectionInitializer;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandler;
@@ -45,27 +42,14 @@ public class PacketEventsDecoder extends MessageToMessageDecoder<ByteBuf> {
     }
 
     public void read(ChannelHandlerContext ctx, ByteBuf byteBuf, List<Object> output) throws Exception {
-        ByteBuf transformed = ctx.alloc().buffer().writeBytes(byteBuf);
         try {
-            int firstReaderIndex = transformed.readerIndex();
-            PacketReceiveEvent packetReceiveEvent = EventCreationUtil.createReceiveEvent(ctx.channel(),
-                    user, player, transformed, false);
-            int readerIndex = transformed.readerIndex();
-            PacketEvents.getAPI().getEventManager().callEvent(packetReceiveEvent, () -> transformed.readerIndex(readerIndex));
-            if (!packetReceiveEvent.isCancelled()) {
-                if (packetReceiveEvent.getLastUsedWrapper() != null) {
-                    ByteBufHelper.clear(packetReceiveEvent.getByteBuf());
-                    packetReceiveEvent.getLastUsedWrapper().writeVarInt(packetReceiveEvent.getPacketId());
-                    packetReceiveEvent.getLastUsedWrapper().write();
-                } else {
-                    transformed.readerIndex(firstReaderIndex);
-                }
-                output.add(transformed.retain());
-            }
-            if (packetReceiveEvent.hasPostTasks()) {
-                for (Runnable task : packetReceiveEvent.getPostTasks()) {
-                    task.run();
-                }
+            Object buffer = PacketEventsImplHelper.handleServerBoundPacket(ctx.channel(), user, player, byteBuf, false, true);
+            if (buffer != byteBuf) {
+                // Re-encoded into a buffer from ctx.alloc()
+                output.add(buffer);
+            } else if (byteBuf.isReadable()) {
+                // Not modified, or the packet would have been cleared if it was cancelled
+                output.add(byteBuf.retain());
             }
         } catch (Throwable e) {
             catches++;
@@ -76,8 +60,6 @@ public class PacketEventsDecoder extends MessageToMessageDecoder<ByteBuf> {
                 System.out.println("Too many exceptions caught in PacketEventsDecoder from " + player.getName() + ", stopping stacktrace printing.");
                 sent = true;
             }
-        } finally {
-            transformed.release();
         }
     }
 
@@ -49,8 +49,7 @@ public class PacketEventsEncoder extends MessageToByteEncoder<ByteBuf> {
         int firstReaderIndex = buffer.readerIndex();
         PacketSendEvent packetSendEvent = EventCreationUtil.createSendEvent(ctx.channel(), user, player,
                 buffer, false);
-        int readerIndex = buffer.readerIndex();
-        PacketEvents.getAPI().getEventManager().callEvent(packetSendEvent, () -> buffer.readerIndex(readerIndex));
+        PacketEvents.getAPI().getEventManager().callEvent(packetSendEvent);
         if (!packetSendEvent.isCancelled()) {
             if (packetSendEvent.getLastUsedWrapper() != null) {
                 ByteBufHelper.clear(packetSendEvent.getByteBuf());
@@ -69,6 +68,7 @@ public class PacketEventsEncoder extends MessageToByteEncoder<ByteBuf> {
                 task.run();
             }
         }
+        packetSendEvent.releaseAcquiredWrappers();
     }
 
     @Override
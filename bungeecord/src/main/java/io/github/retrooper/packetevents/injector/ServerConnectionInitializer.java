@@ -27,6 +27,7 @@ import com.github.retrooper.packetevents.protocol.player.UserProfile;
 import com.github.retrooper.packetevents.util.PacketEventsImplHelper;
 import io.github.retrooper.packetevents.handlers.PacketEventsDecoder;
 import io.github.retrooper.packetevents.handlers.PacketEventsEncoder;
+import io.github.retrooper.packetevents.impl.netty.channel.PacketEventsFlushConsolidator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFutureListener;
 
@@ -50,6 +51,7 @@ public class ServerConnectionInitializer {
         PacketEventsEncoder encoder = new PacketEventsEncoder(user);
         //Order of these
         addChannelHandlers(channel, decoder, encoder);
+        PacketEventsFlushConsolidator.addIfEnabled(channel);
 
         channel.closeFuture().addListener((ChannelFutureListener) future -> PacketEventsImplHelper.handleDisconnection(user.getChannel(), user.getUUID()));
 
@@ -61,5 +63,6 @@ public class ServerConnectionInitializer {
     public static void destroyChannel(Channel channel) {
         channel.pipeline().remove(PacketEvents.DECODER_NAME);
         channel.pipeline().remove(PacketEvents.ENCODER_NAME);
+        PacketEventsFlushConsolidator.remove(channel);
     }
 }
@@ -11,6 +11,7 @@ import com.github.retrooper.packetevents.util.PacketEventsImplHelper;
 import io.github.retrooper.packetevents.PacketEventsMod;
 import io.github.retrooper.packetevents.handler.PacketDecoder;
 import io.github.retrooper.packetevents.handler.PacketEncoder;
+import io.github.retrooper.packetevents.impl.netty.channel.PacketEventsFlushConsolidator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelPipeline;
@@ -41,6 +42,7 @@ public class PacketEventsInjectorMixin {
         PacketEncoder encoder = new PacketEncoder(user);
         channel.pipeline().addAfter("splitter", PacketEvents.DECODER_NAME, decoder);
         channel.pipeline().addAfter("prepender", PacketEvents.ENCODER_NAME, encoder);
+        PacketEventsFlushConsolidator.addIfEnabled(channel);
         channel.closeFuture().addListener((ChannelFutureListener) future -> PacketEventsImplHelper.handleDisconnection(user.getChannel(), user.getUUID()));
     }
 }
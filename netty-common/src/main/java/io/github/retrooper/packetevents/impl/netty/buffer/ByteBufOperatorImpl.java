@@ -214,6 +214,16 @@ public class ByteBufOperatorImpl implements ByteBufOperator {
         return ((ByteBuf)buffer).toString(index, length, charset);
     }
 
+    @Override
+    public int readVarInt(Object buffer) {
+        return VarIntCodec.readVarInt((ByteBuf) buffer);
+    }
+
+    @Override
+    public void writeVarInt(Object buffer, int value) {
+        VarIntCodec.writeVarInt((ByteBuf) buffer, value);
+    }
+
     @Override
     public Object markReaderIndex(Object buffer) {
         return ((ByteBuf)buffer).markReaderIndex();
@@ -0,0 +1,67 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.retrooper.packetevents.impl.netty.buffer;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * VarInt encoding working on the buffer as a whole instead of going through it byte by byte.
+ * Reads scan the readable bytes and move the reader index once, writes pack all bytes of the
+ * VarInt into a single primitive write.
+ */
+public final class VarIntCodec {
+    private VarIntCodec() {
+    }
+
+    public static int readVarInt(ByteBuf buffer) {
+        int readerIndex = buffer.readerIndex();
+        int readable = Math.min(buffer.writerIndex() - readerIndex, 5);
+        int value = 0;
+        for (int i = 0; i < readable; i++) {
+            byte currentByte = buffer.getByte(readerIndex + i);
+            value |= (currentByte & 0x7F) << (i * 7);
+            if ((currentByte & 0x80) != 0x80) {
+                buffer.readerIndex(readerIndex + i + 1);
+                return value;
+            }
+        }
+        if (readable == 5) {
+            throw new RuntimeException("VarInt is too large. Must be smaller than 5 bytes.");
+        }
+        throw new IndexOutOfBoundsException("VarInt is incomplete, only " + readable
+                + " readable bytes at reader index " + readerIndex);
+    }
+
+    public static void writeVarInt(ByteBuf buffer, int value) {
+        if ((value & (0xFFFFFFFF << 7)) == 0) {
+            buffer.writeByte(value);
+        } else if ((value & (0xFFFFFFFF << 14)) == 0) {
+            buffer.writeShort((value & 0x7F | 0x80) << 8 | (value >>> 7));
+        } else if ((value & (0xFFFFFFFF << 21)) == 0) {
+            buffer.writeMedium((value & 0x7F | 0x80) << 16 | ((value >>> 7) & 0x7F | 0x80) << 8 | (value >>> 14));
+        } else if ((value & (0xFFFFFFFF << 28)) == 0) {
+            buffer.writeInt((value & 0x7F | 0x80) << 24 | ((value >>> 7) & 0x7F | 0x80) << 16
+                    | ((value >>> 14) & 0x7F | 0x80) << 8 | (value >>> 21));
+        } else {
+            buffer.writeInt((value & 0x7F | 0x80) << 24 | ((value >>> 7) & 0x7F | 0x80) << 16
+                    | ((value >>> 14) & 0x7F | 0x80) << 8 | ((value >>> 21) & 0x7F | 0x80));
+            buffer.writeByte(value >>> 28);
+        }
+    }
+}
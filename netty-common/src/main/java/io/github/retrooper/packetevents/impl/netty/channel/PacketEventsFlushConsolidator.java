@@ -0,0 +1,163 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.retrooper.packetevents.impl.netty.channel;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.settings.PacketEventsSettings;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+
+/**
+ * Holds back flushes until a batch of packets has been written, so they go out in one syscall instead of one each.
+ * This follows the semantics of Netty's FlushConsolidationHandler, which isn't available on all servers we support:
+ * <ul>
+ *     <li>Flushes while the channel is reading are deferred until the read is complete.</li>
+ *     <li>Other flushes are deferred to a task which runs once the event loop processed the writes already queued,
+ *     which are all packets a server thread sent to this channel in one go.</li>
+ *     <li>Once the packet or byte budget of {@link PacketEventsSettings#flushConsolidationLimits(int, int)}
+ *     is used up, we flush right away.</li>
+ * </ul>
+ * Sits right behind the head of the pipeline, so it sees every flush and the final size of every packet.
+ */
+public class PacketEventsFlushConsolidator extends ChannelDuplexHandler {
+    private final int maxPendingFlushes;
+    private final int maxPendingBytes;
+    private final Runnable flushTask;
+    private ChannelHandlerContext ctx;
+    private int pendingFlushes;
+    private long pendingBytes;
+    private boolean readInProgress;
+    private boolean flushScheduled;
+
+    public PacketEventsFlushConsolidator(int maxPendingFlushes, int maxPendingBytes) {
+        this.maxPendingFlushes = maxPendingFlushes;
+        this.maxPendingBytes = maxPendingBytes;
+        this.flushTask = () -> {
+            flushScheduled = false;
+            if (pendingFlushes > 0 && !readInProgress) {
+                flushNow(ctx);
+            }
+        };
+    }
+
+    public static String getName() {
+        return PacketEvents.ENCODER_NAME + "-flush";
+    }
+
+    /**
+     * Add a consolidator to the channel, if enabled in the settings.
+     */
+    public static void addIfEnabled(Channel channel) {
+        PacketEventsSettings settings = PacketEvents.getAPI().getSettings();
+        if (settings.isFlushConsolidationEnabled() && channel.pipeline().get(getName()) == null) {
+            channel.pipeline().addFirst(getName(), new PacketEventsFlushConsolidator(
+                    settings.getFlushConsolidationMaxPackets(), settings.getFlushConsolidationMaxBytes()));
+        }
+    }
+
+    public static void remove(Channel channel) {
+        if (channel.pipeline().get(getName()) != null) {
+            channel.pipeline().remove(getName());
+        }
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) {
+        this.ctx = ctx;
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) {
+        flushIfNeeded(ctx);
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        readInProgress = true;
+        ctx.fireChannelRead(msg);
+    }
+
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+        readInProgress = false;
+        flushIfNeeded(ctx);
+        ctx.fireChannelReadComplete();
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (msg instanceof ByteBuf) {
+            pendingBytes += ((ByteBuf) msg).readableBytes();
+        }
+        ctx.write(msg, promise);
+    }
+
+    @Override
+    public void flush(ChannelHandlerContext ctx) throws Exception {
+        if (++pendingFlushes >= maxPendingFlushes || (maxPendingBytes > 0 && pendingBytes >= maxPendingBytes)) {
+            flushNow(ctx);
+        } else if (!readInProgress && !flushScheduled) {
+            // Runs behind everything already queued on the event loop
+            flushScheduled = true;
+            ctx.channel().eventLoop().execute(flushTask);
+        }
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        // Let the socket drain what we held back
+        if (!ctx.channel().isWritable()) {
+            flushIfNeeded(ctx);
+        }
+        ctx.fireChannelWritabilityChanged();
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+        flushIfNeeded(ctx);
+        ctx.fireExceptionCaught(cause);
+    }
+
+    @Override
+    public void disconnect(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+        flushIfNeeded(ctx);
+        ctx.disconnect(promise);
+    }
+
+    @Override
+    public void close(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+        flushIfNeeded(ctx);
+        ctx.close(promise);
+    }
+
+    private void flushIfNeeded(ChannelHandlerContext ctx) {
+        if (pendingFlushes > 0) {
+            flushNow(ctx);
+        }
+    }
+
+    private void flushNow(ChannelHandlerContext ctx) {
+        pendingFlushes = 0;
+        pendingBytes = 0;
+        ctx.flush();
+    }
+}
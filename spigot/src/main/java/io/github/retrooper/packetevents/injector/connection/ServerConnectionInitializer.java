@@ -26,6 +26,8 @@ import com.github.retrooper.packetevents.protocol.player.User;
 import com.github.retrooper.packetevents.protocol.player.UserProfile;
 import com.github.retrooper.packetevents.util.FakeChannelUtil;
 import com.github.retrooper.packetevents.util.PacketEventsImplHelper;
+import io.github.retrooper.packetevents.impl.netty.channel.PacketEventsFlushConsolidator;
+import io.github.retrooper.packetevents.injector.handlers.PacketEventsCompressionWatcher;
 import io.github.retrooper.packetevents.injector.handlers.PacketEventsDecoder;
 import io.github.retrooper.packetevents.injector.handlers.PacketEventsEncoder;
 import io.netty.channel.Channel;
@@ -71,6 +73,7 @@ public class ServerConnectionInitializer {
             }
 
             relocateHandlers(channel, null, user);
+            PacketEventsFlushConsolidator.addIfEnabled(channel);
 
             channel.closeFuture().addListener((ChannelFutureListener) future -> PacketEventsImplHelper.handleDisconnection(user.getChannel(), user.getUUID()));
             PacketEvents.getAPI().getProtocolManager().setUser(channel, user);
@@ -90,13 +93,15 @@ public class ServerConnectionInitializer {
         } else {
             PacketEvents.getAPI().getLogger().warning("Could not find encoder handler in channel pipeline!");
         }
+        PacketEventsFlushConsolidator.remove(channel);
     }
 
     public static void relocateHandlers(Channel ctx, PacketEventsDecoder decoder, User user) {
         // Decoder == null means we haven't made handlers for the user yet
         try {
             ChannelHandler encoder;
-            if (decoder != null) {
+            boolean relocating = decoder != null;
+            if (relocating) {
                 // This patches a bug where PE 2.0 handlers keep jumping behind one another causing a stackoverflow
                 if (decoder.hasBeenRelocated) return;
                 // Make sure we only relocate because of compression once
@@ -117,6 +122,11 @@ public class ServerConnectionInitializer {
             ctx.pipeline().addBefore(decoderName, PacketEvents.DECODER_NAME, decoder);
             String encoderName = ctx.pipeline().names().contains("outbound_config") ? "outbound_config" : "encoder";
             ctx.pipeline().addBefore(encoderName, PacketEvents.ENCODER_NAME, encoder);
+            // Without the server telling us when compression is enabled, watch for it so we can move behind it in time
+            if (PacketEventsEncoder.COMPRESSION_ENABLED_EVENT == null && !relocating
+                    && ctx.pipeline().get(PacketEventsCompressionWatcher.getName()) == null) {
+                ctx.pipeline().addLast(PacketEventsCompressionWatcher.getName(), new PacketEventsCompressionWatcher(user));
+            }
         } catch (NoSuchElementException ex) {
             String handlers = ChannelHelper.pipelineHandlerNamesAsString(ctx);
             throw new IllegalStateException("PacketEvents failed to add a decoder to the netty pipeline. Pipeline handlers: " + handlers, ex);
@@ -0,0 +1,78 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.retrooper.packetevents.injector.handlers;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.protocol.ConnectionState;
+import com.github.retrooper.packetevents.protocol.player.User;
+import io.github.retrooper.packetevents.injector.connection.ServerConnectionInitializer;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.ChannelPromise;
+
+import java.util.List;
+
+/**
+ * Sits at the tail of the pipeline during login, so it sees every packet before the server encodes and compresses it.
+ * Once the server has added its compression handlers, we move our handlers behind them before the next packet
+ * goes out. Our encoder then never sees compressed packets, so it doesn't have to decompress and recompress them.
+ * <p>
+ * Only needed on servers which don't tell us about compression themselves, see {@link PacketEventsEncoder#COMPRESSION_ENABLED_EVENT}.
+ */
+public class PacketEventsCompressionWatcher extends ChannelOutboundHandlerAdapter {
+    private final User user;
+
+    public PacketEventsCompressionWatcher(User user) {
+        this.user = user;
+    }
+
+    public static String getName() {
+        return PacketEvents.ENCODER_NAME + "-compression";
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        ChannelPipeline pipeline = ctx.pipeline();
+        if (pipeline.get("compress") != null) {
+            relocateHandlers(ctx);
+            pipeline.remove(this);
+        } else if (user.getEncoderState() == ConnectionState.PLAY
+                || user.getEncoderState() == ConnectionState.CONFIGURATION) {
+            // Compression is only ever enabled during login
+            pipeline.remove(this);
+        }
+        ctx.write(msg, promise);
+    }
+
+    private void relocateHandlers(ChannelHandlerContext ctx) {
+        ChannelPipeline pipeline = ctx.pipeline();
+        PacketEventsEncoder encoder = (PacketEventsEncoder) pipeline.get(PacketEvents.ENCODER_NAME);
+        PacketEventsDecoder decoder = (PacketEventsDecoder) pipeline.get(PacketEvents.DECODER_NAME);
+        if (encoder == null || decoder == null) {
+            return;
+        }
+        encoder.markCompressionHandled();
+        List<String> names = pipeline.names();
+        // Unless the server put its compression handlers in front of ours already
+        if (names.indexOf("compress") > names.indexOf(PacketEvents.ENCODER_NAME)) {
+            ServerConnectionInitializer.relocateHandlers(ctx.channel(), decoder, user);
+        }
+    }
+}
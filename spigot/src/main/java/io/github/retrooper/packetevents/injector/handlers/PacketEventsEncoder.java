@@ -42,6 +42,7 @@ import org.bukkit.entity.Player;
 
 import java.lang.reflect.InvocationTargetException;
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 
 public class PacketEventsEncoder extends MessageToMessageEncoder<ByteBuf> {
     public User user;
@@ -49,6 +50,8 @@ public class PacketEventsEncoder extends MessageToMessageEncoder<ByteBuf> {
     private boolean handledCompression = COMPRESSION_ENABLED_EVENT != null;
     private ChannelPromise promise;
     public static final Object COMPRESSION_ENABLED_EVENT = paperCompressionEnabledEvent();
+    // How often compression was enabled without us having moved behind it in time, see handleCompression
+    private static final LongAdder RECOMPRESSION_FALLBACKS = new LongAdder();
 
     public PacketEventsEncoder(User user) {
         this.user = user;
@@ -80,7 +83,7 @@ public class PacketEventsEncoder extends MessageToMessageEncoder<ByteBuf> {
 
     private PacketSendEvent handleClientBoundPacket(Channel channel, User user, Object player, ByteBuf buffer, ChannelPromise promise) throws Exception {
         PacketSendEvent packetSendEvent = PacketEventsImplHelper.handleClientBoundPacket(channel, user, player, buffer, true);
-        if (packetSendEvent.hasTasksAfterSend()) {
+        if (packetSendEvent != null && packetSendEvent.hasTasksAfterSend()) {
             promise.addListener((p) -> {
                 for (Runnable task : packetSendEvent.getTasksAfterSend()) {
                     task.run();
@@ -128,6 +131,18 @@ public class PacketEventsEncoder extends MessageToMessageEncoder<ByteBuf> {
         super.exceptionCaught(ctx, cause);
     }
 
+    /**
+     * @return How often packets had to be decompressed and recompressed because our handlers
+     * were still in front of the compression handlers when compression was enabled
+     */
+    public static long getRecompressionFallbackCount() {
+        return RECOMPRESSION_FALLBACKS.sum();
+    }
+
+    void markCompressionHandled() {
+        handledCompression = true;
+    }
+
     private static Object paperCompressionEnabledEvent() {
         try {
             final Class<?> eventClass = Class.forName("io.papermc.paper.network.ConnectionEvent");
@@ -164,6 +179,8 @@ public class PacketEventsEncoder extends MessageToMessageEncoder<ByteBuf> {
 
     private boolean handleCompression(ChannelHandlerContext ctx, ByteBuf buffer) throws InvocationTargetException {
         if (handledCompression) return false;
+        // Cheap check first, this runs for every packet until compression is enabled
+        if (ctx.pipeline().get("compress") == null) return false;
         int compressIndex = ctx.pipeline().names().indexOf("compress");
         if (compressIndex == -1) return false;
         handledCompression = true;
@@ -172,6 +189,15 @@ public class PacketEventsEncoder extends MessageToMessageEncoder<ByteBuf> {
         if (compressIndex > peEncoderIndex) {
             //We are ahead of the decompression handler (they are added dynamically) so let us relocate.
             //But first we need to compress the data and re-compress it after we do all our processing to avoid issues.
+            //This only happens if compression was enabled without the compression watcher noticing in time.
+            RECOMPRESSION_FALLBACKS.increment();
+            if (PacketEvents.getAPI().getSettings().isDebugEnabled()) {
+                // Still logging in, so the name may not be known yet
+                String name = user != null && user.getProfile() != null ? user.getProfile().getName() : null;
+                PacketEvents.getAPI().getLogManager().debug("Recompressing a packet for "
+                        + (name != null ? name : ctx.channel().remoteAddress())
+                        + ", the compression handlers were added in front of ours");
+            }
             decompress(ctx, buffer, buffer);
             //Let us relocate and no longer deal with compression.
             PacketEventsDecoder decoder = (PacketEventsDecoder) ctx.pipeline().get(PacketEvents.DECODER_NAME);
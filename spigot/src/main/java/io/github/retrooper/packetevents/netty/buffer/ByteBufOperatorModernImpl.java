@@ -19,6 +19,7 @@
 package io.github.retrooper.packetevents.netty.buffer;
 
 import com.github.retrooper.packetevents.netty.buffer.ByteBufOperator;
+import io.github.retrooper.packetevents.impl.netty.buffer.VarIntCodec;
 import io.netty.buffer.ByteBuf;
 
 import java.nio.charset.Charset;
@@ -215,6 +216,16 @@ public class ByteBufOperatorModernImpl implements ByteBufOperator {
         return ((ByteBuf)buffer).toString(index, length, charset);
     }
 
+    @Override
+    public int readVarInt(Object buffer) {
+        return VarIntCodec.readVarInt((ByteBuf) buffer);
+    }
+
+    @Override
+    public void writeVarInt(Object buffer, int value) {
+        VarIntCodec.writeVarInt((ByteBuf) buffer, value);
+    }
+
     @Override
     public Object markReaderIndex(Object buffer) {
         return ((ByteBuf)buffer).markReaderIndex();
@@ -110,6 +110,16 @@ public class ChannelOperatorModernImpl implements ChannelOperator {
         ((Channel) channel).eventLoop().execute(runnable);
     }
 
+    @Override
+    public Object eventLoop(Object channel) {
+        return ((Channel) channel).eventLoop();
+    }
+
+    @Override
+    public boolean inEventLoop(Object channel) {
+        return ((Channel) channel).eventLoop().inEventLoop();
+    }
+
     @Override
     public Object pooledByteBuf(Object o) {
         return ((Channel) o).alloc().buffer();
@@ -20,17 +20,20 @@ package io.github.retrooper.packetevents.handlers;
 
 import com.github.retrooper.packetevents.PacketEvents;
 import com.github.retrooper.packetevents.event.PacketSendEvent;
-import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
 import com.github.retrooper.packetevents.protocol.player.User;
 import com.github.retrooper.packetevents.util.EventCreationUtil;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
 import com.velocitypowered.api.proxy.Player;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.MessageToByteEncoder;
+import io.netty.handler.codec.MessageToMessageEncoder;
+
+import java.util.List;
 
 @ChannelHandler.Sharable
-public class PacketEventsEncoder extends MessageToByteEncoder<ByteBuf> {
+public class PacketEventsEncoder extends MessageToMessageEncoder<ByteBuf> {
     public Player player;
     public User user;
 
@@ -38,38 +41,71 @@ public class PacketEventsEncoder extends MessageToByteEncoder<ByteBuf> {
         this.user = user;
     }
 
+    /**
+     * Process the packet in place: a modified packet is written over the buffer,
+     * a cancelled one leaves it empty and otherwise it is left as it was.
+     */
     public void read(ChannelHandlerContext ctx, ByteBuf buffer) throws Exception {
+        int firstReaderIndex = buffer.readerIndex();
+        ByteBuf output = process(ctx, buffer);
+        try {
+            if (output != buffer) {
+                buffer.clear().writeBytes(output);
+            } else {
+                buffer.readerIndex(firstReaderIndex);
+            }
+        } finally {
+            output.release();
+        }
+    }
+
+    /**
+     * Process the packet and get the buffer to pass on.
+     * Packets which weren't modified are passed on as they are,
+     * modified packets are re-encoded into a new buffer as the original one may be a slice of what the server sent.
+     *
+     * @return The buffer to pass on, which the caller has to release
+     */
+    private ByteBuf process(ChannelHandlerContext ctx, ByteBuf buffer) throws Exception {
         int firstReaderIndex = buffer.readerIndex();
         PacketSendEvent packetSendEvent = EventCreationUtil.createSendEvent(ctx.channel(), user, player, buffer,
                 false);
-        int readerIndex = buffer.readerIndex();
-        PacketEvents.getAPI().getEventManager().callEvent(packetSendEvent, () -> buffer.readerIndex(readerIndex));
-        if (!packetSendEvent.isCancelled()) {
-            if (packetSendEvent.getLastUsedWrapper() != null) {
-                ByteBufHelper.clear(packetSendEvent.getByteBuf());
-                packetSendEvent.getLastUsedWrapper().writeVarInt(packetSendEvent.getPacketId());
-                packetSendEvent.getLastUsedWrapper().write();
+        PacketEvents.getAPI().getEventManager().callEvent(packetSendEvent);
+        ByteBuf output;
+        if (packetSendEvent.isCancelled()) {
+            output = Unpooled.EMPTY_BUFFER;
+        } else if (packetSendEvent.getLastUsedWrapper() != null) {
+            output = ctx.alloc().buffer();
+            try {
+                PacketWrapper<?> wrapper = packetSendEvent.getLastUsedWrapper();
+                wrapper.buffer = output;
+                wrapper.writeVarInt(packetSendEvent.getPacketId());
+                wrapper.write();
+            } catch (Exception e) {
+                output.release();
+                throw e;
             }
+        } else {
             buffer.readerIndex(firstReaderIndex);
+            output = buffer.retain();
         }
         if (packetSendEvent.hasPostTasks()) {
             for (Runnable task : packetSendEvent.getPostTasks()) {
                 task.run();
             }
         }
+        packetSendEvent.releaseAcquiredWrappers();
+        return output;
     }
 
     @Override
-    protected void encode(ChannelHandlerContext ctx, ByteBuf msg, ByteBuf out) throws Exception {
-        if (!msg.isReadable()) return;
-
-        ByteBuf transformed = ctx.alloc().buffer().writeBytes(msg);
-        try {
-            read(ctx, transformed);
-            out.writeBytes(transformed);
-        } finally {
-            transformed.release();
+    protected void encode(ChannelHandlerContext ctx, ByteBuf msg, List<Object> out) throws Exception {
+        if (!msg.isReadable()) {
+            // We have to produce a message, same as what a MessageToByteEncoder would write
+            out.add(Unpooled.EMPTY_BUFFER);
+            return;
         }
+        out.add(process(ctx, msg));
     }
 
     @Override
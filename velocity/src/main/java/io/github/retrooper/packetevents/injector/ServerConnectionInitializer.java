@@ -27,6 +27,7 @@ import com.github.retrooper.packetevents.protocol.player.UserProfile;
 import com.github.retrooper.packetevents.util.PacketEventsImplHelper;
 import io.github.retrooper.packetevents.handlers.PacketEventsDecoder;
 import io.github.retrooper.packetevents.handlers.PacketEventsEncoder;
+import io.github.retrooper.packetevents.impl.netty.channel.PacketEventsFlushConsolidator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFutureListener;
 
@@ -47,6 +48,7 @@ public class ServerConnectionInitializer {
         PacketEventsDecoder decoder = new PacketEventsDecoder(user);
         PacketEventsEncoder encoder = new PacketEventsEncoder(user);
         addChannelHandlers(channel, decoder, encoder);
+        PacketEventsFlushConsolidator.addIfEnabled(channel);
         channel.closeFuture().addListener((ChannelFutureListener) future -> PacketEventsImplHelper.handleDisconnection(user.getChannel(), user.getUUID()));
         PacketEvents.getAPI().getProtocolManager().setUser(channel, user);
     }
@@ -54,6 +56,7 @@ public class ServerConnectionInitializer {
     public static void destroyChannel(Channel channel) {
         channel.pipeline().remove(PacketEvents.DECODER_NAME);
         channel.pipeline().remove(PacketEvents.ENCODER_NAME);
+        PacketEventsFlushConsolidator.remove(channel);
     }
 
     public static void reloadChannel(Channel channel) {